@@ -0,0 +1,19 @@
+package fr.anisekai.sanctum.benchmarks;
+
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+
+/**
+ * {@link ScopedEntity} used by the benchmarks.
+ *
+ * @param name
+ *         The scoped name of the entity.
+ */
+public record BenchmarkEntity(String name) implements ScopedEntity {
+
+    @Override
+    public String getScopedName() {
+
+        return this.name;
+    }
+
+}
@@ -0,0 +1,118 @@
+package fr.anisekai.sanctum.benchmarks;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.Sanctum;
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
+import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
+import fr.anisekai.sanctum.stores.ScopedFileStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the commit of a single scope, for each {@link StorePolicy} writing into the library, each {@link StoreType} and
+ * several shapes of content. Only the commit is measured, the isolation session is prepared and discarded around it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommitBenchmark {
+
+    /**
+     * The {@link StorePolicy} applied by the commit.
+     */
+    @Param({"OVERWRITE", "FULL_SWAP", "GENERATIONAL"})
+    public StorePolicy policy;
+
+    /**
+     * The {@link StoreType} of the committed store.
+     */
+    @Param({"FILE_SCOPED", "DIRECTORY_SCOPED"})
+    public StoreType type;
+
+    /**
+     * The shape of the committed content, as {@code <directories>x<files>}. A file scoped store only commits a single file, whose
+     * size is the total size of the shape.
+     */
+    @Param({"1x1", "1x64", "8x8"})
+    public String shape;
+
+    /**
+     * The size of each committed file, in bytes.
+     */
+    @Param({"4096"})
+    public int fileSize;
+
+    private Path             root;
+    private Sanctum          library;
+    private AccessScope      scope;
+    private IsolationSession session;
+    private byte[]           content;
+    private int              directories;
+    private int              files;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        String[] dimensions = this.shape.split("x");
+        this.directories = Integer.parseInt(dimensions[0]);
+        this.files       = Integer.parseInt(dimensions[1]);
+
+        this.root    = Files.createTempDirectory("sanctum-jmh");
+        this.library = new Sanctum(this.root);
+
+        FileStore store = this.type == StoreType.FILE_SCOPED ?
+                new ScopedFileStorage("entities", BenchmarkEntity.class, "bin") :
+                new ScopedDirectoryStorage("entities", BenchmarkEntity.class);
+
+        this.library.registerStore(store, this.policy);
+        this.scope   = new AccessScope(store, new BenchmarkEntity("entity"));
+        this.content = new byte[this.type == StoreType.FILE_SCOPED ? this.fileSize * this.directories * this.files : this.fileSize];
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() throws IOException {
+
+        this.session = this.library.createIsolation(this.scope);
+        Path target = this.session.resolve(this.scope);
+
+        if (this.type == StoreType.FILE_SCOPED) {
+            Files.write(target, this.content);
+            return;
+        }
+
+        for (int d = 0; d < this.directories; d++) {
+            Path directory = Files.createDirectories(target.resolve("directory-" + d));
+            for (int f = 0; f < this.files; f++) {
+                Files.write(directory.resolve("file-" + f), this.content);
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void discard() {
+
+        this.session.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+
+        this.library.close();
+        SanctumUtils.delete(this.root);
+    }
+
+    @Benchmark
+    public void commit() {
+
+        this.session.commit();
+    }
+
+}
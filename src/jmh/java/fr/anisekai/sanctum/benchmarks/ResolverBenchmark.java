@@ -0,0 +1,112 @@
+package fr.anisekai.sanctum.benchmarks;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.Sanctum;
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.resolvers.BoundedMetadataCache;
+import fr.anisekai.sanctum.resolvers.StandardResolver;
+import fr.anisekai.sanctum.resolvers.policies.IsolationResolverPolicy;
+import fr.anisekai.sanctum.resolvers.policies.StoreResolverPolicy;
+import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
+import fr.anisekai.sanctum.stores.ScopedFileStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the resolution of entities by a {@link StandardResolver}, and of the {@link ResolverPolicy} chains checked on
+ * each resolution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResolverBenchmark {
+
+    /**
+     * The {@link MetadataCache} used by the resolvers, either {@code disabled} or {@code bounded}.
+     */
+    @Param({"disabled", "bounded"})
+    public String cache;
+
+    private Path             root;
+    private Sanctum          library;
+    private IsolationSession session;
+    private StorageResolver  directoryResolver;
+    private StorageResolver  fileResolver;
+    private ResolverPolicy   storePolicy;
+    private ResolverPolicy   isolationPolicy;
+    private BenchmarkEntity  entity;
+
+    @Setup
+    public void setup() throws IOException {
+
+        this.root   = Files.createTempDirectory("sanctum-jmh");
+        this.entity = new BenchmarkEntity("entity");
+
+        MetadataCache metadata = this.cache.equals("bounded") ?
+                new BoundedMetadataCache(1024, Duration.ofMinutes(1)) :
+                MetadataCache.disabled();
+
+        FileStore directories = new ScopedDirectoryStorage("directories", BenchmarkEntity.class);
+        FileStore files       = new ScopedFileStorage("files", BenchmarkEntity.class, "bin");
+
+        this.directoryResolver = new StandardResolver(this.root, directories, new StoreResolverPolicy(directories), metadata, directories.codec());
+        this.fileResolver      = new StandardResolver(this.root, files, new StoreResolverPolicy(files), metadata, files.codec());
+
+        this.library = new Sanctum(this.root.resolve("library"), metadata);
+        this.library.registerStore(directories, StorePolicy.OVERWRITE);
+        this.session = this.library.createIsolation(new AccessScope(directories, this.entity));
+
+        IsolationSessionDescriptor descriptor = this.library.getIsolatedStorage(this.session.uuid(), false);
+
+        this.storePolicy     = new StoreResolverPolicy(directories);
+        this.isolationPolicy = ResolverPolicy.chained(
+                new IsolationResolverPolicy(descriptor, directories),
+                new StoreResolverPolicy(directories)
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+
+        this.session.close();
+        this.library.close();
+        SanctumUtils.delete(this.root);
+    }
+
+    @Benchmark
+    public Path resolveDirectory() {
+
+        return this.directoryResolver.directory(this.entity);
+    }
+
+    @Benchmark
+    public Path resolveFile() {
+
+        return this.fileResolver.file(this.entity);
+    }
+
+    @Benchmark
+    public void checkStorePolicy() {
+
+        this.storePolicy.checkResolveDirectory(this.entity);
+    }
+
+    @Benchmark
+    public void checkIsolationChain() {
+
+        this.isolationPolicy.checkResolveDirectory(this.entity);
+    }
+
+}
@@ -0,0 +1,91 @@
+package fr.anisekai.sanctum.benchmarks;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.Sanctum;
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
+import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link AccessScope} identity and of the grant of scopes while other isolation sessions are holding theirs,
+ * each grant being checked against every claimed scope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScopeBenchmark {
+
+    /**
+     * The amount of isolation sessions alive while granting, each one holding a single scope.
+     */
+    @Param({"0", "100", "1000"})
+    public int sessions;
+
+    private Path                   root;
+    private Sanctum                library;
+    private FileStore              store;
+    private List<IsolationSession> live;
+    private AccessScope            scope;
+    private AccessScope            same;
+    private AccessScope            granted;
+
+    @Setup
+    public void setup() throws IOException {
+
+        this.root    = Files.createTempDirectory("sanctum-jmh");
+        this.library = new Sanctum(this.root);
+        this.store   = new ScopedDirectoryStorage("entities", BenchmarkEntity.class);
+        this.library.registerStore(this.store, StorePolicy.OVERWRITE);
+
+        this.live = new ArrayList<>();
+        for (int i = 0; i < this.sessions; i++) {
+            this.live.add(this.library.createIsolation(new AccessScope(this.store, new BenchmarkEntity("live-" + i))));
+        }
+
+        this.scope   = new AccessScope(this.store, new BenchmarkEntity("entity"));
+        this.same    = new AccessScope(this.store, new BenchmarkEntity("entity"));
+        this.granted = new AccessScope(this.store, new BenchmarkEntity("granted"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+
+        for (IsolationSession session : this.live) {
+            session.close();
+        }
+        this.library.close();
+        SanctumUtils.delete(this.root);
+    }
+
+    @Benchmark
+    public int scopeHashCode() {
+
+        return this.scope.hashCode();
+    }
+
+    @Benchmark
+    public boolean scopeEquals() {
+
+        return this.scope.equals(this.same);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void grant() {
+
+        try (IsolationSession session = this.library.createIsolation(this.granted)) {
+            session.uuid();
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package fr.anisekai.sanctum.loadtest;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of a {@link LoadTest} run.
+ *
+ * @param workers
+ *         The amount of threads creating sessions concurrently.
+ * @param duration
+ *         How long the workload runs, warmup excluded.
+ * @param warmup
+ *         How long the workload runs before measurements are reset.
+ * @param entities
+ *         The amount of distinct entities per store.
+ * @param hotEntities
+ *         The amount of entities forming the hot set targeted by contended operations.
+ * @param contention
+ *         The fraction of operations targeting the hot set, between {@code 0} and {@code 1}.
+ * @param commitRatio
+ *         The fraction of sessions committed, the others being discarded.
+ * @param filesPerEntity
+ *         The amount of files written in each entity of directory stores.
+ * @param sizes
+ *         The {@link WeightedChoice} of file sizes, in bytes.
+ * @param policies
+ *         The {@link WeightedChoice} of {@link StorePolicy} targeted by sessions.
+ * @param seed
+ *         The seed of the workload generator, allowing to replay a run.
+ */
+public record LoadConfiguration(
+        int workers,
+        Duration duration,
+        Duration warmup,
+        int entities,
+        int hotEntities,
+        double contention,
+        double commitRatio,
+        int filesPerEntity,
+        WeightedChoice<Long> sizes,
+        WeightedChoice<StorePolicy> policies,
+        long seed
+) {
+
+    /**
+     * Read a {@link LoadConfiguration} from command line arguments formatted as {@code --key=value}. Missing keys use their
+     * default value:
+     * <ul>
+     *     <li>{@code --workers=64}</li>
+     *     <li>{@code --duration=30s}</li>
+     *     <li>{@code --warmup=5s}</li>
+     *     <li>{@code --entities=10000}</li>
+     *     <li>{@code --hot=16}</li>
+     *     <li>{@code --contention=0.1}</li>
+     *     <li>{@code --commit-ratio=0.8}</li>
+     *     <li>{@code --files=4}</li>
+     *     <li>{@code --sizes=4k:60,64k:30,1m:9,16m:1}</li>
+     *     <li>{@code --policies=OVERWRITE:1,FULL_SWAP:1}</li>
+     *     <li>{@code --seed=42}</li>
+     * </ul>
+     *
+     * @param args
+     *         The command line arguments.
+     *
+     * @return A {@link LoadConfiguration}.
+     */
+    public static LoadConfiguration parse(String... args) {
+
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(String.format("Invalid argument '%s', expected --key=value.", arg));
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadConfiguration configuration = new LoadConfiguration(
+                Integer.parseInt(options.getOrDefault("workers", "64")),
+                parseDuration(options.getOrDefault("duration", "30s")),
+                parseDuration(options.getOrDefault("warmup", "5s")),
+                Integer.parseInt(options.getOrDefault("entities", "10000")),
+                Integer.parseInt(options.getOrDefault("hot", "16")),
+                Double.parseDouble(options.getOrDefault("contention", "0.1")),
+                Double.parseDouble(options.getOrDefault("commit-ratio", "0.8")),
+                Integer.parseInt(options.getOrDefault("files", "4")),
+                WeightedChoice.parse(options.getOrDefault("sizes", "4k:60,64k:30,1m:9,16m:1"), LoadConfiguration::parseSize),
+                WeightedChoice.parse(options.getOrDefault("policies", "OVERWRITE:1,FULL_SWAP:1"), StorePolicy::valueOf),
+                Long.parseLong(options.getOrDefault("seed", "42"))
+        );
+
+        configuration.validate();
+        return configuration;
+    }
+
+    private void validate() {
+
+        if (this.workers() <= 0) throw new IllegalArgumentException("At least one worker is required.");
+        if (this.entities() <= 0) throw new IllegalArgumentException("At least one entity is required.");
+        if (this.hotEntities() <= 0 || this.hotEntities() > this.entities()) {
+            throw new IllegalArgumentException("The hot set must contain between one and all entities.");
+        }
+        if (this.contention() < 0 || this.contention() > 1) {
+            throw new IllegalArgumentException("The contention must be between 0 and 1.");
+        }
+        if (this.commitRatio() < 0 || this.commitRatio() > 1) {
+            throw new IllegalArgumentException("The commit ratio must be between 0 and 1.");
+        }
+        if (this.filesPerEntity() <= 0) throw new IllegalArgumentException("At least one file per entity is required.");
+
+        if (this.policies().distinct().contains(StorePolicy.PRIVATE)) {
+            throw new IllegalArgumentException("Private stores cannot be used by sessions.");
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static long parseSize(String value) {
+
+        String lower = value.toLowerCase();
+        return switch (lower.charAt(lower.length() - 1)) {
+            case 'k' -> Long.parseLong(lower.substring(0, lower.length() - 1)) * 1024;
+            case 'm' -> Long.parseLong(lower.substring(0, lower.length() - 1)) * 1024 * 1024;
+            case 'g' -> Long.parseLong(lower.substring(0, lower.length() - 1)) * 1024 * 1024 * 1024;
+            default -> Long.parseLong(lower);
+        };
+    }
+
+}
@@ -0,0 +1,94 @@
+package fr.anisekai.sanctum.loadtest;
+
+import fr.anisekai.sanctum.metrics.LatencyHistogram;
+import fr.anisekai.sanctum.metrics.MetricKey;
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Result of a {@link LoadTest} run.
+ *
+ * @param configuration
+ *         The {@link LoadConfiguration} of the run.
+ * @param elapsed
+ *         The measured duration of the run, warmup excluded.
+ * @param measurements
+ *         The {@link Measurements} collected during the run.
+ */
+record LoadReport(LoadConfiguration configuration, Duration elapsed, Measurements measurements) {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Print this {@link LoadReport} in a human-readable format.
+     *
+     * @param out
+     *         The {@link PrintStream} to print into.
+     */
+    void print(PrintStream out) {
+
+        double seconds  = this.elapsed.toNanos() / 1e9;
+        long   sessions = this.measurements.sessions.count();
+
+        out.printf("Workers: %d, entities: %d (hot set of %d, contention %.2f), commit ratio %.2f, seed %d%n",
+                   this.configuration.workers(),
+                   this.configuration.entities(),
+                   this.configuration.hotEntities(),
+                   this.configuration.contention(),
+                   this.configuration.commitRatio(),
+                   this.configuration.seed()
+        );
+        out.printf("Duration: %.1fs%n%n", seconds);
+
+        out.printf("Sessions:   %d (%.1f/s)%n", sessions, sessions / seconds);
+        out.printf("Committed:  %d%n", this.measurements.committed.sum());
+        out.printf("Discarded:  %d%n", this.measurements.discarded.sum());
+        out.printf("Conflicts:  %d%n", this.measurements.conflicts.sum());
+        out.printf("Errors:     %d%n", this.measurements.errors.sum());
+        out.printf("Written:    %s (%s/s)%n%n", bytes(this.measurements.written.sum()), bytes((long) (this.measurements.written.sum() / seconds)));
+
+        TransferSize copied  = this.measurements.library.copied();
+        TransferSize deleted = this.measurements.library.deleted();
+        out.printf("Copied:     %d files, %s%n", copied.files(), bytes(copied.bytes()));
+        out.printf("Deleted:    %d files, %s%n%n", deleted.files(), bytes(deleted.bytes()));
+
+        out.printf("%-56s %10s %10s %10s %10s %10s %10s%n", "Latency (us)", "count", "p50", "p90", "p99", "p99.9", "max");
+        printHistogram(out, "session", this.measurements.sessions);
+
+        this.measurements.library.histograms()
+                                 .entrySet()
+                                 .stream()
+                                 .sorted(Map.Entry.comparingByKey(Comparator.comparing(LoadReport::label)))
+                                 .forEach(entry -> printHistogram(out, label(entry.getKey()), entry.getValue()));
+    }
+
+    private static String label(MetricKey key) {
+
+        StringBuilder builder = new StringBuilder(key.operation().name().toLowerCase());
+        if (key.store() != null) builder.append(' ').append(key.store());
+        if (key.policy() != null) builder.append(" (").append(key.policy()).append(')');
+        return builder.toString();
+    }
+
+    private static void printHistogram(PrintStream out, String label, LatencyHistogram histogram) {
+
+        out.printf("%-56s %10d", label, histogram.count());
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10.1f", histogram.percentile(percentile) / 1e3);
+        }
+        out.printf(" %10.1f%n", histogram.max() / 1e3);
+    }
+
+    private static String bytes(long bytes) {
+
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KiB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MiB", bytes / (1024.0 * 1024));
+        return String.format("%.1f GiB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+}
@@ -0,0 +1,221 @@
+package fr.anisekai.sanctum.loadtest;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.Sanctum;
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.exceptions.scope.ScopeGrantException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
+import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
+import fr.anisekai.sanctum.stores.ScopedFileStorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load harness running many workers against a {@link Sanctum} library located in a temporary directory. Each worker repeatedly
+ * opens an isolation session on a random entity, writes files of random sizes into it, then commits or discards it. Part of the
+ * sessions target a small hot set of entities, making workers contend for the same scopes.
+ * <p>
+ * The run starts with a warmup whose measurements are dropped, then reports the throughput, the latency percentiles of sessions
+ * and library operations, and the amount of content copied and deleted by the library. See
+ * {@link LoadConfiguration#parse(String...)} for the available options.
+ */
+public final class LoadTest implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final LoadConfiguration                 configuration;
+    private final Sanctum                           library;
+    private final Map<StorePolicy, List<FileStore>> stores = new EnumMap<>(StorePolicy.class);
+    private final ByteBuffer                        content;
+
+    private volatile Measurements measurements;
+
+    private LoadTest(LoadConfiguration configuration, Path root) {
+
+        this.configuration = configuration;
+        this.library       = new Sanctum(root);
+
+        for (StorePolicy policy : configuration.policies().distinct()) {
+            String    name        = policy.name().toLowerCase();
+            FileStore directories = new ScopedDirectoryStorage(name + "-directories", Entity.class);
+            FileStore files       = new ScopedFileStorage(name + "-files", Entity.class, "bin");
+
+            this.library.registerStore(directories, policy);
+            this.library.registerStore(files, policy);
+            this.stores.put(policy, List.of(directories, files));
+        }
+
+        byte[] bytes = new byte[BUFFER_SIZE];
+        new SplittableRandom(configuration.seed()).nextBytes(bytes);
+        this.content = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Run the load test described by the provided arguments, then print its report.
+     *
+     * @param args
+     *         The options of the run, see {@link LoadConfiguration#parse(String...)}.
+     *
+     * @throws Exception
+     *         If the run could not complete.
+     */
+    public static void main(String[] args) throws Exception {
+
+        LoadConfiguration configuration = LoadConfiguration.parse(args);
+        Path              root          = Files.createTempDirectory("sanctum-loadtest");
+
+        try {
+            LoadReport report;
+            try (LoadTest test = new LoadTest(configuration, root.resolve("library"))) {
+                report = test.run();
+            }
+            report.print(System.out);
+        } finally {
+            SanctumUtils.delete(root);
+        }
+    }
+
+    private LoadReport run() throws Exception {
+
+        SplittableRandom seed    = new SplittableRandom(this.configuration.seed());
+        List<Future<?>>  workers = new ArrayList<>();
+
+        this.begin();
+        long start    = System.nanoTime();
+        long measured = start + this.configuration.warmup().toNanos();
+        long deadline = measured + this.configuration.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(this.configuration.workers())) {
+            for (int i = 0; i < this.configuration.workers(); i++) {
+                SplittableRandom random = seed.split();
+                workers.add(executor.submit(() -> this.work(random, deadline)));
+            }
+
+            Thread.sleep(Duration.ofNanos(Math.max(0, measured - System.nanoTime())));
+            Measurements measurements = this.begin();
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+
+            return new LoadReport(this.configuration, Duration.ofNanos(System.nanoTime() - measured), measurements);
+        }
+    }
+
+    private Measurements begin() {
+
+        Measurements measurements = new Measurements();
+        this.library.enableMetrics(measurements.library);
+        this.measurements = measurements;
+        return measurements;
+    }
+
+    private void work(SplittableRandom random, long deadline) {
+
+        while (System.nanoTime() < deadline) {
+            Measurements measurements = this.measurements;
+            long         start        = System.nanoTime();
+
+            try {
+                this.session(random, measurements);
+                measurements.sessions.record(System.nanoTime() - start);
+            } catch (ScopeGrantException e) {
+                measurements.conflicts.increment();
+            } catch (IOException | RuntimeException e) {
+                measurements.errors.increment();
+            }
+        }
+    }
+
+    private void session(SplittableRandom random, Measurements measurements) throws IOException {
+
+        StorePolicy     policy = this.configuration.policies().pick(random);
+        List<FileStore> stores = this.stores.get(policy);
+        FileStore       store  = stores.get(random.nextInt(stores.size()));
+        AccessScope     scope  = new AccessScope(store, this.entity(random));
+
+        try (IsolationSession session = this.library.createIsolation(scope)) {
+            Path target = session.resolve(scope);
+
+            if (store instanceof ScopedFileStorage) {
+                this.write(target, this.configuration.sizes().pick(random), measurements);
+            } else {
+                for (int i = 0; i < this.configuration.filesPerEntity(); i++) {
+                    this.write(target.resolve("file-" + i), this.configuration.sizes().pick(random), measurements);
+                }
+            }
+
+            if (random.nextDouble() < this.configuration.commitRatio()) {
+                session.commit();
+                measurements.committed.increment();
+            } else {
+                measurements.discarded.increment();
+            }
+        }
+    }
+
+    private Entity entity(SplittableRandom random) {
+
+        boolean hot = random.nextDouble() < this.configuration.contention();
+        int     id  = random.nextInt(hot ? this.configuration.hotEntities() : this.configuration.entities());
+        return new Entity("entity-" + id);
+    }
+
+    private void write(Path path, long size, Measurements measurements) throws IOException {
+
+        Files.createDirectories(path.getParent());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < size) {
+                ByteBuffer buffer = this.content.duplicate();
+                buffer.limit((int) Math.min(BUFFER_SIZE, size - position));
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        }
+
+        measurements.written.add(size);
+    }
+
+    @Override
+    public void close() throws Exception {
+
+        this.library.close();
+    }
+
+    /**
+     * {@link ScopedEntity} targeted by the workers.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     */
+    private record Entity(String name) implements ScopedEntity {
+
+        @Override
+        public String getScopedName() {
+
+            return this.name;
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package fr.anisekai.sanctum.loadtest;
+
+import fr.anisekai.sanctum.metrics.InProcessMetrics;
+import fr.anisekai.sanctum.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements collected by the workers of a {@link LoadTest} during a phase of the run.
+ */
+final class Measurements {
+
+    final InProcessMetrics library   = new InProcessMetrics();
+    final LatencyHistogram sessions  = new LatencyHistogram();
+    final LongAdder        committed = new LongAdder();
+    final LongAdder        discarded = new LongAdder();
+    final LongAdder        conflicts = new LongAdder();
+    final LongAdder        errors    = new LongAdder();
+    final LongAdder        written   = new LongAdder();
+
+}
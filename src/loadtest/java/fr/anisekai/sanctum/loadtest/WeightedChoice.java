@@ -0,0 +1,84 @@
+package fr.anisekai.sanctum.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+/**
+ * Distribution picking values according to their weight.
+ *
+ * @param values
+ *         The values that can be picked.
+ * @param cumulative
+ *         The cumulative weight of each value, in the same order.
+ * @param <T>
+ *         The type of the values.
+ */
+public record WeightedChoice<T>(List<T> values, long[] cumulative) {
+
+    /**
+     * Read a {@link WeightedChoice} formatted as {@code value:weight,value:weight}.
+     *
+     * @param definition
+     *         The definition of the distribution.
+     * @param parser
+     *         The {@link Function} converting each value.
+     * @param <T>
+     *         The type of the values.
+     *
+     * @return A {@link WeightedChoice}.
+     */
+    public static <T> WeightedChoice<T> parse(String definition, Function<String, T> parser) {
+
+        String[] entries = definition.split(",");
+        List<T>  values  = new ArrayList<>();
+        long[]   weights = new long[entries.length];
+        long     total   = 0;
+
+        for (String entry : entries) {
+            String[] parts  = entry.trim().split(":");
+            long     weight = parts.length > 1 ? Long.parseLong(parts[1]) : 1;
+
+            if (weight <= 0) {
+                throw new IllegalArgumentException(String.format("Invalid weight in '%s'.", entry));
+            }
+
+            total += weight;
+            weights[values.size()] = total;
+            values.add(parser.apply(parts[0]));
+        }
+
+        return new WeightedChoice<>(List.copyOf(values), weights);
+    }
+
+    /**
+     * Pick a value.
+     *
+     * @param random
+     *         The {@link RandomGenerator} to use.
+     *
+     * @return A value.
+     */
+    public T pick(RandomGenerator random) {
+
+        long roll = random.nextLong(this.cumulative[this.cumulative.length - 1]);
+        for (int i = 0; i < this.cumulative.length; i++) {
+            if (roll < this.cumulative[i]) return this.values.get(i);
+        }
+        return this.values.getLast();
+    }
+
+    /**
+     * Retrieve the distinct values of this {@link WeightedChoice}.
+     *
+     * @return A {@link Set} of values.
+     */
+    public Set<T> distinct() {
+
+        return this.values.stream().collect(Collectors.toUnmodifiableSet());
+    }
+
+}
@@ -0,0 +1,274 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.feed.CommitFeed;
+import fr.anisekai.sanctum.index.EntityIndex;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.LibraryMetrics;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.usage.UsageLedger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.CopyOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Operations of a {@link Sanctum} library shared by every {@link ScopeCommitter}: resolving and transferring the content of an
+ * entity, pinning it for the opened views, and accounting for it once committed.
+ */
+final class CommitContext {
+
+    private final LibraryLayout               layout;
+    private final LibraryBlobs                blobs;
+    private final LibraryViews                views;
+    private final LibraryUsage                usage;
+    private final LibraryIndexes              indexes;
+    private final ParallelCopy                copier;
+    private final Supplier<LibraryMetrics>    metrics;
+    private final Function<AccessScope, Path> resolver;
+
+    /**
+     * Create a new {@link CommitContext} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param blobs
+     *         The {@link LibraryBlobs} holding the bodies of deduplicated stores.
+     * @param views
+     *         The {@link LibraryViews} pinning the content replaced by commits.
+     * @param usage
+     *         The {@link LibraryUsage} recording the usage of committed entities.
+     * @param indexes
+     *         The {@link LibraryIndexes} recording committed entities.
+     * @param copier
+     *         The {@link ParallelCopy} used to copy large files.
+     * @param metrics
+     *         The {@link Supplier} of the current {@link LibraryMetrics}.
+     * @param resolver
+     *         The {@link Function} resolving the {@link Path} of an entity within the library.
+     */
+    CommitContext(
+            LibraryLayout layout,
+            LibraryBlobs blobs,
+            LibraryViews views,
+            LibraryUsage usage,
+            LibraryIndexes indexes,
+            ParallelCopy copier,
+            Supplier<LibraryMetrics> metrics,
+            Function<AccessScope, Path> resolver
+    ) {
+
+        this.layout   = layout;
+        this.blobs    = blobs;
+        this.views    = views;
+        this.usage    = usage;
+        this.indexes  = indexes;
+        this.copier   = copier;
+        this.metrics  = metrics;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Retrieve the {@link LibraryLayout} of the library.
+     *
+     * @return A {@link LibraryLayout}.
+     */
+    LibraryLayout layout() {
+
+        return this.layout;
+    }
+
+    /**
+     * Retrieve the {@link ParallelCopy} used to copy large files.
+     *
+     * @return A {@link ParallelCopy}.
+     */
+    ParallelCopy copier() {
+
+        return this.copier;
+    }
+
+    /**
+     * Retrieve the {@link LibraryMetrics} currently receiving the measurements of the library.
+     *
+     * @return A {@link LibraryMetrics}.
+     */
+    LibraryMetrics metrics() {
+
+        return this.metrics.get();
+    }
+
+    /**
+     * Resolve the committed content of the entity targeted by the provided {@link AccessScope}.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting the entity.
+     *
+     * @return The {@link Path} of the entity within the library.
+     */
+    Path resolve(AccessScope scope) {
+
+        return this.resolver.apply(scope);
+    }
+
+    /**
+     * Pin the committed content of the entity targeted by the provided {@link AccessScope} into every opened view, before a commit
+     * replaces it.
+     *
+     * @param scope
+     *         The {@link AccessScope} about to be committed.
+     *
+     * @throws IOException
+     *         If the content could not be pinned.
+     */
+    void preserve(AccessScope scope) throws IOException {
+
+        this.views.preserve(scope);
+    }
+
+    /**
+     * Transfer the content of the isolation to the library for the provided {@link FileStore}.
+     *
+     * @param store
+     *         The {@link FileStore} into which the content is transferred.
+     * @param root
+     *         The index of the root on which the destination is located.
+     * @param source
+     *         The {@link Path} of the content within the isolation.
+     * @param destination
+     *         The {@link Path} of the content within the library.
+     * @param options
+     *         An array of {@link CopyOption} to use while copying data.
+     *
+     * @return The {@link TransferSize} of the content written at the destination, as it is stored on the disk.
+     *
+     * @throws IOException
+     *         If the content could not be transferred.
+     */
+    TransferSize transfer(FileStore store, int root, Path source, Path destination, CopyOption... options) throws IOException {
+
+        TransferSize copied;
+        TransferSize stored;
+
+        if (!store.codec().isIdentity() && Files.isRegularFile(source)) {
+            // Never write into an existing file, its body may be shared with a version.
+            Files.deleteIfExists(destination);
+            try (InputStream is = Files.newInputStream(source);
+                 OutputStream os = store.codec().encode(Files.newOutputStream(destination))) {
+                copied = new TransferSize(1, is.transferTo(os));
+            }
+            Files.setLastModifiedTime(destination, Files.getLastModifiedTime(source));
+            stored = new TransferSize(1, Files.size(destination));
+        } else if (store.deduplicated()) {
+            // Linked content is not copied.
+            stored = this.blobs.repository(root).materialize(source, destination);
+            copied = TransferSize.NONE;
+        } else {
+            stored = SanctumUtils.copy(this.copier, source, destination, options);
+            copied = stored;
+        }
+
+        this.metrics().copied(copied);
+        return stored;
+    }
+
+    /**
+     * Measure the files of the library that the content of the isolation is about to replace, by looking up each file of the
+     * isolation at the destination. Only the isolated content is walked, whatever the size of the entity.
+     *
+     * @param source
+     *         The {@link Path} of the content within the isolation.
+     * @param destination
+     *         The {@link Path} of the content within the library.
+     *
+     * @return The {@link TransferSize} of the replaced files.
+     *
+     * @throws IOException
+     *         If the content could not be measured.
+     */
+    TransferSize replaced(Path source, Path destination) throws IOException {
+
+        if (!Files.isDirectory(source) || !Files.isDirectory(destination)) return TransferSize.NONE;
+
+        long[] totals = new long[2];
+
+        Files.walkFileTree(
+                source,
+                new SimpleFileVisitor<>() {
+
+                    @Override
+                    public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                        Path target = destination.resolve(source.relativize(file).toString());
+                        if (Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS)) {
+                            totals[0]++;
+                            totals[1] += Files.size(target);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+        );
+        return new TransferSize(totals[0], totals[1]);
+    }
+
+    /**
+     * Record the usage of the entity targeted by the provided {@link AccessScope} after its content changed, and update the
+     * {@link EntityIndex} of its store if it has one.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting the entity.
+     * @param localPath
+     *         The {@link Path} of the entity within the library.
+     * @param size
+     *         The {@link TransferSize} of the entity content, {@link TransferSize#NONE} if it does not exist anymore.
+     *
+     * @throws IOException
+     *         If the {@link EntityIndex} could not be updated.
+     */
+    void account(AccessScope scope, Path localPath, TransferSize size) throws IOException {
+
+        this.indexes.account(scope, localPath, size);
+        this.usage.ledger().update(scope.store().name(), scope.claim().getScopedName(), size);
+    }
+
+    /**
+     * Retrieve the usage of an entity before it is committed. The {@link UsageLedger} is used when it knows the entity, otherwise
+     * the entity is measured on the disk and recorded into the {@link UsageLedger}, so that it is only walked once and the delta
+     * reported to the {@link CommitFeed} is accurate.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting the entity.
+     *
+     * @return The {@link TransferSize} of the entity content, {@link TransferSize#NONE} if it does not exist.
+     *
+     * @throws IOException
+     *         If the entity could not be measured.
+     */
+    TransferSize measure(AccessScope scope) throws IOException {
+
+        UsageLedger ledger = this.usage.ledger();
+        String      store  = scope.store().name();
+        String      name   = scope.claim().getScopedName();
+
+        // Packed stores are not accounted.
+        if (scope.store().packed() || ledger.contains(store, name)) {
+            return ledger.entity(store, name);
+        }
+
+        Path         path = this.resolve(scope);
+        TransferSize size = Files.exists(path) ? SanctumUtils.size(path) : TransferSize.NONE;
+        ledger.update(store, name, size);
+        return size;
+    }
+
+}
@@ -0,0 +1,95 @@
+package fr.anisekai.sanctum;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.events.CommitPhaseEvent;
+import fr.anisekai.sanctum.generations.GenerationStore;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link ScopeCommitter} committing the content of an entity as a new generation. The isolated content is moved into the
+ * generation when possible, then published by flipping the entity link, so no backup of the previous content is needed. A failed
+ * commit moves the isolated content back into the isolation.
+ */
+final class GenerationalCommitter implements ScopeCommitter {
+
+    private final CommitContext   context;
+    private final GenerationStore generations;
+
+    /**
+     * Create a new {@link GenerationalCommitter} instance.
+     *
+     * @param context
+     *         The {@link CommitContext} of the library.
+     * @param generations
+     *         The {@link GenerationStore} publishing the generations.
+     */
+    GenerationalCommitter(CommitContext context, GenerationStore generations) {
+
+        this.context     = context;
+        this.generations = generations;
+    }
+
+    @Override
+    public void commit(IsolationSessionDescriptor storage, AccessScope scope, StorePolicy policy) throws IOException {
+
+        FileStore store     = scope.store();
+        int       index     = this.context.layout().place(store, scope.claim().getScopedName());
+        Path      localPath = this.context.resolve(scope);
+        //noinspection resource
+        Path isolationPath = storage.context().resolve(scope);
+
+        if (!Files.exists(isolationPath)) {
+            CommitPhaseEvent delete = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.DELETE);
+            if (Files.exists(localPath, LinkOption.NOFOLLOW_LINKS)) this.generations.unpublish(localPath);
+            delete.finish(TransferSize.NONE);
+            this.context.account(scope, localPath, TransferSize.NONE);
+            return;
+        }
+
+        Path    generation = this.generations.allocate(localPath, UuidCreator.getTimeOrderedEpoch().toString());
+        boolean moved      = false;
+
+        try {
+            CommitPhaseEvent copy = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.COPY);
+            TransferSize     size = TransferSize.NONE;
+
+            if (store.deduplicated() || !store.codec().isIdentity()) {
+                size = this.context.transfer(store, index, isolationPath, generation, StandardCopyOption.COPY_ATTRIBUTES);
+            } else {
+                // Nothing walks the content when it is renamed, so it is measured beforehand.
+                size = SanctumUtils.size(isolationPath);
+                // A simple rename when the isolation shares the root of the entity, a copy from the isolation root otherwise.
+                SanctumUtils.move(isolationPath, generation);
+                moved = true;
+            }
+
+            copy.finish(size);
+            this.generations.publish(localPath, generation);
+            this.context.account(scope, localPath, size);
+        } catch (IOException | RuntimeException e) {
+            // The previous generation is still published, only the new one has to be dropped. A moved generation holds the only
+            // copy of the isolated content, which is moved back so that the commit can be retried.
+            CommitPhaseEvent rollback = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.ROLLBACK);
+            try {
+                if (moved) SanctumUtils.move(generation, isolationPath);
+                else SanctumUtils.delete(generation);
+            } catch (IOException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            rollback.finish(TransferSize.NONE);
+            throw e;
+        } finally {
+            this.context.layout().cache().invalidate(generation);
+        }
+    }
+
+}
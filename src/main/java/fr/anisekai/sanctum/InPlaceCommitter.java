@@ -0,0 +1,174 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.events.CommitPhaseEvent;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.tiers.TierMigrator;
+import fr.anisekai.sanctum.versions.VersionHistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link ScopeCommitter} replacing the committed files of an entity in place. The previous content is kept as a version or as a
+ * hidden backup until the new content is fully copied, and restored if the copy fails.
+ */
+final class InPlaceCommitter implements ScopeCommitter {
+
+    private final CommitContext   context;
+    private final LibraryTiers    tiers;
+    private final LibraryVersions versions;
+
+    /**
+     * Create a new {@link InPlaceCommitter} instance.
+     *
+     * @param context
+     *         The {@link CommitContext} of the library.
+     * @param tiers
+     *         The {@link LibraryTiers} of the library, whose entities are committed to the hot tier.
+     * @param versions
+     *         The {@link LibraryVersions} keeping the content replaced in versioned stores.
+     */
+    InPlaceCommitter(CommitContext context, LibraryTiers tiers, LibraryVersions versions) {
+
+        this.context  = context;
+        this.tiers    = tiers;
+        this.versions = versions;
+    }
+
+    @Override
+    public void commit(IsolationSessionDescriptor storage, AccessScope scope, StorePolicy policy) throws IOException {
+
+        FileStore     store = scope.store();
+        MetadataCache cache = this.context.layout().cache();
+        String        name  = scope.claim().getScopedName();
+        TierMigrator  tier  = this.tiers.get(store);
+        Path          cold  = null;
+
+        // The scope is claimed, so the migrator cannot move the entity concurrently. A full swap replaces the entity as a whole:
+        // instead of promoting it only to delete it, the new content is committed to the hot tier and the cold copy is dropped.
+        if (tier != null && policy == StorePolicy.FULL_SWAP && tier.isCold(name)) {
+            cold = tier.cold().resolve(tier.entry(name));
+        } else if (tier != null) {
+            tier.relocate(name, true);
+        }
+
+        int           index       = this.context.layout().place(store, name);
+        StorageWalker storeWalker = this.context.layout().walkers().get(index).walk(store.name());
+
+        Path localPath = cold == null ? this.context.resolve(scope) : tier.hot().resolve(tier.entry(name));
+        this.context.preserve(scope);
+        //noinspection resource
+        Path isolationPath = storage.context().resolve(scope);
+
+        String safeName = "." + localPath.getFileName().toString();
+
+        // An overwrite keeps the files it does not replace: its usage is derived from the usage before the commit.
+        boolean      directory = store.type() == StoreType.DIRECTORY_SCOPED;
+        boolean      merged    = policy == StorePolicy.OVERWRITE && (directory || !Files.isRegularFile(isolationPath));
+        TransferSize previous  = merged ? this.context.measure(scope) : TransferSize.NONE;
+        TransferSize replaced  = merged ? this.context.replaced(isolationPath, localPath) : TransferSize.NONE;
+
+        Path safeLocalPath = store.type() == StoreType.FILE_SCOPED ?
+                storeWalker.file(safeName) :
+                storeWalker.directory(safeName);
+
+        boolean hasBackup = false;
+        long    version   = 0;
+
+        SanctumUtils.delete(safeLocalPath);
+
+        VersionHistory history = this.versions.history(scope);
+        if (history != null && cold != null) {
+            version = history.snapshot(cold);
+        } else if (history != null && Files.exists(localPath)) {
+            version = history.snapshot(localPath);
+        }
+
+        // A version links the committed content, which commits never write into: it is used to roll back instead of a copy.
+        if (version == 0 && Files.exists(localPath)) {
+            CommitPhaseEvent backup = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.BACKUP);
+            TransferSize     size   = SanctumUtils.copy(this.context.copier(), localPath, safeLocalPath);
+            this.context.metrics().copied(size);
+            backup.finish(size);
+            hasBackup = true;
+        }
+
+        try {
+            if (policy == StorePolicy.FULL_SWAP) {
+                CommitPhaseEvent delete = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.DELETE);
+                TransferSize     size   = SanctumUtils.delete(localPath);
+                this.context.metrics().deleted(size);
+                delete.finish(size);
+            }
+
+            CommitPhaseEvent copy = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.COPY);
+            TransferSize     size = TransferSize.NONE;
+
+            if (store.type() == StoreType.DIRECTORY_SCOPED && policy == StorePolicy.FULL_SWAP) {
+                size = this.context.transfer(store, index, isolationPath, localPath, StandardCopyOption.COPY_ATTRIBUTES);
+            } else if (store.type() == StoreType.DIRECTORY_SCOPED && policy == StorePolicy.OVERWRITE) {
+                size = this.context.transfer(
+                        store,
+                        index,
+                        isolationPath,
+                        localPath,
+                        StandardCopyOption.COPY_ATTRIBUTES,
+                        StandardCopyOption.REPLACE_EXISTING
+                );
+            } else if (store.type() == StoreType.FILE_SCOPED && Files.isRegularFile(isolationPath)) {
+                size = this.context.transfer(
+                        store,
+                        index,
+                        isolationPath,
+                        localPath,
+                        StandardCopyOption.COPY_ATTRIBUTES,
+                        StandardCopyOption.REPLACE_EXISTING
+                );
+            }
+
+            copy.finish(size);
+
+            if (history != null) history.prune(store.retention());
+            // Last step of the commit, so that the entity is only indexed once its content can no longer be rolled back.
+            this.context.account(scope, localPath, merged ? previous.minus(replaced).plus(size) : size);
+        } catch (IOException | RuntimeException e) {
+            // Avoid partial commit
+            CommitPhaseEvent rollback = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.ROLLBACK);
+            try {
+                SanctumUtils.delete(localPath);
+                if (hasBackup) SanctumUtils.move(safeLocalPath, localPath);
+                // The version is identical to the content to restore, unless it was taken from the untouched cold copy.
+                if (version > 0 && cold == null) SanctumUtils.move(history.resolve(version), localPath);
+                else if (version > 0) history.delete(version);
+            } catch (IOException | RuntimeException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            rollback.finish(TransferSize.NONE);
+            throw e;
+        } finally {
+            if (hasBackup) {
+                CommitPhaseEvent cleanup = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.CLEANUP);
+                TransferSize     size    = SanctumUtils.delete(safeLocalPath);
+                this.context.metrics().deleted(size);
+                cleanup.finish(size);
+            }
+            cache.invalidate(localPath);
+            cache.invalidate(safeLocalPath);
+        }
+
+        if (cold != null) {
+            // The committed content now shadows the cold copy, which is only kept until then to roll back to it.
+            this.context.metrics().deleted(SanctumUtils.delete(cold));
+            cache.invalidate(cold);
+        }
+    }
+
+}
@@ -2,18 +2,21 @@ package fr.anisekai.sanctum;
 
 import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
 import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.temporary.TemporaryAllocator;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Default implementation of {@link IsolationSessionDescriptor}.
  */
 public class IsolationSessionDescriptorImpl implements IsolationSessionDescriptor {
 
-    private final UUID             uuid;
-    private final Set<AccessScope> scopes;
-    private final IsolationSession context;
-    private       boolean          committed = false;
+    private final    UUID               uuid;
+    private final    Set<AccessScope>   scopes;
+    private final    IsolationSession   context;
+    private final    TemporaryAllocator allocator;
+    private volatile boolean            committed = false;
 
     /**
      * Create a new {@link IsolationSessionDescriptorImpl} instance.
@@ -22,12 +25,15 @@ public class IsolationSessionDescriptorImpl implements IsolationSessionDescripto
      *         The uuid of this {@link IsolationSessionDescriptor}.
      * @param context
      *         The {@link IsolationSession} associated to this {@link IsolationSessionDescriptor}.
+     * @param allocator
+     *         The {@link TemporaryAllocator} handing out the temporary files of the {@link IsolationSession}.
      */
-    public IsolationSessionDescriptorImpl(UUID uuid, IsolationSession context) {
+    public IsolationSessionDescriptorImpl(UUID uuid, IsolationSession context, TemporaryAllocator allocator) {
 
-        this.uuid    = uuid;
-        this.scopes  = new HashSet<>();
-        this.context = context;
+        this.uuid      = uuid;
+        this.scopes    = ConcurrentHashMap.newKeySet();
+        this.context   = context;
+        this.allocator = allocator;
     }
 
     @Override
@@ -72,4 +78,10 @@ public class IsolationSessionDescriptorImpl implements IsolationSessionDescripto
         this.committed = committed;
     }
 
+    @Override
+    public TemporaryAllocator temporaryAllocator() {
+
+        return this.allocator;
+    }
+
 }
@@ -0,0 +1,63 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.blobs.BlobRepository;
+import fr.anisekai.sanctum.interfaces.FileStore;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Deduplicated file bodies of a {@link Sanctum} library, kept in one {@link BlobRepository} per root so that committed files are
+ * always linked to a body located on the same root.
+ */
+final class LibraryBlobs {
+
+    private final List<BlobRepository> repositories;
+
+    /**
+     * Create a new {@link LibraryBlobs} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param store
+     *         The internal {@link FileStore} holding the file bodies.
+     */
+    LibraryBlobs(LibraryLayout layout, FileStore store) {
+
+        this.repositories = layout.walkers()
+                                  .stream()
+                                  .map(walker -> new BlobRepository(walker.directory(store.name())))
+                                  .toList();
+    }
+
+    /**
+     * Retrieve the {@link BlobRepository} of the provided root.
+     *
+     * @param root
+     *         The index of the root.
+     *
+     * @return A {@link BlobRepository}.
+     */
+    BlobRepository repository(int root) {
+
+        return this.repositories.get(root);
+    }
+
+    /**
+     * Delete every file body that is not used by any {@link FileStore} anymore.
+     *
+     * @return The amount of bytes freed.
+     *
+     * @throws IOException
+     *         If a file body could not be deleted.
+     */
+    long collect() throws IOException {
+
+        long freed = 0;
+        for (BlobRepository repository : this.repositories) {
+            freed += repository.collect();
+        }
+        return freed;
+    }
+
+}
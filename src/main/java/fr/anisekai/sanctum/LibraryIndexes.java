@@ -0,0 +1,266 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.index.EntityIndex;
+import fr.anisekai.sanctum.index.IndexedEntity;
+import fr.anisekai.sanctum.index.IndexedResolver;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * {@link EntityIndex} of the indexed stores of a {@link Sanctum} library, kept on the first root. An index that was not closed
+ * properly is reconciled with a scan of its store before being trusted.
+ */
+final class LibraryIndexes implements AutoCloseable {
+
+    private final LibraryLayout               layout;
+    private final LibraryUsage                usage;
+    private final FileStore                   directory;
+    private final ReadWriteLock               commitLock;
+    private final Map<FileStore, EntityIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link LibraryIndexes} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param usage
+     *         The {@link LibraryUsage} listing the entities of a store when reconciling its index.
+     * @param directory
+     *         The internal {@link FileStore} holding the index files.
+     * @param commitLock
+     *         The {@link ReadWriteLock} held for reading by every commit of the library.
+     */
+    LibraryIndexes(LibraryLayout layout, LibraryUsage usage, FileStore directory, ReadWriteLock commitLock) {
+
+        this.layout     = layout;
+        this.usage      = usage;
+        this.directory  = directory;
+        this.commitLock = commitLock;
+    }
+
+    /**
+     * Check if the provided {@link FileStore} can be indexed.
+     *
+     * @param store
+     *         The {@link FileStore} to check.
+     *
+     * @return True if the store is scoped and not packed.
+     */
+    static boolean isIndexable(FileStore store) {
+
+        return store.type().isScoped() && !store.packed();
+    }
+
+    private Path file(FileStore store) {
+
+        return this.layout.walkers().getFirst().walk(this.directory.name()).file(store.name());
+    }
+
+    /**
+     * Check if an index has been enabled for the provided {@link FileStore}, by this instance or a previous one.
+     *
+     * @param store
+     *         The {@link FileStore} to check.
+     *
+     * @return True if the store has an index file.
+     */
+    boolean exists(FileStore store) {
+
+        return Files.exists(this.file(store));
+    }
+
+    /**
+     * Check if the {@link EntityIndex} of the provided {@link FileStore} is opened.
+     *
+     * @param store
+     *         The {@link FileStore} to check.
+     *
+     * @return True if the store is indexed.
+     */
+    boolean contains(FileStore store) {
+
+        return this.indexes.containsKey(store);
+    }
+
+    /**
+     * Reopen the existing {@link EntityIndex} of the provided {@link FileStore}, so that every commit of the store maintains it.
+     *
+     * @param store
+     *         The {@link FileStore} being registered.
+     *
+     * @throws IOException
+     *         If the {@link EntityIndex} could not be opened.
+     */
+    void reopen(FileStore store) throws IOException {
+
+        this.indexes.put(store, EntityIndex.open(this.file(store)));
+    }
+
+    /**
+     * Open the {@link EntityIndex} of the provided {@link FileStore}, building it by scanning the store if needed.
+     *
+     * @param store
+     *         The indexable {@link FileStore}.
+     *
+     * @return The {@link EntityIndex} of the store.
+     */
+    EntityIndex enable(FileStore store) {
+
+        if (this.indexes.containsKey(store)) return this.get(store);
+
+        // Commits are excluded until the index is published, so that none of them is missed by both the scan and the index.
+        this.commitLock.writeLock().lock();
+        try {
+            EntityIndex index = EntityIndex.open(this.file(store));
+            try {
+                this.reconcile(store, index);
+            } catch (IOException | RuntimeException e) {
+                index.close();
+                throw e;
+            }
+
+            this.indexes.put(store, index);
+            return index;
+        } catch (IOException e) {
+            throw new StorageException(e);
+        } finally {
+            this.commitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieve the {@link EntityIndex} of the provided {@link FileStore}. A stale index is rebuilt by scanning the store first.
+     *
+     * @param store
+     *         An indexed {@link FileStore}.
+     *
+     * @return An {@link EntityIndex}.
+     */
+    EntityIndex get(FileStore store) {
+
+        EntityIndex index = this.indexes.get(store);
+
+        if (index == null) {
+            throw new StorageException(String.format("Store '%s' is not indexed in this library", store.name()));
+        }
+
+        if (index.isStale()) {
+            this.commitLock.writeLock().lock();
+            try {
+                this.reconcile(store, index);
+            } catch (IOException e) {
+                throw new StorageException(e);
+            } finally {
+                this.commitLock.writeLock().unlock();
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Replace the content of a stale {@link EntityIndex} with a scan of its store. Must be called while holding the write lock of
+     * the commits.
+     *
+     * @param store
+     *         The indexed {@link FileStore}.
+     * @param index
+     *         The {@link EntityIndex} of the store.
+     *
+     * @throws IOException
+     *         If the store could not be scanned, or if the index could not be written.
+     */
+    private void reconcile(FileStore store, EntityIndex index) throws IOException {
+
+        if (!index.isStale()) return;
+
+        List<IndexedEntity> entities = new ArrayList<>();
+        for (Map.Entry<String, Path> entity : this.usage.entities(store).entrySet()) {
+            BasicFileAttributes attributes = Files.readAttributes(entity.getValue(), BasicFileAttributes.class);
+            entities.add(new IndexedEntity(
+                    entity.getKey(),
+                    attributes.creationTime().toInstant(),
+                    attributes.lastModifiedTime().toInstant(),
+                    SanctumUtils.size(entity.getValue())
+            ));
+        }
+        index.replace(entities);
+    }
+
+    /**
+     * Record a committed entity into the {@link EntityIndex} of its {@link FileStore}, if it has one.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting the entity.
+     * @param localPath
+     *         The {@link Path} of the entity within the library.
+     * @param size
+     *         The {@link TransferSize} of the entity content.
+     *
+     * @throws IOException
+     *         If the {@link EntityIndex} could not be updated.
+     */
+    void account(AccessScope scope, Path localPath, TransferSize size) throws IOException {
+
+        EntityIndex index = this.indexes.get(scope.store());
+        if (index == null) return;
+
+        String name = scope.claim().getScopedName();
+        if (Files.exists(localPath)) {
+            index.put(name, size);
+        } else {
+            index.remove(name);
+        }
+    }
+
+    /**
+     * Page the provided {@link StorageResolver} from the {@link EntityIndex} of its {@link FileStore}, if it has one that can be
+     * trusted.
+     *
+     * @param store
+     *         The {@link FileStore} resolved.
+     * @param resolver
+     *         The {@link StorageResolver} of the store.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    StorageResolver wrap(FileStore store, StorageResolver resolver) {
+
+        // A stale index is only trusted once reconciled by get, which cannot happen here as commits resolve their entities.
+        EntityIndex index = this.indexes.get(store);
+        if (index == null || index.isStale()) return resolver;
+
+        return new IndexedResolver(resolver, store, index);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        IOException failure = null;
+
+        // An index left unclosed is rebuilt on the next opening, so a failure must not skip the others.
+        for (EntityIndex index : this.indexes.values()) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+}
@@ -0,0 +1,146 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.PlacementStrategy;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
+import fr.anisekai.sanctum.resolvers.PlacedResolver;
+import fr.anisekai.sanctum.resolvers.StandardResolver;
+import fr.anisekai.sanctum.resolvers.StandardWalker;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Roots of a {@link Sanctum} library and the placement of its content over them, shared by every collaborator of the library.
+ */
+final class LibraryLayout {
+
+    private final boolean             readOnly;
+    private final MetadataCache       cache;
+    private final PlacementStrategy   placement;
+    private final List<Path>          roots;
+    private final List<StorageWalker> walkers;
+
+    /**
+     * Create a new {@link LibraryLayout} instance.
+     *
+     * @param roots
+     *         The normalized root {@link Path} of the library.
+     * @param placement
+     *         The {@link PlacementStrategy} choosing the root of each store or entity.
+     * @param cache
+     *         The {@link MetadataCache} to invalidate when modifying the filesystem.
+     */
+    LibraryLayout(List<Path> roots, PlacementStrategy placement, MetadataCache cache) {
+
+        this.readOnly  = roots.stream().anyMatch(path -> path.getFileSystem().isReadOnly());
+        this.cache     = cache;
+        this.placement = placement;
+        this.roots     = List.copyOf(roots);
+        this.walkers   = roots.stream().map(path -> (StorageWalker) new StandardWalker(path, cache)).toList();
+    }
+
+    /**
+     * Check if the library is located on a read-only filesystem.
+     *
+     * @return True if the library is read-only.
+     */
+    boolean isReadOnly() {
+
+        return this.readOnly;
+    }
+
+    /**
+     * Retrieve the {@link MetadataCache} of the library.
+     *
+     * @return A {@link MetadataCache}.
+     */
+    MetadataCache cache() {
+
+        return this.cache;
+    }
+
+    /**
+     * Retrieve the roots of the library.
+     *
+     * @return A {@link List} of {@link Path}.
+     */
+    List<Path> roots() {
+
+        return this.roots;
+    }
+
+    /**
+     * Retrieve the {@link StorageWalker} of each root of the library.
+     *
+     * @return A {@link List} of {@link StorageWalker}, in the same order as the roots.
+     */
+    List<StorageWalker> walkers() {
+
+        return this.walkers;
+    }
+
+    /**
+     * Retrieve the index of the root on which the provided content is placed.
+     *
+     * @param store
+     *         The {@link FileStore} of the content.
+     * @param entity
+     *         The scoped name of the entity, or {@code null} for content not related to a specific entity.
+     *
+     * @return The index of a root.
+     */
+    int place(FileStore store, @Nullable String entity) {
+
+        if (this.walkers.size() == 1) return 0;
+
+        int index = this.placement.place(store, entity, this.walkers.size());
+
+        if (index < 0 || index >= this.walkers.size()) {
+            throw new StorageException(String.format(
+                    "The placement strategy chose the root %s out of %s for the store '%s'.",
+                    index,
+                    this.walkers.size(),
+                    store.name()
+            ));
+        }
+
+        return index;
+    }
+
+    /**
+     * Create a {@link StorageResolver} for the provided {@link FileStore}, spanning every root of the library.
+     *
+     * @param store
+     *         The {@link FileStore} to resolve.
+     * @param directory
+     *         The {@link Function} retrieving the directory to resolve from the {@link StorageWalker} of each root.
+     * @param policy
+     *         The {@link ResolverPolicy} to use.
+     * @param codec
+     *         The {@link StorageCodec} of the content.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    StorageResolver createResolver(FileStore store, Function<StorageWalker, Path> directory, ResolverPolicy policy, StorageCodec codec) {
+
+        if (this.walkers.size() == 1) {
+            return new StandardResolver(directory.apply(this.walkers.getFirst()), store, policy, this.cache, codec);
+        }
+
+        List<StorageResolver> resolvers = this.walkers
+                .stream()
+                .map(walker -> (StorageResolver) new StandardResolver(directory.apply(walker), store, policy, this.cache, codec))
+                .toList();
+
+        return new PlacedResolver(store, resolvers, this.placement);
+    }
+
+}
@@ -0,0 +1,89 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.packs.PackStore;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PackStore} holding the content of each packed store of a {@link Sanctum} library, located on the root chosen for the
+ * whole store.
+ */
+final class LibraryPacks implements AutoCloseable {
+
+    private static final long SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    private final LibraryLayout             layout;
+    private final Map<FileStore, PackStore> packs = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link LibraryPacks} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     */
+    LibraryPacks(LibraryLayout layout) {
+
+        this.layout = layout;
+    }
+
+    /**
+     * Open the {@link PackStore} of the provided packed {@link FileStore}.
+     *
+     * @param store
+     *         The packed {@link FileStore} being registered.
+     *
+     * @throws IOException
+     *         If the {@link PackStore} could not be opened.
+     */
+    void open(FileStore store) throws IOException {
+
+        this.packs.put(store, PackStore.open(
+                this.layout.walkers().get(this.layout.place(store, null)).directory(store.name()),
+                SEGMENT_SIZE
+        ));
+    }
+
+    /**
+     * Retrieve the {@link PackStore} holding the content of the provided {@link FileStore}.
+     *
+     * @param store
+     *         A packed {@link FileStore}.
+     *
+     * @return A {@link PackStore}.
+     */
+    PackStore get(FileStore store) {
+
+        PackStore pack = this.packs.get(store);
+
+        if (pack == null) {
+            throw new StorageException(String.format(
+                    "Store '%s' is not a packed store registered in this library",
+                    store.name()
+            ));
+        }
+
+        return pack;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        IOException failure = null;
+
+        for (PackStore pack : this.packs.values()) {
+            try {
+                pack.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+}
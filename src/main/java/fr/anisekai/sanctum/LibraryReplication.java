@@ -0,0 +1,136 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.replication.ReplicationEntry;
+import fr.anisekai.sanctum.replication.ReplicationJournal;
+import fr.anisekai.sanctum.replication.Replicator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replication of a {@link Sanctum} library, recording every committed entity into a durable {@link ReplicationJournal} processed
+ * by a {@link Replicator}.
+ */
+final class LibraryReplication implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(LibraryReplication.class.getName());
+
+    private final LibraryLayout                    layout;
+    private final ParallelCopy                     copier;
+    private final Function<FileStore, StorePolicy> policies;
+    private final Function<AccessScope, Path>      resolver;
+    private final LongAdder                        failures = new LongAdder();
+
+    private volatile ReplicationJournal journal;
+
+    /**
+     * Create a new {@link LibraryReplication} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param copier
+     *         The {@link ParallelCopy} used to copy large entities to the mirrors.
+     * @param policies
+     *         The {@link Function} retrieving the {@link StorePolicy} of a registered {@link FileStore}.
+     * @param resolver
+     *         The {@link Function} resolving the {@link Path} of a committed entity.
+     */
+    LibraryReplication(LibraryLayout layout, ParallelCopy copier, Function<FileStore, StorePolicy> policies, Function<AccessScope, Path> resolver) {
+
+        this.layout   = layout;
+        this.copier   = copier;
+        this.policies = policies;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Check if the replication is enabled.
+     *
+     * @return True if committed entities are recorded into a journal.
+     */
+    boolean isEnabled() {
+
+        return this.journal != null;
+    }
+
+    /**
+     * Open the {@link ReplicationJournal} and create the {@link Replicator} processing it.
+     *
+     * @param directory
+     *         The internal {@link FileStore} holding the journal.
+     * @param mirrors
+     *         The mirror roots.
+     * @param batchSize
+     *         The maximum amount of entities copied by each run of the {@link Replicator}.
+     *
+     * @return A {@link Replicator}.
+     */
+    Replicator enable(FileStore directory, List<Path> mirrors, int batchSize) {
+
+        try {
+            this.journal = ReplicationJournal.open(this.layout.walkers().getFirst().directory(directory.name()));
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+
+        List<Path> targets = mirrors.stream().map(path -> path.toAbsolutePath().normalize()).toList();
+        return new Replicator(this.journal, this.layout.roots(), targets, batchSize, this.copier);
+    }
+
+    /**
+     * Record the provided committed {@link AccessScope} into the replication journal, if the replication is enabled.
+     * <p>
+     * Recording never fails the commit, whose scope has already been applied: a scope that could not be recorded is logged and
+     * counted by {@link #failures()}, and will only be replicated by its next commit.
+     *
+     * @param scope
+     *         The committed {@link AccessScope}.
+     */
+    void enqueue(AccessScope scope) {
+
+        ReplicationJournal journal = this.journal;
+        if (journal == null) return;
+
+        FileStore   store  = scope.store();
+        StorePolicy policy = this.policies.apply(store);
+
+        if (!policy.willModifyFilesystem() || !store.type().isScoped() || store.packed()) return;
+
+        try {
+            int    index = this.layout.place(store, scope.claim().getScopedName());
+            Path   path  = this.layout.roots().get(index).relativize(this.resolver.apply(scope));
+            String entry = path.toString().replace(path.getFileSystem().getSeparator(), "/");
+
+            journal.append(List.of(new ReplicationEntry(0, System.currentTimeMillis(), index, entry)));
+        } catch (IOException | RuntimeException e) {
+            this.failures.increment();
+            LOGGER.log(System.Logger.Level.WARNING, String.format("Failed to record the scope %s for replication", scope), e);
+        }
+    }
+
+    /**
+     * Retrieve the amount of committed scopes that could not be recorded into the replication journal.
+     *
+     * @return The amount of failures.
+     */
+    long failures() {
+
+        return this.failures.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (this.journal != null) {
+            this.journal.close();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.exceptions.StoreRegistrationException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.resolvers.StandardResolver;
+import fr.anisekai.sanctum.resolvers.StandardWalker;
+import fr.anisekai.sanctum.tiers.TierMigrator;
+import fr.anisekai.sanctum.tiers.TieredResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cold tiers of the stores of a {@link Sanctum} library, each one moved from and to the library root by its
+ * {@link TierMigrator}.
+ */
+final class LibraryTiers {
+
+    private final LibraryLayout                layout;
+    private final ParallelCopy                 copier;
+    private final Map<FileStore, TierMigrator> tiers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link LibraryTiers} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param copier
+     *         The {@link ParallelCopy} used to move large entities between tiers.
+     */
+    LibraryTiers(LibraryLayout layout, ParallelCopy copier) {
+
+        this.layout = layout;
+        this.copier = copier;
+    }
+
+    /**
+     * Create the cold tier of the provided {@link FileStore}.
+     *
+     * @param store
+     *         The registered {@link FileStore} to tier.
+     * @param coldRoot
+     *         The root {@link Path} of the cold tier.
+     * @param maxHotEntities
+     *         The amount of entities the hot tier can hold before demoting the least recently accessed ones.
+     * @param reservations
+     *         The {@link TierMigrator.Reservations} preventing any claim on an entity while it is moved.
+     *
+     * @return The {@link TierMigrator} of the store.
+     */
+    TierMigrator register(FileStore store, Path coldRoot, int maxHotEntities, TierMigrator.Reservations reservations) {
+
+        Path cold = new StandardWalker(coldRoot.toAbsolutePath().normalize(), this.layout.cache()).directory(store.name());
+
+        if (!Files.exists(cold)) {
+            SanctumUtils.Action.wrap(
+                    () -> Files.createDirectories(cold),
+                    e -> new StoreRegistrationException(
+                            String.format("Store '%s' cold directory could not be obtained", store.name()),
+                            e
+                    )
+            );
+            this.layout.cache().invalidate(cold);
+        }
+
+        TierMigrator migrator = new TierMigrator(
+                store,
+                this.layout.walkers().getFirst().directory(store.name()),
+                cold,
+                maxHotEntities,
+                this.layout.cache(),
+                this.copier,
+                reservations
+        );
+
+        if (this.tiers.putIfAbsent(store, migrator) != null) {
+            throw new StoreRegistrationException(String.format("Store '%s' is already tiered", store.name()));
+        }
+
+        return migrator;
+    }
+
+    /**
+     * Retrieve the {@link TierMigrator} of the provided {@link FileStore}.
+     *
+     * @param store
+     *         The {@link FileStore}.
+     *
+     * @return A {@link TierMigrator}, or {@code null} if the store is not tiered.
+     */
+    @Nullable TierMigrator get(FileStore store) {
+
+        return this.tiers.get(store);
+    }
+
+    /**
+     * Extend the provided {@link StorageResolver} to the cold tier of its {@link FileStore}, if it has one.
+     *
+     * @param store
+     *         The {@link FileStore} resolved.
+     * @param resolver
+     *         The {@link StorageResolver} of the store within the library root.
+     * @param policy
+     *         The {@link ResolverPolicy} of the store.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    StorageResolver wrap(FileStore store, StorageResolver resolver, ResolverPolicy policy) {
+
+        TierMigrator tier = this.tiers.get(store);
+        if (tier == null) return resolver;
+
+        StorageResolver cold = new StandardResolver(tier.cold(), store, policy, this.layout.cache(), store.codec());
+        return new TieredResolver(resolver, cold, tier);
+    }
+
+}
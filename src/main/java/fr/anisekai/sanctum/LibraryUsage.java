@@ -0,0 +1,167 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.index.EntityIndex;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.tiers.TierMigrator;
+import fr.anisekai.sanctum.usage.UsageCheckpointer;
+import fr.anisekai.sanctum.usage.UsageLedger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Disk usage of the entities of a {@link Sanctum} library, recorded in a {@link UsageLedger} by every commit and corrected by
+ * scanning the stores.
+ */
+final class LibraryUsage {
+
+    private final LibraryLayout layout;
+    private final LibraryTiers  tiers;
+    private final UsageLedger   ledger = new UsageLedger();
+
+    /**
+     * Create a new {@link LibraryUsage} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param tiers
+     *         The {@link LibraryTiers} of the library, whose cold tiers are scanned too.
+     */
+    LibraryUsage(LibraryLayout layout, LibraryTiers tiers) {
+
+        this.layout = layout;
+        this.tiers  = tiers;
+    }
+
+    /**
+     * Retrieve the {@link UsageLedger} of the library.
+     *
+     * @return A {@link UsageLedger}.
+     */
+    UsageLedger ledger() {
+
+        return this.ledger;
+    }
+
+    /**
+     * Rebuild the {@link UsageLedger} by scanning every accounted store among the provided ones.
+     *
+     * @param stores
+     *         The {@link StorePolicy} of every registered {@link FileStore}.
+     */
+    void rebuild(Map<FileStore, StorePolicy> stores) {
+
+        Map<String, FileStore> accounted = new HashMap<>();
+        stores.forEach((store, policy) -> {
+            if (policy.willModifyFilesystem() && store.type().isScoped() && !store.packed()) accounted.put(store.name(), store);
+        });
+
+        this.ledger.rebuild(accounted.keySet(), name -> this.scan(accounted.get(name)));
+    }
+
+    /**
+     * Load the {@link UsageLedger} from the provided snapshot, or rebuild it when there is none, and create the
+     * {@link UsageCheckpointer} saving it.
+     *
+     * @param snapshot
+     *         The {@link Path} of the snapshot of the {@link UsageLedger}.
+     * @param stores
+     *         The {@link StorePolicy} of every registered {@link FileStore}.
+     *
+     * @return A {@link UsageCheckpointer}.
+     */
+    UsageCheckpointer persist(Path snapshot, Map<FileStore, StorePolicy> stores) {
+
+        try {
+            if (Files.exists(snapshot)) {
+                this.ledger.load(snapshot);
+            } else {
+                this.rebuild(stores);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+
+        return new UsageCheckpointer(this.ledger, snapshot);
+    }
+
+    /**
+     * Measure every entity of the provided {@link FileStore} by walking its content. The sizes recorded by an {@link EntityIndex}
+     * are never used, as the scan is what corrects a ledger that drifted from the disk.
+     *
+     * @param store
+     *         The {@link FileStore} to scan.
+     *
+     * @return A {@link Map} associating each entity name to its {@link TransferSize}.
+     */
+    private Map<String, TransferSize> scan(FileStore store) {
+
+        return this.entities(store).entrySet().parallelStream().collect(Collectors.toConcurrentMap(
+                Map.Entry::getKey,
+                entry -> {
+                    try {
+                        return SanctumUtils.size(entry.getValue());
+                    } catch (IOException e) {
+                        throw new StorageException(e);
+                    }
+                },
+                TransferSize::plus
+        ));
+    }
+
+    /**
+     * List every entity of the provided {@link FileStore}, on every root and on its cold tier.
+     *
+     * @param store
+     *         The scoped {@link FileStore} to list.
+     *
+     * @return A {@link Map} associating each entity scoped name to its {@link Path}.
+     */
+    Map<String, Path> entities(FileStore store) {
+
+        List<Path>   directories = new ArrayList<>();
+        TierMigrator tier        = this.tiers.get(store);
+
+        for (StorageWalker walker : this.layout.walkers()) directories.add(walker.directory(store.name()));
+        if (tier != null) directories.add(tier.cold());
+
+        // Only file scoped stores enforce an extension.
+        String            suffix   = store.type() == StoreType.FILE_SCOPED ? "." + store.extension() : "";
+        Map<String, Path> entities = new HashMap<>();
+
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) continue;
+            try (Stream<Path> children = Files.list(directory)) {
+                children.forEach(child -> {
+                    String entry = child.getFileName().toString();
+                    // Hidden names are staging copies, backups and version histories.
+                    if (entry.startsWith(".")) return;
+
+                    if (store.type() == StoreType.FILE_SCOPED) {
+                        if (!entry.endsWith(suffix)) return;
+                        entities.put(entry.substring(0, entry.length() - suffix.length()), child);
+                    } else {
+                        entities.put(entry, child);
+                    }
+                });
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
+
+        return entities;
+    }
+
+}
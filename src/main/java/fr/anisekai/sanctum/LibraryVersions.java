@@ -0,0 +1,74 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.versions.VersionHistory;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * Previous versions of the entities of the stores keeping versions, located next to the entities in a hidden directory of their
+ * store.
+ */
+final class LibraryVersions {
+
+    private static final String DIRECTORY = ".versions";
+
+    private final LibraryLayout layout;
+
+    /**
+     * Create a new {@link LibraryVersions} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     */
+    LibraryVersions(LibraryLayout layout) {
+
+        this.layout = layout;
+    }
+
+    /**
+     * Retrieve the {@link VersionHistory} of the entity targeted by the provided {@link AccessScope}.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting a versioned store entity.
+     *
+     * @return A {@link VersionHistory}, or {@code null} if the store does not keep versions.
+     */
+    @Nullable VersionHistory history(AccessScope scope) {
+
+        FileStore store = scope.store();
+        if (store.retention() <= 0) return null;
+
+        String name = scope.claim().getScopedName();
+        Path directory = this.layout.walkers()
+                                    .get(this.layout.place(store, name))
+                                    .walk(store.name())
+                                    .walk(DIRECTORY)
+                                    .directory(name);
+
+        return new VersionHistory(directory);
+    }
+
+    /**
+     * Retrieve the {@link VersionHistory} of the entity targeted by the provided {@link AccessScope}, failing if its store does
+     * not keep versions.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting a versioned store entity.
+     *
+     * @return A {@link VersionHistory}.
+     */
+    VersionHistory require(AccessScope scope) {
+
+        VersionHistory history = this.history(scope);
+
+        if (history == null) {
+            throw new StorageException(String.format("Store '%s' does not keep versions", scope.store().name()));
+        }
+
+        return history;
+    }
+
+}
@@ -0,0 +1,155 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ReadView;
+import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
+import fr.anisekai.sanctum.resolvers.policies.StoreResolverPolicy;
+import fr.anisekai.sanctum.views.ViewResolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * {@link ReadView} opened on a {@link Sanctum} library, each one pinning the content it reads into its own snapshot directory on
+ * every root.
+ */
+final class LibraryViews implements AutoCloseable {
+
+    private final LibraryLayout                           layout;
+    private final FileStore                               snapshots;
+    private final ReadWriteLock                           commitLock;
+    private final Map<UUID, Map<FileStore, ViewResolver>> views = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link LibraryViews} instance.
+     *
+     * @param layout
+     *         The {@link LibraryLayout} of the library.
+     * @param snapshots
+     *         The internal {@link FileStore} holding the snapshot of each view.
+     * @param commitLock
+     *         The {@link ReadWriteLock} held for reading by every commit of the library.
+     */
+    LibraryViews(LibraryLayout layout, FileStore snapshots, ReadWriteLock commitLock) {
+
+        this.layout     = layout;
+        this.snapshots  = snapshots;
+        this.commitLock = commitLock;
+    }
+
+    /**
+     * Open a {@link ReadView} pinning the content of the provided {@link FileStore}.
+     *
+     * @param uuid
+     *         The uuid of the {@link ReadView}.
+     * @param stores
+     *         The {@link FileStore} to pin, whose content is only made of committed files.
+     *
+     * @return A {@link ReadView}.
+     */
+    ReadView open(UUID uuid, Set<FileStore> stores) {
+
+        Map<FileStore, ViewResolver> resolvers = new HashMap<>();
+
+        for (FileStore store : stores) {
+            ResolverPolicy policy = new StoreResolverPolicy(store);
+
+            resolvers.put(store, new ViewResolver(
+                    store,
+                    this.layout.createResolver(store, walker -> walker.directory(store.name()), policy, store.codec()),
+                    this.layout.createResolver(store, walker -> this.getSnapshotRoot(walker, uuid).directory(store.name()), policy, store.codec())
+            ));
+        }
+
+        // Entities are only pinned when first resolved or committed: registering the view is enough, as long as no commit is in
+        // progress, so that every commit either completed before the view was opened or preserves the content it replaces.
+        this.commitLock.writeLock().lock();
+        try {
+            this.views.put(uuid, Map.copyOf(resolvers));
+        } finally {
+            this.commitLock.writeLock().unlock();
+        }
+
+        return new ReadViewImpl(uuid, Map.copyOf(resolvers), closed -> this.release(closed.uuid()));
+    }
+
+    private StorageWalker getSnapshotRoot(StorageWalker walker, UUID uuid) {
+
+        return walker.walk(this.snapshots.name()).walk(uuid.toString());
+    }
+
+    /**
+     * Pin the committed content of the entity targeted by the provided {@link AccessScope} into every opened {@link ReadView}
+     * that did not pin it yet, before a commit replaces it. As commits never write into an existing file, linked files are never
+     * modified afterward.
+     *
+     * @param scope
+     *         The {@link AccessScope} about to be committed.
+     *
+     * @throws IOException
+     *         If the content could not be pinned.
+     */
+    void preserve(AccessScope scope) throws IOException {
+
+        for (Map<FileStore, ViewResolver> view : this.views.values()) {
+            ViewResolver resolver = view.get(scope.store());
+            if (resolver != null) resolver.preserve(scope.claim());
+        }
+    }
+
+    /**
+     * Release the content pinned by a {@link ReadView}. Every root is released even if one of them fails.
+     *
+     * @param uuid
+     *         The uuid of the {@link ReadView}.
+     */
+    private void release(UUID uuid) {
+
+        this.views.remove(uuid);
+
+        IOException failure = null;
+
+        for (StorageWalker walker : this.layout.walkers()) {
+            Path snapshot = walker.walk(this.snapshots.name()).directory(uuid.toString());
+            try {
+                SanctumUtils.delete(snapshot);
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            } finally {
+                this.layout.cache().invalidate(snapshot);
+            }
+        }
+
+        if (failure != null) throw new StorageException(failure);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.views.clear();
+        if (this.layout.isReadOnly()) return;
+
+        IOException failure = null;
+
+        for (StorageWalker walker : this.layout.walkers()) {
+            try {
+                SanctumUtils.delete(walker.directory(this.snapshots.name()));
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+}
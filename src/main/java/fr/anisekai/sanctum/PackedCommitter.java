@@ -0,0 +1,58 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.events.CommitPhaseEvent;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.packs.PackStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link ScopeCommitter} appending the content of an entity to the {@link PackStore} of a packed store. As records are only
+ * appended, no backup is needed: a failure leaves the previous record untouched.
+ */
+final class PackedCommitter implements ScopeCommitter {
+
+    private final CommitContext context;
+    private final LibraryPacks  packs;
+
+    /**
+     * Create a new {@link PackedCommitter} instance.
+     *
+     * @param context
+     *         The {@link CommitContext} of the library.
+     * @param packs
+     *         The {@link LibraryPacks} holding the content of packed stores.
+     */
+    PackedCommitter(CommitContext context, LibraryPacks packs) {
+
+        this.context = context;
+        this.packs   = packs;
+    }
+
+    @Override
+    public void commit(IsolationSessionDescriptor storage, AccessScope scope, StorePolicy policy) throws IOException {
+
+        PackStore pack = this.packs.get(scope.store());
+        String    name = scope.claim().getScopedName();
+        //noinspection resource
+        Path isolationPath = storage.context().resolve(scope);
+
+        if (Files.isRegularFile(isolationPath)) {
+            CommitPhaseEvent copy = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.COPY);
+            TransferSize     size = new TransferSize(1, Files.size(isolationPath));
+            pack.append(name, isolationPath);
+            this.context.metrics().copied(size);
+            copy.finish(size);
+        } else if (policy == StorePolicy.FULL_SWAP) {
+            CommitPhaseEvent delete = CommitPhaseEvent.start(scope, policy, CommitPhaseEvent.Phase.DELETE);
+            // The record is only marked as removed, its space is reclaimed by the compaction of the pack.
+            pack.remove(name);
+            delete.finish(TransferSize.NONE);
+        }
+    }
+
+}
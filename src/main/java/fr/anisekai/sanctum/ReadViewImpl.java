@@ -0,0 +1,53 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ReadView;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Default implementation of {@link ReadView}.
+ *
+ * @param uuid
+ *         The uuid of this {@link ReadView}.
+ * @param resolvers
+ *         The {@link StorageResolver} of each pinned {@link FileStore}.
+ * @param release
+ *         The {@link Consumer} releasing the pinned content when this {@link ReadView} is closed.
+ */
+public record ReadViewImpl(UUID uuid, Map<FileStore, StorageResolver> resolvers, Consumer<ReadView> release) implements ReadView {
+
+    @Override
+    public Set<FileStore> stores() {
+
+        return this.resolvers().keySet();
+    }
+
+    @Override
+    public StorageResolver getResolver(FileStore store) {
+
+        StorageResolver resolver = this.resolvers().get(store);
+
+        if (resolver == null) {
+            throw new StorageException(String.format(
+                    "Store '%s' is not pinned by the read view '%s'",
+                    store.name(),
+                    this.uuid()
+            ));
+        }
+
+        return resolver;
+    }
+
+    @Override
+    public void close() {
+
+        this.release().accept(this);
+    }
+
+}
@@ -1,8 +1,13 @@
 package fr.anisekai.sanctum;
 
 import com.github.f4b6a3.uuid.UuidCreator;
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.enums.LibraryOperation;
 import fr.anisekai.sanctum.enums.StorePolicy;
 import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.events.DiscardEvent;
+import fr.anisekai.sanctum.events.ResolveEvent;
+import fr.anisekai.sanctum.events.ScopeGrantEvent;
 import fr.anisekai.sanctum.exceptions.LibraryException;
 import fr.anisekai.sanctum.exceptions.StorageException;
 import fr.anisekai.sanctum.exceptions.StoreRegistrationException;
@@ -10,57 +15,174 @@ import fr.anisekai.sanctum.exceptions.context.ContextCommitException;
 import fr.anisekai.sanctum.exceptions.context.ContextDiscardException;
 import fr.anisekai.sanctum.exceptions.context.ContextUnavailableException;
 import fr.anisekai.sanctum.exceptions.scope.ScopeGrantException;
+import fr.anisekai.sanctum.feed.CommitFeed;
+import fr.anisekai.sanctum.feed.CommitLog;
+import fr.anisekai.sanctum.feed.CommittedScope;
+import fr.anisekai.sanctum.generations.Generation;
+import fr.anisekai.sanctum.generations.GenerationReaper;
+import fr.anisekai.sanctum.generations.GenerationStore;
+import fr.anisekai.sanctum.index.EntityIndex;
 import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.LibraryMetrics;
 import fr.anisekai.sanctum.interfaces.Library;
+import fr.anisekai.sanctum.interfaces.PlacementStrategy;
+import fr.anisekai.sanctum.interfaces.ReadView;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
 import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
 import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
 import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
-import fr.anisekai.sanctum.resolvers.StandardResolver;
-import fr.anisekai.sanctum.resolvers.StandardWalker;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.packs.PackStore;
+import fr.anisekai.sanctum.replication.Replicator;
 import fr.anisekai.sanctum.resolvers.policies.IsolationResolverPolicy;
 import fr.anisekai.sanctum.resolvers.policies.StoreResolverPolicy;
 import fr.anisekai.sanctum.stores.RawStorage;
 import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
+import fr.anisekai.sanctum.temporary.MemoryArea;
+import fr.anisekai.sanctum.temporary.TemporaryAllocator;
+import fr.anisekai.sanctum.tiers.TierMigrator;
+import fr.anisekai.sanctum.usage.UsageCheckpointer;
+import fr.anisekai.sanctum.usage.UsageLedger;
+import fr.anisekai.sanctum.versions.VersionHistory;
 
 import java.io.IOException;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Default implementation of {@link Library}.
  */
 public class Sanctum implements Library {
 
+    private static final String    RESERVED_PREFIX = ".sanctum-";
     private static final FileStore STORE_TEMPORARY = new RawStorage("tmp");
     private static final FileStore STORE_ISOLATION = new ScopedDirectoryStorage("isolation", IsolationSession.class);
+    private static final FileStore STORE_BLOBS     = new RawStorage(RESERVED_PREFIX + "blobs");
+    private static final FileStore STORE_SNAPSHOTS = new RawStorage(RESERVED_PREFIX + "snapshots");
+    private static final FileStore STORE_MIRRORING = new RawStorage(RESERVED_PREFIX + "replication");
+    private static final FileStore STORE_USAGE     = new RawStorage(RESERVED_PREFIX + "usage");
+    private static final FileStore STORE_INDEX     = new RawStorage(RESERVED_PREFIX + "index");
+    private static final FileStore STORE_FEED      = new RawStorage(RESERVED_PREFIX + "feed");
+
+    private final LibraryLayout                         layout;
+    private final GenerationStore                       generations;
+    private final Map<UUID, IsolationSessionDescriptor> isolatedStorages = new ConcurrentHashMap<>();
+    private final Map<FileStore, StorePolicy>           stores           = new ConcurrentHashMap<>();
+    private final Set<EntityKey>                        reserved         = new HashSet<>();
+    private final Object                                claimLock        = new Object();
+    private final ReadWriteLock                         commitLock       = new ReentrantReadWriteLock();
+    private final ParallelCopy                          copier           = new ParallelCopy(ParallelCopy.PARALLELISM);
+    private final LibraryBlobs                          blobs;
+    private final LibraryPacks                          packs;
+    private final LibraryTiers                          tiers;
+    private final LibraryViews                          views;
+    private final LibraryUsage                          usage;
+    private final LibraryIndexes                        indexes;
+    private final LibraryVersions                       versions;
+    private final LibraryReplication                    replication;
+    private final CommitContext                         context;
+    private final ScopeCommitter                        inPlace;
+    private final ScopeCommitter                        packed;
+    private final ScopeCommitter                        generational;
+
+    private volatile MemoryArea     memory;
+    private volatile LibraryMetrics metrics = LibraryMetrics.noop();
+    private volatile CommitFeed     feed;
 
-    private final Path                                  root;
-    private final StorageWalker                         walker;
-    private final Map<UUID, IsolationSessionDescriptor> isolatedStorages = new HashMap<>();
-    private final Map<FileStore, StorePolicy>           stores           = new HashMap<>();
+    /**
+     * Create a new {@link Sanctum} instance. The library can be located on any {@link FileSystem}: the provider of the root
+     * {@link Path} will be used for every operation. When the {@link FileSystem} is read-only, the library can be used to resolve
+     * its content but no {@link IsolationSession} can be created.
+     *
+     * @param root
+     *         The root {@link Path} of the library.
+     */
+    public Sanctum(Path root) {
+
+        this(root, MetadataCache.disabled());
+    }
 
     /**
      * Create a new {@link Sanctum} instance
      *
      * @param root
      *         The root {@link Path} of the library.
+     * @param cache
+     *         The {@link MetadataCache} to use when resolving content of the library. It will be invalidated by every operation
+     *         of this {@link Sanctum} modifying the filesystem.
      */
-    public Sanctum(Path root) {
+    public Sanctum(Path root, MetadataCache cache) {
+
+        this(List.of(root), PlacementStrategy.perStore(), cache);
+    }
+
+    /**
+     * Create a new {@link Sanctum} instance spanning several roots, typically located on different disks. The content of each
+     * {@link FileStore} is spread over the roots according to the provided {@link PlacementStrategy}, and the isolated copy of an
+     * entity is always located on the same root as the entity itself.
+     *
+     * @param roots
+     *         The root {@link Path} of the library. Their order must stay the same between each instantiation.
+     * @param placement
+     *         The {@link PlacementStrategy} choosing the root of each store or entity.
+     * @param cache
+     *         The {@link MetadataCache} to use when resolving content of the library. It will be invalidated by every operation
+     *         of this {@link Sanctum} modifying the filesystem.
+     */
+    public Sanctum(List<Path> roots, PlacementStrategy placement, MetadataCache cache) {
+
+        if (roots.isEmpty()) {
+            throw new LibraryException("A library needs at least one root.");
+        }
 
-        this.root   = root.toAbsolutePath().normalize();
-        this.walker = new StandardWalker(this.root);
+        List<Path> normalized = roots.stream().map(path -> path.toAbsolutePath().normalize()).toList();
 
-        if (!Files.exists(this.root)) {
-            SanctumUtils.Action.wrap(() -> Files.createDirectories(this.root), LibraryException::new);
+        if (normalized.stream().distinct().count() != normalized.size()) {
+            throw new LibraryException("The roots of a library must be distinct.");
         }
 
+        this.layout      = new LibraryLayout(normalized, placement, cache);
+        this.generations = new GenerationStore(cache);
+        this.blobs       = new LibraryBlobs(this.layout, STORE_BLOBS);
+        this.packs       = new LibraryPacks(this.layout);
+        this.tiers       = new LibraryTiers(this.layout, this.copier);
+        this.views       = new LibraryViews(this.layout, STORE_SNAPSHOTS, this.commitLock);
+        this.usage       = new LibraryUsage(this.layout, this.tiers);
+        this.indexes     = new LibraryIndexes(this.layout, this.usage, STORE_INDEX, this.commitLock);
+        this.versions    = new LibraryVersions(this.layout);
+        this.replication = new LibraryReplication(this.layout, this.copier, this.stores::get, this::resolve);
+        this.context     = new CommitContext(
+                this.layout,
+                this.blobs,
+                this.views,
+                this.usage,
+                this.indexes,
+                this.copier,
+                () -> this.metrics,
+                this::resolve
+        );
+
+        this.inPlace      = new InPlaceCommitter(this.context, this.tiers, this.versions);
+        this.packed       = new PackedCommitter(this.context, this.packs);
+        this.generational = new GenerationalCommitter(this.context, this.generations);
+
         this.registerStore(STORE_TEMPORARY, StorePolicy.DISCARD);
         this.registerStore(STORE_ISOLATION, StorePolicy.PRIVATE);
     }
@@ -70,6 +192,13 @@ public class Sanctum implements Library {
         return UuidCreator.getTimeOrderedEpoch();
     }
 
+    /**
+     * Check that the provided {@link AccessScope} can be granted. Must be called while holding the claim lock, and the scopes must
+     * be granted before releasing it.
+     *
+     * @param scopes
+     *         The {@link AccessScope} to check.
+     */
     private void checkScopes(Iterable<AccessScope> scopes) {
 
         Map<AccessScope, UUID> scopeClaimMap = new HashMap<>();
@@ -89,6 +218,13 @@ public class Sanctum implements Library {
                 ));
             }
 
+            if (this.reserved.stream().anyMatch(key -> key.matches(scope))) {
+                throw new ScopeGrantException(String.format(
+                        "Cannot grant %s: The scope is temporarily reserved by the library.",
+                        scope
+                ));
+            }
+
             if (!this.hasStore(scope.store())) {
                 throw new ScopeGrantException(String.format(
                         "Cannot grant %s: The store targeted is not registered in this library.",
@@ -121,19 +257,104 @@ public class Sanctum implements Library {
     }
 
     @Override
-    public Path requestTemporaryFile(IsolationSession context, String extension) {
+    public Path requestTemporaryFile(IsolationSession context, String extension, long sizeHint) {
 
-        StorageResolver resolver = this.getResolver(context, STORE_TEMPORARY);
-        return resolver.file(String.format("%s.%s", this.randomUUID(), extension));
+        IsolationSessionDescriptor storage = this.getIsolatedStorage(context.uuid(), false);
+
+        try {
+            return storage.temporaryAllocator().allocate(extension, sizeHint);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    public void releaseTemporaryFile(IsolationSession context, Path path) {
+
+        IsolationSessionDescriptor storage = this.getIsolatedStorage(context.uuid(), true);
+
+        try {
+            storage.temporaryAllocator().release(path);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Store names must be unique whatever the type of the store, and names starting with {@code .sanctum-} are reserved for the
+     * stores used internally by this library.
+     */
     @Override
     public void registerStore(FileStore store, StorePolicy policy) {
 
+        if (store.name().startsWith(RESERVED_PREFIX)) {
+            throw new StoreRegistrationException(String.format(
+                    "Store name '%s' is reserved for the internal use of the library.",
+                    store.name()
+            ));
+        }
+
+        this.register(store, policy);
+    }
+
+    /**
+     * Register one of the stores used internally by this library, unless it is already registered.
+     *
+     * @param store
+     *         The internal {@link FileStore}, named with the reserved prefix.
+     */
+    private synchronized void registerInternalStore(FileStore store) {
+
+        if (!this.hasStore(store)) this.register(store, StorePolicy.PRIVATE);
+    }
+
+    /**
+     * Register the provided {@link FileStore} in this library using the provided {@link StorePolicy}, without checking whether its
+     * name is reserved.
+     *
+     * @param store
+     *         The {@link FileStore} to register.
+     * @param policy
+     *         The {@link StorePolicy} for the {@link FileStore}.
+     */
+    private synchronized void register(FileStore store, StorePolicy policy) {
+
         if (this.hasStore(store)) {
             throw new StoreRegistrationException(String.format("Store '%s' already exists", store.name()));
         }
 
+        // Stores of different types would share the same directories.
+        if (this.stores.keySet().stream().anyMatch(registered -> registered.name().equals(store.name()))) {
+            throw new StoreRegistrationException(String.format(
+                    "Store '%s' already exists with another type.",
+                    store.name()
+            ));
+        }
+
+        if (store.retention() > 0 && (!store.type().isScoped() || store.packed())) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' store cannot keep versions as it is not a scoped directory or file store.",
+                    store.name()
+            ));
+        }
+
+        if (policy == StorePolicy.GENERATIONAL && (store.packed() || store.retention() > 0)) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' packed or versioned store cannot be registered under the '%s' policy.",
+                    store.name(),
+                    policy.name()
+            ));
+        }
+
+        if (store.packed() && store.type() != StoreType.FILE_SCOPED) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' store cannot be packed as it is not file scoped.",
+                    store.name()
+            ));
+        }
+
         // Deny policies that can be committed with unscoped stores.
         if (!store.type().isScoped() && policy.willModifyFilesystem()) {
             throw new StoreRegistrationException(String.format(
@@ -144,9 +365,12 @@ public class Sanctum implements Library {
         }
 
         try {
-            Path path = this.walker.directory(store.name());
-            if (!Files.exists(path)) {
-                SanctumUtils.Action.wrap(() -> Files.createDirectories(path), StorageException::new);
+            for (StorageWalker walker : this.layout.walkers()) {
+                Path path = walker.directory(store.name());
+                if (!Files.exists(path) && !this.layout.isReadOnly()) {
+                    SanctumUtils.Action.wrap(() -> Files.createDirectories(path), StorageException::new);
+                    this.layout.cache().invalidate(path);
+                }
             }
         } catch (Exception e) {
             throw new StoreRegistrationException(
@@ -155,9 +379,136 @@ public class Sanctum implements Library {
             );
         }
 
+        if (policy == StorePolicy.GENERATIONAL && !this.layout.isReadOnly()) {
+            try {
+                for (StorageWalker walker : this.layout.walkers()) {
+                    this.generations.recover(walker.directory(store.name()));
+                }
+            } catch (IOException e) {
+                throw new StoreRegistrationException(String.format("Store '%s' generations could not be recovered", store.name()), e);
+            }
+        }
+
+        if (store.deduplicated()) {
+            this.registerInternalStore(STORE_BLOBS);
+        }
+
+        if (store.packed()) {
+            try {
+                this.packs.open(store);
+            } catch (IOException e) {
+                throw new StoreRegistrationException(String.format("Store '%s' pack could not be opened", store.name()), e);
+            }
+        }
+
+        if (!this.layout.isReadOnly() && LibraryIndexes.isIndexable(store) && this.indexes.exists(store)) {
+            try {
+                this.registerInternalStore(STORE_INDEX);
+                this.indexes.reopen(store);
+            } catch (IOException e) {
+                throw new StoreRegistrationException(String.format("Store '%s' index could not be opened", store.name()), e);
+            }
+        }
+
         this.stores.put(store, policy);
     }
 
+    /**
+     * Spread the content of the provided {@link FileStore} over two roots: the library root, acting as the hot tier, and the
+     * provided cold root. Entities are resolved within either tier, and the returned {@link TierMigrator} must be scheduled to
+     * move them between tiers according to their accesses. Entities claimed by an {@link IsolationSession} are never moved.
+     *
+     * @param store
+     *         The registered {@link FileStore} to tier.
+     * @param coldRoot
+     *         The root {@link Path} of the cold tier. The content of the store will be located in a directory named after it.
+     * @param maxHotEntities
+     *         The amount of entities the hot tier can hold before demoting the least recently accessed ones.
+     *
+     * @return The {@link TierMigrator} of the store.
+     */
+    public TierMigrator registerTier(FileStore store, Path coldRoot, int maxHotEntities) {
+
+        if (!this.hasStore(store)) {
+            throw new StoreRegistrationException(String.format("Store '%s' is not registered in this library", store.name()));
+        }
+
+        if (!store.type().isScoped() || store.packed() || this.stores.get(store) == StorePolicy.GENERATIONAL) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' store cannot be tiered as it is not a scoped store.",
+                    store.name()
+            ));
+        }
+
+        if (this.layout.walkers().size() > 1) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' store cannot be tiered as the library spans several roots.",
+                    store.name()
+            ));
+        }
+
+        return this.tiers.register(store, coldRoot, maxHotEntities, new TierMigrator.Reservations() {
+
+            @Override
+            public boolean reserve(String name) {
+
+                return Sanctum.this.reserve(new EntityKey(store, name));
+            }
+
+            @Override
+            public void release(String name) {
+
+                Sanctum.this.release(new EntityKey(store, name));
+            }
+        });
+    }
+
+    /**
+     * Reserve an entity so that no {@link AccessScope} targeting it can be granted until it is released.
+     *
+     * @param key
+     *         The {@link EntityKey} to reserve.
+     *
+     * @return True if the entity has been reserved, false if it is already claimed or reserved.
+     */
+    private boolean reserve(EntityKey key) {
+
+        synchronized (this.claimLock) {
+            for (IsolationSessionDescriptor storage : this.isolatedStorages.values()) {
+                for (AccessScope scope : storage.scopes()) {
+                    if (key.matches(scope)) return false;
+                }
+            }
+            return this.reserved.add(key);
+        }
+    }
+
+    /**
+     * Release an entity reserved with {@link #reserve(EntityKey)}.
+     *
+     * @param key
+     *         The {@link EntityKey} to release.
+     */
+    private void release(EntityKey key) {
+
+        synchronized (this.claimLock) {
+            this.reserved.remove(key);
+        }
+    }
+
+    /**
+     * Retrieve the {@link PackStore} holding the content of the provided {@link FileStore}.
+     *
+     * @param store
+     *         A packed {@link FileStore}.
+     *
+     * @return A {@link PackStore}.
+     */
+    public PackStore getPack(FileStore store) {
+
+        return this.packs.get(store);
+    }
+
     @Override
     public boolean hasStore(FileStore store) {
 
@@ -167,26 +518,83 @@ public class Sanctum implements Library {
     @Override
     public IsolationSession createIsolation(Set<AccessScope> scopes) {
 
-        this.checkScopes(scopes);
+        long start = System.nanoTime();
+        try {
+            return this.openIsolation(scopes);
+        } finally {
+            this.metrics.record(LibraryOperation.CREATE_ISOLATION, null, null, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Create a new {@link IsolationSession} claiming the provided {@link AccessScope}.
+     *
+     * @param scopes
+     *         The {@link AccessScope} to claim.
+     *
+     * @return An {@link IsolationSession}.
+     */
+    private IsolationSession openIsolation(Set<AccessScope> scopes) {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot create an isolation context on a read-only library.");
+        }
 
         UUID                       uuid          = this.randomUUID();
-        Path                       isolationRoot = this.walker.walk(STORE_ISOLATION.name()).directory(uuid.toString());
+        Path                       isolationRoot = this.layout.walkers().getFirst().walk(STORE_ISOLATION.name()).directory(uuid.toString());
         IsolationSession           context       = new IsolationSessionImpl(this, isolationRoot, uuid);
-        IsolationSessionDescriptor storage       = new IsolationSessionDescriptorImpl(uuid, context);
+        Supplier<Path>             temporary     = () -> this.getResolver(context, STORE_TEMPORARY).directory();
+        TemporaryAllocator         allocator     = new TemporaryAllocator(temporary, this.memory, uuid);
+        IsolationSessionDescriptor storage       = new IsolationSessionDescriptorImpl(uuid, context, allocator);
 
-        scopes.forEach(storage::grantScope);
+        ScopeGrantEvent grant = ScopeGrantEvent.start(uuid, scopes.size());
+        try {
+            synchronized (this.claimLock) {
+                grant.acquired();
+                this.checkScopes(scopes);
+                scopes.forEach(storage::grantScope);
+                this.isolatedStorages.put(uuid, storage);
+            }
+            grant.granted();
+        } finally {
+            grant.finish();
+        }
 
-        if (!Files.exists(isolationRoot)) {
-            SanctumUtils.Action.wrap(() -> Files.createDirectories(isolationRoot), StorageException::new);
+        try {
+            if (!Files.exists(isolationRoot)) {
+                SanctumUtils.Action.wrap(() -> Files.createDirectories(isolationRoot), StorageException::new);
+            }
+        } catch (RuntimeException e) {
+            this.isolatedStorages.remove(uuid);
+            throw e;
         }
 
-        this.isolatedStorages.put(uuid, storage);
         return context;
     }
 
     @Override
     public StorageResolver getResolver(IsolationSession context, FileStore store) {
 
+        long start = System.nanoTime();
+        try {
+            return this.createIsolatedResolver(context, store);
+        } finally {
+            this.metrics.record(LibraryOperation.GET_RESOLVER, store, null, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Create the {@link StorageResolver} of the provided {@link FileStore} within the provided {@link IsolationSession}.
+     *
+     * @param context
+     *         The {@link IsolationSession} defining the isolation context.
+     * @param store
+     *         The {@link FileStore} to resolve.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    private StorageResolver createIsolatedResolver(IsolationSession context, FileStore store) {
+
         if (!this.hasStore(store)) {
             throw new StorageException(String.format(
                     "Store '%s' is not registered in this library",
@@ -210,46 +618,90 @@ public class Sanctum implements Library {
                 new StoreResolverPolicy(store)
         );
 
-        Path root = this.walker
-                .walk(STORE_ISOLATION.name())
-                .walk(storage.uuid().toString())
-                .directory(store.name());
-
-        return new StandardResolver(root, store, resolverPolicy);
+        return this.layout.createResolver(
+                store,
+                walker -> walker.walk(STORE_ISOLATION.name()).walk(storage.uuid().toString()).directory(store.name()),
+                resolverPolicy,
+                StorageCodec.identity()
+        );
     }
 
     @Override
     public void requestScope(IsolationSession context, Set<AccessScope> scopes) {
 
         IsolationSessionDescriptor storage = this.getIsolatedStorage(context.uuid(), false);
-        this.checkScopes(scopes);
-        scopes.forEach(storage::grantScope);
+        ScopeGrantEvent            grant   = ScopeGrantEvent.start(storage.uuid(), scopes.size());
+
+        try {
+            synchronized (this.claimLock) {
+                grant.acquired();
+                this.checkScopes(scopes);
+                scopes.forEach(storage::grantScope);
+            }
+            grant.granted();
+        } finally {
+            grant.finish();
+        }
     }
 
     @Override
     public void commit(IsolationSession context) {
 
         IsolationSessionDescriptor storage = this.getIsolatedStorage(context.uuid(), false);
+        CommitFeed                 feed    = this.feed;
+        List<CommittedScope>       changes = new ArrayList<>();
+        long                       start   = System.nanoTime();
 
-        for (AccessScope scope : storage.scopes()) {
+        // Commits are only excluded while a read view is pinning content, so that it never sees a partial commit.
+        this.commitLock.readLock().lock();
+        try {
             try {
-                this.commitScope(storage, scope);
-            } catch (IOException e) {
-                throw new ContextCommitException(String.format("Failed to commit scope '%s'.", scope), e);
+                for (AccessScope scope : storage.scopes()) {
+                    StorePolicy  policy     = this.stores.get(scope.store());
+                    String       name       = scope.claim().getScopedName();
+                    boolean      published  = feed != null && policy.willModifyFilesystem() && scope.store().type().isScoped();
+                    TransferSize before     = TransferSize.NONE;
+                    long         scopeStart = System.nanoTime();
+                    try {
+                        if (published) before = this.context.measure(scope);
+                        this.commitScope(storage, scope);
+                    } catch (IOException e) {
+                        throw new ContextCommitException(String.format("Failed to commit scope '%s'.", scope), e);
+                    } finally {
+                        this.metrics.record(LibraryOperation.COMMIT_SCOPE, scope.store(), policy, System.nanoTime() - scopeStart);
+                    }
+
+                    if (published) {
+                        TransferSize after = this.usage.ledger().entity(scope.store().name(), name);
+                        changes.add(new CommittedScope(scope.store().name(), name, policy, after, after.minus(before)));
+                    }
+                }
+
+                // Every scope has been applied: nothing past this point can undo the commit.
+                storage.setCommitted(true);
+            } finally {
+                // Scopes applied before a failing one are not rolled back, so they are published even if the commit fails. The
+                // feed logs and counts its own failures instead of failing the commit.
+                if (feed != null && !changes.isEmpty()) feed.publish(storage.uuid(), changes);
             }
+        } finally {
+            this.commitLock.readLock().unlock();
+            this.metrics.record(LibraryOperation.COMMIT, null, null, System.nanoTime() - start);
         }
-
-        storage.setCommitted(true);
     }
 
     /**
      * Commits the contents of the given {@link IsolationSessionDescriptor} under the {@link AccessScope} to the library, applying
-     * the corresponding {@link FileStore} policies defined in this {@link Sanctum}.
+     * the corresponding {@link FileStore} policies defined in this {@link Sanctum}. Once applied, the scope is recorded for
+     * replication.
      *
      * @param storage
      *         The {@link IsolationSessionDescriptor} to commit.
      * @param scope
      *         The {@link AccessScope} to commit.
+     *
+     * @throws IOException
+     *         If the scope could not be committed, once the previous content of its entity has been restored.
      */
     private void commitScope(IsolationSessionDescriptor storage, AccessScope scope) throws IOException {
 
@@ -259,88 +711,581 @@ public class Sanctum implements Library {
         if (policy == StorePolicy.DISCARD) return;
         if (!store.type().isScoped()) return;
 
-        StorageWalker storeWalker = this.walker.walk(store.name());
+        this.getCommitter(store, policy).commit(storage, scope, policy);
+        // Journaled as soon as it is applied, so that it is replicated even if a later scope of the commit fails.
+        this.replication.enqueue(scope);
+    }
+
+    /**
+     * Retrieve the {@link ScopeCommitter} committing the entities of the provided {@link FileStore}.
+     *
+     * @param store
+     *         The scoped {@link FileStore} to commit.
+     * @param policy
+     *         The {@link StorePolicy} of the {@link FileStore}.
+     *
+     * @return A {@link ScopeCommitter}.
+     */
+    private ScopeCommitter getCommitter(FileStore store, StorePolicy policy) {
+
+        if (store.packed()) return this.packed;
+        if (policy == StorePolicy.GENERATIONAL) return this.generational;
+        return this.inPlace;
+    }
+
+    /**
+     * Start recording committed entities into a durable journal, and create the {@link Replicator} copying them to the provided
+     * mirror roots. The {@link Replicator} must be scheduled to process the journal, and only one can be created for a library.
+     * Entities of packed stores are not replicated.
+     *
+     * @param mirrors
+     *         The mirror roots. The content of each library root is copied into every mirror root.
+     * @param batchSize
+     *         The maximum amount of entities copied by each run of the {@link Replicator}.
+     *
+     * @return A {@link Replicator}.
+     */
+    public synchronized Replicator enableReplication(List<Path> mirrors, int batchSize) {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot replicate a read-only library.");
+        }
+
+        if (this.replication.isEnabled()) {
+            throw new StorageException("The replication is already enabled for this library.");
+        }
+
+        this.registerInternalStore(STORE_MIRRORING);
+        return this.replication.enable(STORE_MIRRORING, mirrors, batchSize);
+    }
+
+    /**
+     * Publish an event for each commit of this library through the returned {@link CommitFeed}, recording every event in a
+     * {@link CommitLog}. See {@link #enableCommitFeed(Executor, int, boolean)}.
+     *
+     * @param executor
+     *         The {@link Executor} delivering the events to the subscribers.
+     * @param bufferCapacity
+     *         The maximum amount of events buffered for each subscriber before events are dropped for it.
+     *
+     * @return A {@link CommitFeed}.
+     */
+    public CommitFeed enableCommitFeed(Executor executor, int bufferCapacity) {
+
+        return this.enableCommitFeed(executor, bufferCapacity, true);
+    }
+
+    /**
+     * Publish an event for each commit of this library through the returned {@link CommitFeed}. The size of each changed entity
+     * is taken from the {@link UsageLedger}, and entities it does not know yet are measured before being committed, so that the
+     * delta is accurate. Entities of packed stores are reported without any size. The scopes applied by a commit that failed on
+     * a later scope are published as well.
+     * <p>
+     * Commits never wait for subscribers, so events are dropped for a subscriber whose buffer is full. A durable feed records
+     * every event in a {@link CommitLog} first, from which subscribers can read back the events they missed, or resume after a
+     * restart. Without it, a dropped event is lost, but commits are spared a write to the disk.
+     *
+     * @param executor
+     *         The {@link Executor} delivering the events to the subscribers.
+     * @param bufferCapacity
+     *         The maximum amount of events buffered for each subscriber before events are dropped for it.
+     * @param durable
+     *         True to record every event in a {@link CommitLog}.
+     *
+     * @return A {@link CommitFeed}.
+     */
+    public synchronized CommitFeed enableCommitFeed(Executor executor, int bufferCapacity, boolean durable) {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot publish the commits of a read-only library.");
+        }
+
+        if (this.feed != null) {
+            throw new StorageException("The commit feed is already enabled for this library.");
+        }
+
+        CommitLog log = null;
+
+        if (durable) {
+            this.registerInternalStore(STORE_FEED);
+            try {
+                log = CommitLog.open(this.layout.walkers().getFirst().directory(STORE_FEED.name()));
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
+
+        this.feed = new CommitFeed(executor, bufferCapacity, log);
+        return this.feed;
+    }
+
+    /**
+     * Send the measurements of this library to the provided {@link LibraryMetrics}, replacing the previous one. The amount of live
+     * isolation sessions and of claimed scopes are registered as the {@code sessions} and {@code scopes} gauges.
+     *
+     * @param metrics
+     *         The {@link LibraryMetrics} receiving the measurements.
+     */
+    public synchronized void enableMetrics(LibraryMetrics metrics) {
+
+        metrics.gauge("sessions", this.isolatedStorages::size);
+        metrics.gauge("scopes", () -> this.isolatedStorages.values().stream().mapToLong(storage -> storage.scopes().size()).sum());
+        this.metrics = metrics;
+    }
+
+    /**
+     * Place the temporary files of the isolation sessions created from now on in a memory-backed directory, such as a tmpfs mount,
+     * so that small scratch files never reach the disk. Files spill to the {@link #STORE_TEMPORARY} store when their size is not
+     * known upfront or when they would exceed one of the budgets. Files are charged their size hint, and the actual size of those
+     * which grew past it is measured on the next allocation of their session: the budgets can therefore be exceeded until then,
+     * but no file is placed in memory while they are.
+     *
+     * @param root
+     *         The directory, on a memory filesystem, holding the temporary files.
+     * @param budget
+     *         The maximum amount of bytes held in memory across every isolation session.
+     * @param sessionBudget
+     *         The maximum amount of bytes held in memory by a single isolation session.
+     *
+     * @return The {@link MemoryArea}, allowing to monitor its usage.
+     */
+    public synchronized MemoryArea enableMemoryTemporary(Path root, long budget, long sessionBudget) {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot create temporary files on a read-only library.");
+        }
+
+        if (this.memory != null) {
+            throw new StorageException("The memory temporary area is already enabled for this library.");
+        }
+
+        this.memory = new MemoryArea(root, budget, sessionBudget);
+        return this.memory;
+    }
 
-        Path localPath = this.resolve(scope);
-        //noinspection resource
-        Path isolationPath = storage.context().resolve(scope);
+    /**
+     * Retrieve the {@link GenerationStore} publishing the entities of stores registered with {@link StorePolicy#GENERATIONAL}. A
+     * {@link GenerationReaper} must be scheduled on it to delete replaced generations.
+     *
+     * @return A {@link GenerationStore}.
+     */
+    public GenerationStore getGenerations() {
 
-        String safeName = "." + localPath.getFileName().toString();
+        return this.generations;
+    }
+
+    /**
+     * Acquire a lease on the current generation of the entity targeted by the provided {@link AccessScope}. The returned
+     * {@link Generation} content will not change nor be deleted until it is closed, even if newer generations are committed.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting an entity of a {@link StorePolicy#GENERATIONAL} store.
+     *
+     * @return A {@link Generation}.
+     */
+    public Generation acquireGeneration(AccessScope scope) {
 
-        Path safeLocalPath = scope.store().type() == StoreType.FILE_SCOPED ?
-                storeWalker.file(safeName) :
-                storeWalker.directory(safeName);
+        if (this.stores.get(scope.store()) != StorePolicy.GENERATIONAL) {
+            throw new StorageException(String.format(
+                    "Store '%s' is not registered under the generational policy",
+                    scope.store().name()
+            ));
+        }
 
-        boolean hasBackup = false;
+        return this.generations.acquire(this.resolve(scope));
+    }
 
-        SanctumUtils.delete(safeLocalPath);
+    private VersionHistory requireHistory(AccessScope scope) {
 
-        if (Files.exists(localPath)) {
-            SanctumUtils.copy(localPath, safeLocalPath);
-            hasBackup = true;
+        if (!this.hasStore(scope.store())) {
+            throw new StorageException(String.format(
+                    "Store '%s' is not registered in this library",
+                    scope.store().name()
+            ));
         }
 
+        return this.versions.require(scope);
+    }
+
+    /**
+     * Retrieve the number of every previous version kept for the entity targeted by the provided {@link AccessScope}, from the
+     * oldest to the newest.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting a versioned store entity.
+     *
+     * @return A {@link List} of version numbers.
+     */
+    public List<Long> getVersions(AccessScope scope) {
+
         try {
-            if (store.type() == StoreType.DIRECTORY_SCOPED && policy == StorePolicy.FULL_SWAP) {
-                SanctumUtils.delete(localPath);
-                SanctumUtils.copy(isolationPath, localPath, StandardCopyOption.COPY_ATTRIBUTES);
-            } else if (store.type() == StoreType.DIRECTORY_SCOPED && policy == StorePolicy.OVERWRITE) {
-                SanctumUtils.copy(
-                        isolationPath,
-                        localPath,
-                        StandardCopyOption.COPY_ATTRIBUTES,
-                        StandardCopyOption.REPLACE_EXISTING
-                );
-            } else if (store.type() == StoreType.FILE_SCOPED) {
-                if (policy == StorePolicy.FULL_SWAP) {
-                    SanctumUtils.delete(localPath);
-                }
-                if (Files.isRegularFile(isolationPath)) {
-                    SanctumUtils.copy(
-                            isolationPath,
-                            localPath,
-                            StandardCopyOption.COPY_ATTRIBUTES,
-                            StandardCopyOption.REPLACE_EXISTING
-                    );
-                }
+            return this.requireHistory(scope).versions();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    /**
+     * Resolve the content of a previous version of the entity targeted by the provided {@link AccessScope}. The returned
+     * {@link Path} must only be read.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting a versioned store entity.
+     * @param version
+     *         The version number.
+     *
+     * @return The {@link Path} of the version content.
+     */
+    public Path resolveVersion(AccessScope scope, long version) {
+
+        Path path = this.requireHistory(scope).resolve(version);
+
+        if (!Files.exists(path)) {
+            throw new StorageException(String.format("Version %s of %s does not exist", version, scope));
+        }
+
+        return path;
+    }
+
+    /**
+     * Restore a previous version of the entity targeted by the provided {@link AccessScope}. The currently committed content is
+     * kept as a new version, so that a restoration can be undone too. The {@link AccessScope} must not be claimed by any
+     * {@link IsolationSession}.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting a versioned store entity.
+     * @param version
+     *         The version number to restore.
+     */
+    public void restoreVersion(AccessScope scope, long version) {
+
+        Path      source = this.resolveVersion(scope, version);
+        EntityKey key    = new EntityKey(scope.store(), scope.claim().getScopedName());
+
+        if (!this.reserve(key)) {
+            throw new ScopeGrantException(String.format("Cannot restore %s: The scope is currently claimed.", scope));
+        }
+
+        Path live    = null;
+        Path staging = null;
+
+        this.commitLock.readLock().lock();
+        try {
+            TierMigrator tier = this.tiers.get(scope.store());
+            if (tier != null) tier.relocate(key.name(), true);
+
+            VersionHistory history = this.requireHistory(scope);
+
+            live    = this.resolve(scope);
+            staging = live.resolveSibling(String.format(".%s.restoring", live.getFileName()));
+
+            SanctumUtils.delete(staging);
+            SanctumUtils.link(source, staging);
+            this.context.preserve(scope);
+
+            if (Files.exists(live)) {
+                history.snapshot(live);
+                SanctumUtils.delete(live);
             }
-        } catch (Exception e) {
-            // Avoid partial commit
-            SanctumUtils.delete(localPath);
-            if (hasBackup) Files.move(safeLocalPath, localPath);
+
+            SanctumUtils.move(staging, live);
+            this.context.account(scope, live, SanctumUtils.size(live));
+            history.prune(scope.store().retention());
+            this.replication.enqueue(scope);
+        } catch (IOException e) {
+            throw new StorageException(e);
         } finally {
-            if (hasBackup) SanctumUtils.delete(safeLocalPath);
+            try {
+                if (staging != null) SanctumUtils.delete(staging);
+            } catch (IOException e) {
+                // The staging copy is hidden and will be replaced by the next restoration.
+            }
+            if (live != null) this.layout.cache().invalidate(live);
+            this.commitLock.readLock().unlock();
+            this.release(key);
+        }
+    }
+
+    @Override
+    public ReadView openView(Set<FileStore> stores) {
+
+        for (FileStore store : stores) {
+            if (!this.hasStore(store)) {
+                throw new StorageException(String.format("Store '%s' is not registered in this library", store.name()));
+            }
+
+            if (store.packed() || this.tiers.get(store) != null || this.stores.get(store) == StorePolicy.GENERATIONAL) {
+                throw new StorageException(String.format(
+                        "Store '%s' cannot be pinned as its content is not only made of committed files.",
+                        store.name()
+                ));
+            }
+        }
+
+        UUID uuid = this.randomUUID();
+
+        // A read-only library never changes, its content does not need to be pinned.
+        if (this.layout.isReadOnly()) {
+            Map<FileStore, StorageResolver> resolvers = new HashMap<>();
+            stores.forEach(store -> resolvers.put(store, this.getResolver(store)));
+            return new ReadViewImpl(uuid, Map.copyOf(resolvers), view -> {});
+        }
+
+        this.registerInternalStore(STORE_SNAPSHOTS);
+        return this.views.open(uuid, stores);
+    }
+
+    /**
+     * Retrieve the {@link UsageLedger} holding the disk usage of the entities of this library. The ledger is updated by every
+     * commit, but only knows about entities committed since this library was created unless it has been loaded with
+     * {@link #enableUsagePersistence()} or rebuilt with {@link #rebuildUsage()}. Packed stores are not accounted.
+     *
+     * @return A {@link UsageLedger}.
+     */
+    public UsageLedger getUsage() {
+
+        return this.usage.ledger();
+    }
+
+    /**
+     * Retrieve the disk usage of the provided {@link FileStore}.
+     *
+     * @param store
+     *         The {@link FileStore} to measure.
+     *
+     * @return The {@link TransferSize} of every entity of the store.
+     */
+    public TransferSize getUsage(FileStore store) {
+
+        return this.usage.ledger().store(store.name());
+    }
+
+    /**
+     * Retrieve the disk usage of the entity targeted by the provided {@link AccessScope}.
+     *
+     * @param scope
+     *         The {@link AccessScope} targeting the entity.
+     *
+     * @return The {@link TransferSize} of the entity content.
+     */
+    public TransferSize getUsage(AccessScope scope) {
+
+        return this.usage.ledger().entity(scope.store().name(), scope.claim().getScopedName());
+    }
+
+    /**
+     * Rebuild the {@link UsageLedger} by scanning every scoped store of this library, measuring entities in parallel. Commits are
+     * not blocked while scanning, and entities committed meanwhile keep the usage recorded by their commit.
+     */
+    public void rebuildUsage() {
+
+        this.usage.rebuild(this.stores);
+    }
+
+    /**
+     * Keep an {@link EntityIndex} of the committed entities of the provided {@link FileStore}, allowing to enumerate them in
+     * name order without listing the store directories. The index is updated by every commit of the store, and is built by
+     * scanning the store the first time it is enabled.
+     * <p>
+     * Indexing is a property of the library rather than of this instance: once enabled, the index is reopened by
+     * {@link #registerStore(FileStore, StorePolicy)} so that every later commit of the store maintains it, whether or not this
+     * method is called again. An index that was not closed properly is rebuilt by scanning the store before being read.
+     *
+     * @param store
+     *         The registered {@link FileStore} to index.
+     *
+     * @return The {@link EntityIndex} of the store.
+     */
+    public synchronized EntityIndex enableIndex(FileStore store) {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot index the stores of a read-only library.");
+        }
+
+        if (!this.hasStore(store)) {
+            throw new StoreRegistrationException(String.format("Store '%s' is not registered in this library", store.name()));
+        }
+
+        if (!LibraryIndexes.isIndexable(store)) {
+            throw new StoreRegistrationException(String.format(
+                    "The '%s' store cannot be indexed as it is not a scoped store.",
+                    store.name()
+            ));
+        }
+
+        if (this.indexes.contains(store)) return this.getIndex(store);
+
+        this.registerInternalStore(STORE_INDEX);
+        return this.indexes.enable(store);
+    }
+
+    /**
+     * Retrieve the {@link EntityIndex} of the provided {@link FileStore}. A stale index is rebuilt by scanning the store first.
+     *
+     * @param store
+     *         A {@link FileStore} indexed with {@link #enableIndex(FileStore)}.
+     *
+     * @return An {@link EntityIndex}.
+     */
+    public EntityIndex getIndex(FileStore store) {
+
+        return this.indexes.get(store);
+    }
+
+    /**
+     * Load the {@link UsageLedger} from the snapshot saved by a previous run, or rebuild it when there is none, and create the
+     * {@link UsageCheckpointer} saving it. The {@link UsageCheckpointer} must be scheduled to keep the snapshot up to date.
+     *
+     * @return A {@link UsageCheckpointer}.
+     */
+    public synchronized UsageCheckpointer enableUsagePersistence() {
+
+        if (this.layout.isReadOnly()) {
+            throw new StorageException("Cannot persist the usage of a read-only library.");
         }
+
+        this.registerInternalStore(STORE_USAGE);
+
+        Path snapshot = this.layout.walkers().getFirst().walk(STORE_USAGE.name()).file("ledger");
+        return this.usage.persist(snapshot, this.stores);
+    }
+
+    /**
+     * Delete every deduplicated file body that is not used by any {@link FileStore} anymore.
+     *
+     * @return The amount of bytes freed.
+     *
+     * @throws IOException
+     *         If a file body could not be deleted.
+     */
+    public long collectBlobs() throws IOException {
+
+        return this.blobs.collect();
     }
 
     @Override
     public void discard(IsolationSession context) {
 
         IsolationSessionDescriptor storage = this.getIsolatedStorage(context.uuid(), true);
+        DiscardEvent               event   = DiscardEvent.start();
+        long                       start   = System.nanoTime();
+        TransferSize               deleted = TransferSize.NONE;
+        IOException                failure = null;
         this.isolatedStorages.remove(storage.uuid());
 
-        Path isolationRoot = this.walker.walk(STORE_ISOLATION.name()).directory(storage.uuid().toString());
-
+        // The descriptor is already dropped, so every step is attempted even if a previous one failed: nothing would clean up
+        // what is left behind.
         try {
-            // Remove recursively the isolated context. At that point even if it fails, we already dropped
-            // the scopes claims, making the isolation context unusable so it does not matter anymore.
-            SanctumUtils.delete(isolationRoot);
+            storage.temporaryAllocator().close();
         } catch (IOException e) {
-            throw new ContextDiscardException(String.format("Failed to discard store '%s'.", isolationRoot), e);
+            failure = e;
+        }
+
+        for (StorageWalker walker : this.layout.walkers()) {
+            Path isolationRoot = walker.walk(STORE_ISOLATION.name()).directory(storage.uuid().toString());
+
+            try {
+                // Remove recursively the isolated context. At that point even if it fails, we already dropped
+                // the scopes claims, making the isolation context unusable so it does not matter anymore.
+                deleted = deleted.plus(SanctumUtils.delete(isolationRoot));
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            } finally {
+                this.layout.cache().invalidate(isolationRoot);
+            }
+        }
+
+        this.metrics.deleted(deleted);
+        this.metrics.record(LibraryOperation.DISCARD, null, null, System.nanoTime() - start);
+        event.finish(storage.uuid(), deleted);
+
+        if (failure != null) {
+            throw new ContextDiscardException(String.format("Failed to discard the isolation '%s'.", storage.uuid()), failure);
         }
     }
 
     @Override
     public void close() throws Exception {
 
+        List<AutoCloseable> closeables = new ArrayList<>();
+
+        for (IsolationSessionDescriptor storage : this.isolatedStorages.values()) {
+            closeables.add(storage.temporaryAllocator()::close);
+        }
+
+        closeables.add(this.copier);
+        closeables.add(this.replication);
+        if (this.feed != null) closeables.add(this.feed);
+        closeables.add(this.packs);
+        closeables.add(this.indexes);
+        closeables.add(this.views);
+
+        if (!this.layout.isReadOnly()) {
+            for (StorageWalker walker : this.layout.walkers()) {
+                closeables.add(() -> SanctumUtils.delete(walker.directory(STORE_ISOLATION.name())));
+            }
+        }
+
+        Exception failure = null;
+
+        // A failure must not leave the following resources open: every one of them is closed before the failures are reported.
+        for (AutoCloseable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
         this.isolatedStorages.clear();
-        Path isolationRoot = this.walker.directory(STORE_ISOLATION.name());
-        SanctumUtils.delete(isolationRoot);
+        this.layout.cache().invalidateAll();
+
+        if (failure != null) throw failure;
     }
 
     @Override
     public StorageResolver getResolver(FileStore store) {
 
+        long start = System.nanoTime();
+        try {
+            return this.createStoreResolver(store);
+        } finally {
+            this.metrics.record(LibraryOperation.GET_RESOLVER, store, null, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For a {@link StorePolicy#GENERATIONAL} store, the returned {@link Path} is the link to the current generation, which is
+     * followed again on each access: a reader may see a newer generation between two accesses, and the generation it is reading
+     * can be reaped once replaced. Only {@link #acquireGeneration(AccessScope)} keeps a generation readable.
+     */
+    @Override
+    public Path resolve(AccessScope scope) {
+
+        ResolveEvent event = ResolveEvent.start();
+        long         start = System.nanoTime();
+        try {
+            return Library.super.resolve(scope);
+        } finally {
+            this.metrics.record(LibraryOperation.RESOLVE, scope.store(), null, System.nanoTime() - start);
+            event.finish(scope);
+        }
+    }
+
+    /**
+     * Create the {@link StorageResolver} of the provided {@link FileStore} within this library.
+     *
+     * @param store
+     *         The {@link FileStore} to resolve.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    private StorageResolver createStoreResolver(FileStore store) {
+
         if (!this.hasStore(store)) {
             throw new StorageException(String.format(
                     "Store '%s' is not registered in this library",
@@ -348,10 +1293,32 @@ public class Sanctum implements Library {
             ));
         }
 
-        ResolverPolicy resolverPolicy = new StoreResolverPolicy(store);
+        ResolverPolicy  resolverPolicy = new StoreResolverPolicy(store);
+        StorageResolver resolver       = this.layout.createResolver(
+                store,
+                walker -> walker.directory(store.name()),
+                resolverPolicy,
+                store.codec()
+        );
+
+        return this.indexes.wrap(store, this.tiers.wrap(store, resolver, resolverPolicy));
+    }
+
+    /**
+     * Identify an entity of a {@link FileStore} independently of its {@link ScopedEntity} implementation.
+     *
+     * @param store
+     *         The {@link FileStore} of the entity.
+     * @param name
+     *         The scoped name of the entity.
+     */
+    private record EntityKey(FileStore store, String name) {
+
+        boolean matches(AccessScope scope) {
+
+            return this.store.equals(scope.store()) && this.name.equals(scope.claim().getScopedName());
+        }
 
-        Path root = this.walker.directory(store.name());
-        return new StandardResolver(root, store, resolverPolicy);
     }
 
 }
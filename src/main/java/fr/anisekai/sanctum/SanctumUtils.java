@@ -1,10 +1,18 @@
 package fr.anisekai.sanctum;
 
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.metrics.TransferSize;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.List;
+import java.util.Locale;
 import java.util.function.Function;
 
 /**
@@ -53,21 +61,26 @@ public final class SanctumUtils {
      * @param path
      *         The {@link Path} of the directory or file to delete.
      *
+     * @return The {@link TransferSize} of the deleted files.
+     *
      * @throws IOException
      *         If any deletion fails
      */
-    public static void delete(Path path) throws IOException {
+    public static TransferSize delete(Path path) throws IOException {
 
         if (!Files.exists(path)) {
-            return;
+            return TransferSize.NONE;
         }
 
         if (Files.isRegularFile(path)) {
+            long size = Files.size(path);
             Files.delete(path);
-            return;
+            return new TransferSize(1, size);
         }
 
         if (Files.isDirectory(path)) {
+            long[] totals = new long[2];
+
             Files.walkFileTree(
                     path,
                     new SimpleFileVisitor<>() {
@@ -76,6 +89,8 @@ public final class SanctumUtils {
                         public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
 
                             Files.delete(file);
+                            totals[0]++;
+                            totals[1] += attrs.size();
                             return FileVisitResult.CONTINUE;
                         }
 
@@ -87,15 +102,80 @@ public final class SanctumUtils {
                         }
                     }
             );
-            return;
+            return new TransferSize(totals[0], totals[1]);
         }
 
         throw new UnsupportedOperationException("Unable to delete path: " + path);
     }
 
     /**
-     * Copy recursively a {@link Path} to another {@link Path}.
+     * Measure recursively the content of a {@link Path}. A symbolic link given as the {@link Path} is followed, links found while
+     * walking are not.
+     *
+     * @param path
+     *         The {@link Path} of the directory or file to measure.
+     *
+     * @return The {@link TransferSize} of the files, {@link TransferSize#NONE} if the {@link Path} does not exist.
+     *
+     * @throws IOException
+     *         If the content could not be read.
+     */
+    public static TransferSize size(Path path) throws IOException {
+
+        if (!Files.exists(path)) {
+            return TransferSize.NONE;
+        }
+
+        if (Files.isRegularFile(path)) {
+            return new TransferSize(1, Files.size(path));
+        }
+
+        long[] totals = new long[2];
+
+        Files.walkFileTree(
+                path.toRealPath(),
+                new SimpleFileVisitor<>() {
+
+                    @Override
+                    public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) {
+
+                        if (attrs.isRegularFile()) {
+                            totals[0]++;
+                            totals[1] += attrs.size();
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+        );
+        return new TransferSize(totals[0], totals[1]);
+    }
+
+    /**
+     * Copy recursively a {@link Path} to another {@link Path}, one transfer at a time.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     * @param options
+     *         An array of {@link CopyOption} to use while copying data.
+     *
+     * @return The {@link TransferSize} of the copied files.
+     *
+     * @throws IOException
+     *         If the copy fails.
+     */
+    public static TransferSize copy(Path source, Path destination, CopyOption... options) throws IOException {
+
+        return copy(null, source, destination, options);
+    }
+
+    /**
+     * Copy recursively a {@link Path} to another {@link Path}. Large files are copied with parallel ranged transfers when a
+     * {@link ParallelCopy} is provided.
      *
+     * @param parallel
+     *         The {@link ParallelCopy} copying large files, or {@code null} to copy every file with a single transfer.
      * @param source
      *         The source {@link Path}
      * @param destination
@@ -103,12 +183,16 @@ public final class SanctumUtils {
      * @param options
      *         An array of {@link CopyOption} to use while copying data.
      *
+     * @return The {@link TransferSize} of the copied files.
+     *
      * @throws IOException
      *         If the copy fails.
      */
-    public static void copy(Path source, Path destination, CopyOption... options) throws IOException {
+    public static TransferSize copy(@Nullable ParallelCopy parallel, Path source, Path destination, CopyOption... options) throws IOException {
 
         if (Files.isDirectory(source)) {
+            long[] totals = new long[2];
+
             Files.walkFileTree(
                     source,
                     new SimpleFileVisitor<>() {
@@ -123,20 +207,202 @@ public final class SanctumUtils {
                         @Override
                         public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
 
-                            Files.copy(file, destination.resolve(source.relativize(file).toString()), options);
+                            copyFile(parallel, file, destination.resolve(source.relativize(file).toString()), attrs.size(), options);
+                            totals[0]++;
+                            totals[1] += attrs.size();
                             return FileVisitResult.CONTINUE;
                         }
                     }
             );
-            return;
+            return new TransferSize(totals[0], totals[1]);
         }
 
         if (Files.isRegularFile(source)) {
+            long size = Files.size(source);
+            copyFile(parallel, source, destination, size, options);
+            return new TransferSize(1, size);
+        }
+
+        throw new UnsupportedOperationException("Unable to copy source file: " + source);
+    }
+
+    private static void copyFile(@Nullable ParallelCopy parallel, Path source, Path destination, long size, CopyOption... options) throws IOException {
+
+        if (parallel == null || !ParallelCopy.isEligible(source, destination, size)) {
             Files.copy(source, destination, options);
             return;
         }
 
-        throw new UnsupportedOperationException("Unable to copy source file: " + source);
+        List<CopyOption> flags = List.of(options);
+
+        if (Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+            if (!flags.contains(StandardCopyOption.REPLACE_EXISTING)) {
+                throw new FileAlreadyExistsException(destination.toString());
+            }
+            // Like Files.copy, replace the file instead of writing into it.
+            Files.delete(destination);
+        }
+
+        parallel.copy(source, destination, size);
+
+        if (flags.contains(StandardCopyOption.COPY_ATTRIBUTES)) {
+            copyAttributes(source, destination);
+        }
+    }
+
+    /**
+     * Copy the attributes of a file like {@link Files#copy(Path, Path, CopyOption...)} does with
+     * {@link StandardCopyOption#COPY_ATTRIBUTES}: the timestamps and, when the filesystem supports them, the POSIX permissions.
+     * The owner and group are only copied when allowed.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     *
+     * @throws IOException
+     *         If the attributes could not be copied.
+     */
+    private static void copyAttributes(Path source, Path destination) throws IOException {
+
+        if (source.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            PosixFileAttributes    attributes = Files.readAttributes(source, PosixFileAttributes.class);
+            PosixFileAttributeView  view       = Files.getFileAttributeView(destination, PosixFileAttributeView.class);
+
+            try {
+                view.setOwner(attributes.owner());
+                view.setGroup(attributes.group());
+            } catch (FileSystemException e) {
+                // Only privileged users can give their files away, like Files.copy the ownership is kept as is.
+            }
+            view.setPermissions(attributes.permissions());
+            view.setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.getFileAttributeView(destination, BasicFileAttributeView.class)
+             .setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+    }
+
+    /**
+     * Recursively hard-link a {@link Path} to another {@link Path}, so that both share the same file bodies on the disk. Files that
+     * cannot be linked (unsupported by the provider, or located on another device) are copied instead.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     *
+     * @throws IOException
+     *         If the link fails.
+     */
+    public static void link(Path source, Path destination) throws IOException {
+
+        if (Files.isDirectory(source)) {
+            Files.walkFileTree(
+                    source,
+                    new SimpleFileVisitor<>() {
+
+                        @Override
+                        public @NotNull FileVisitResult preVisitDirectory(@NotNull Path dir, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                            Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                            linkFile(file, destination.resolve(source.relativize(file).toString()));
+                            return FileVisitResult.CONTINUE;
+                        }
+                    }
+            );
+            return;
+        }
+
+        if (Files.isRegularFile(source)) {
+            linkFile(source, destination);
+            return;
+        }
+
+        throw new UnsupportedOperationException("Unable to link source file: " + source);
+    }
+
+    private static void linkFile(Path source, Path destination) throws IOException {
+
+        try {
+            Files.createLink(destination, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(source, destination, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * Move a {@link Path} to another {@link Path}, replacing the destination if it exists. When both {@link Path} are handled by
+     * the same {@link FileSystem}, an atomic rename is attempted first. If the rename is not possible (different providers,
+     * different devices, or unsupported by the provider), the source is copied recursively then deleted.
+     * <p>
+     * A directory destination is only replaced by an atomic rename when it is empty: callers replacing a directory must delete it
+     * first.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     *
+     * @throws IOException
+     *         If the move fails, including when the destination is a non-empty directory.
+     */
+    public static void move(Path source, Path destination) throws IOException {
+
+        if (isSameProvider(source, destination)) {
+            try {
+                Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } catch (AtomicMoveNotSupportedException | UnsupportedOperationException ignored) {
+                // Fallback to the non-atomic behavior below.
+            } catch (FileSystemException e) {
+                // Any other failure, such as a non-empty destination directory, would be hidden by deleting the destination.
+                if (!isCrossDevice(e)) throw e;
+            }
+        }
+
+        delete(destination);
+        copy(source, destination, StandardCopyOption.COPY_ATTRIBUTES);
+        delete(source);
+    }
+
+    /**
+     * Check if the given {@link FileSystemException} reports a rename crossing a device boundary ({@code EXDEV}), which providers
+     * do not always report as an {@link AtomicMoveNotSupportedException}.
+     *
+     * @param exception
+     *         The {@link FileSystemException} thrown by the rename.
+     *
+     * @return True if the rename failed because both {@link Path} are on different devices, false otherwise.
+     */
+    private static boolean isCrossDevice(FileSystemException exception) {
+
+        String reason = exception.getReason();
+        return reason != null && reason.toLowerCase(Locale.ROOT).contains("cross-device");
+    }
+
+    /**
+     * Check if both {@link Path} are handled by the same {@link FileSystem}, meaning that operations involving both of them can
+     * be delegated to the provider directly instead of streaming the content from one provider to the other.
+     *
+     * @param first
+     *         The first {@link Path}
+     * @param second
+     *         The second {@link Path}
+     *
+     * @return True if both {@link Path} share the same {@link FileSystem}, false otherwise.
+     */
+    public static boolean isSameProvider(Path first, Path second) {
+
+        return first.getFileSystem().equals(second.getFileSystem());
     }
 
 }
@@ -0,0 +1,35 @@
+package fr.anisekai.sanctum;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.events.CommitPhaseEvent;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.isolation.IsolationSessionDescriptor;
+
+import java.io.IOException;
+
+/**
+ * Strategy committing the content of an {@link AccessScope} to a {@link Sanctum} library, chosen from how its {@link FileStore}
+ * is laid out on the disk.
+ * <p>
+ * Every strategy follows the same contract: each phase of the commit is timed with a {@link CommitPhaseEvent}, and a failed commit
+ * leaves the previous content of the entity in place before the failure is rethrown, so that the library reports it to the caller
+ * of the commit.
+ */
+interface ScopeCommitter {
+
+    /**
+     * Commits the contents of the given {@link IsolationSessionDescriptor} under the {@link AccessScope} to the library.
+     *
+     * @param storage
+     *         The {@link IsolationSessionDescriptor} to commit.
+     * @param scope
+     *         The {@link AccessScope} to commit.
+     * @param policy
+     *         The {@link StorePolicy} of the {@link FileStore}, modifying the filesystem.
+     *
+     * @throws IOException
+     *         If the content could not be committed. The previous content of the entity has been restored.
+     */
+    void commit(IsolationSessionDescriptor storage, AccessScope scope, StorePolicy policy) throws IOException;
+
+}
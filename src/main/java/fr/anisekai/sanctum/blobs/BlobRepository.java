@@ -0,0 +1,234 @@
+package fr.anisekai.sanctum.blobs;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed area holding file bodies keyed by the SHA-256 hash of their content. Files materialized through this
+ * repository are hard links to their blob, meaning that identical content is only stored once on the disk. The filesystem link
+ * count is used as the reference count of each blob.
+ */
+public final class BlobRepository {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String LINK_COUNT     = "unix:nlink";
+
+    private final Path root;
+
+    /**
+     * Create a new {@link BlobRepository} instance.
+     *
+     * @param root
+     *         The {@link Path} of the directory into which blobs will be stored. It must be on the same device as every
+     *         {@link Path} being materialized for links to be possible.
+     */
+    public BlobRepository(Path root) {
+
+        this.root = root;
+    }
+
+    /**
+     * Compute the hash of the provided file content.
+     *
+     * @param file
+     *         The {@link Path} of the file to hash.
+     *
+     * @return The hexadecimal representation of the content hash.
+     *
+     * @throws IOException
+     *         If the file could not be read.
+     */
+    public static String hash(Path file) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageException(e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Retrieve the {@link Path} of the blob having the provided hash. The blob is not guaranteed to exist.
+     *
+     * @param hash
+     *         The hash of the blob.
+     *
+     * @return A {@link Path}.
+     */
+    public Path blob(String hash) {
+
+        return this.root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Store the content of the provided file in this {@link BlobRepository}. If a blob with the same content already exists, the
+     * file is not copied again.
+     *
+     * @param file
+     *         The {@link Path} of the file to store.
+     *
+     * @return The {@link Path} of the blob holding the file content.
+     *
+     * @throws IOException
+     *         If the file could not be stored.
+     */
+    public Path store(Path file) throws IOException {
+
+        Path blob = this.blob(hash(file));
+        if (Files.exists(blob)) return blob;
+
+        Files.createDirectories(blob.getParent());
+
+        // Copy next to the blob first, so concurrent commits of the same content never see a partial blob.
+        Path staging = Files.createTempFile(blob.getParent(), ".", ".blob");
+        try {
+            Files.copy(file, staging, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(staging, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another commit stored the same content in the meantime.
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        return blob;
+    }
+
+    /**
+     * Materialize the provided file or directory tree at the destination, where each file is a link to its blob. Existing files
+     * at the destination are replaced. When links are not supported by the filesystem, the blob content is copied instead.
+     *
+     * @param source
+     *         The {@link Path} of the file or directory to materialize.
+     * @param destination
+     *         The {@link Path} where the content should be materialized.
+     *
+     * @return The {@link TransferSize} of the materialized content.
+     *
+     * @throws IOException
+     *         If the materialization fails.
+     */
+    public TransferSize materialize(Path source, Path destination) throws IOException {
+
+        if (Files.isRegularFile(source)) {
+            long size = Files.size(source);
+            this.link(source, destination);
+            return new TransferSize(1, size);
+        }
+
+        if (!Files.isDirectory(source)) {
+            throw new UnsupportedOperationException("Unable to materialize source file: " + source);
+        }
+
+        long[] totals = new long[2];
+
+        Files.walkFileTree(
+                source,
+                new SimpleFileVisitor<>() {
+
+                    @Override
+                    public @NotNull FileVisitResult preVisitDirectory(@NotNull Path dir, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                        Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                        BlobRepository.this.link(file, destination.resolve(source.relativize(file).toString()));
+                        totals[0]++;
+                        totals[1] += attrs.size();
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+        );
+        return new TransferSize(totals[0], totals[1]);
+    }
+
+    private void link(Path file, Path destination) throws IOException {
+
+        Files.deleteIfExists(destination);
+
+        while (true) {
+            Path blob = this.store(file);
+
+            try {
+                Files.createLink(destination, blob);
+                return;
+            } catch (NoSuchFileException e) {
+                // The blob was unreferenced and has been collected since it was found: store it again.
+                if (Files.exists(blob)) throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                try {
+                    Files.copy(blob, destination, StandardCopyOption.REPLACE_EXISTING);
+                    return;
+                } catch (NoSuchFileException collected) {
+                    if (Files.exists(blob)) throw collected;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete every blob that is not referenced anymore, meaning that no file of the library is linked to it. Collecting does not
+     * need to exclude materializations: a blob collected between being found and being linked is stored again.
+     *
+     * @return The amount of bytes freed.
+     *
+     * @throws IOException
+     *         If a blob could not be deleted.
+     * @throws UnsupportedOperationException
+     *         If the filesystem does not expose the link count of files.
+     */
+    public long collect() throws IOException {
+
+        if (!Files.isDirectory(this.root)) return 0;
+
+        if (!this.root.getFileSystem().supportedFileAttributeViews().contains("unix")) {
+            throw new UnsupportedOperationException("The filesystem does not expose file link count.");
+        }
+
+        AtomicLong freed = new AtomicLong();
+        Files.walkFileTree(
+                this.root,
+                new SimpleFileVisitor<>() {
+
+                    @Override
+                    public @NotNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) throws IOException {
+
+                        if (file.getFileName().toString().startsWith(".")) return FileVisitResult.CONTINUE;
+
+                        int links = (int) Files.getAttribute(file, LINK_COUNT);
+                        if (links <= 1) {
+                            Files.delete(file);
+                            freed.addAndGet(attrs.size());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+        );
+
+        return freed.get();
+    }
+
+}
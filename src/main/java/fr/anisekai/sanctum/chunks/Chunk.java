@@ -0,0 +1,23 @@
+package fr.anisekai.sanctum.chunks;
+
+/**
+ * Region of a {@link ChunkedFile}, meant to be written by a single thread.
+ *
+ * @param offset
+ *         The position of the first byte of the region within the file.
+ * @param length
+ *         The amount of bytes of the region.
+ */
+public record Chunk(long offset, long length) {
+
+    /**
+     * Retrieve the position following the last byte of the region.
+     *
+     * @return The end position, exclusive.
+     */
+    public long end() {
+
+        return this.offset() + this.length();
+    }
+
+}
@@ -0,0 +1,205 @@
+package fr.anisekai.sanctum.chunks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File of a known size written concurrently by several threads, each one filling a distinct {@link Chunk} through positional
+ * writes. The file is sized upfront, so writers never extend it and never contend on a shared position.
+ */
+public final class ChunkedFile implements AutoCloseable {
+
+    private final Path        path;
+    private final long        size;
+    private final FileChannel channel;
+
+    private ChunkedFile(Path path, long size, FileChannel channel) {
+
+        this.path    = path;
+        this.size    = size;
+        this.channel = channel;
+    }
+
+    /**
+     * Create a {@link ChunkedFile} of the provided size, replacing any existing file.
+     *
+     * @param path
+     *         The {@link Path} of the file.
+     * @param size
+     *         The final size of the file, in bytes.
+     *
+     * @return A {@link ChunkedFile}.
+     *
+     * @throws IOException
+     *         If the file could not be created.
+     */
+    public static ChunkedFile create(Path path, long size) throws IOException {
+
+        if (size < 0) {
+            throw new IllegalArgumentException("The size cannot be negative.");
+        }
+
+        FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+
+        try {
+            // Writing the last byte sizes the file at once instead of growing it with each chunk.
+            if (size > 0) channel.write(ByteBuffer.allocate(1), size - 1);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return new ChunkedFile(path, size, channel);
+    }
+
+    /**
+     * Retrieve the {@link Path} of this {@link ChunkedFile}.
+     *
+     * @return A {@link Path}.
+     */
+    public Path path() {
+
+        return this.path;
+    }
+
+    /**
+     * Retrieve the size of this {@link ChunkedFile}.
+     *
+     * @return The size, in bytes.
+     */
+    public long size() {
+
+        return this.size;
+    }
+
+    /**
+     * Split this {@link ChunkedFile} into consecutive {@link Chunk} of the provided size. The last {@link Chunk} may be smaller.
+     *
+     * @param chunkSize
+     *         The size of each {@link Chunk}, in bytes.
+     *
+     * @return A {@link List} of {@link Chunk} covering the whole file.
+     */
+    public List<Chunk> split(long chunkSize) {
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (long offset = 0; offset < this.size; offset += chunkSize) {
+            chunks.add(new Chunk(offset, Math.min(chunkSize, this.size - offset)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Write the content of the provided {@link ByteBuffer} at the provided position. This method can be called concurrently as
+     * long as the written regions do not overlap.
+     *
+     * @param position
+     *         The position within the file at which the content is written.
+     * @param source
+     *         The {@link ByteBuffer} to write entirely.
+     *
+     * @return The amount of bytes written.
+     *
+     * @throws IOException
+     *         If the content could not be written.
+     */
+    public int write(long position, ByteBuffer source) throws IOException {
+
+        if (position < 0 || position + source.remaining() > this.size) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cannot write %s bytes at %s in a file of %s bytes",
+                    source.remaining(),
+                    position,
+                    this.size
+            ));
+        }
+
+        int written = 0;
+        while (source.hasRemaining()) {
+            written += this.channel.write(source, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * Open a {@link WritableByteChannel} writing sequentially within the provided {@link Chunk}, allowing to hand a region of the
+     * file to code expecting a stream. Writing beyond the end of the {@link Chunk} fails.
+     *
+     * @param chunk
+     *         The {@link Chunk} to write.
+     *
+     * @return A {@link WritableByteChannel}.
+     */
+    public WritableByteChannel open(Chunk chunk) {
+
+        if (chunk.offset() < 0 || chunk.end() > this.size) {
+            throw new IndexOutOfBoundsException(String.format("%s is outside of a file of %s bytes", chunk, this.size));
+        }
+
+        return new WritableByteChannel() {
+
+            private long    position = chunk.offset();
+            private boolean open     = true;
+
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+
+                if (!this.open) throw new ClosedChannelException();
+
+                if (this.position + source.remaining() > chunk.end()) {
+                    throw new IndexOutOfBoundsException(String.format("Cannot write beyond the end of %s", chunk));
+                }
+
+                int written = ChunkedFile.this.write(this.position, source);
+                this.position += written;
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+
+                return this.open && ChunkedFile.this.channel.isOpen();
+            }
+
+            @Override
+            public void close() {
+
+                this.open = false;
+            }
+        };
+    }
+
+    /**
+     * Force every written content to the disk.
+     *
+     * @throws IOException
+     *         If the content could not be forced.
+     */
+    public void force() throws IOException {
+
+        this.channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+}
@@ -0,0 +1,165 @@
+package fr.anisekai.sanctum.chunks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies large files with several ranged transfers running in parallel, allowing to saturate storage able to serve many requests
+ * at once. Each range is transferred with {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)},
+ * letting the operating system move the bytes without copying them through the heap.
+ * <p>
+ * Ranges are transferred by a bounded pool of threads shared by every copy, so that concurrent commits never run more transfers
+ * at once than the pool allows.
+ */
+public final class ParallelCopy implements AutoCloseable {
+
+    /**
+     * Size under which files are copied with a single transfer.
+     */
+    public static final long THRESHOLD   = 256L * 1024 * 1024;
+    /**
+     * Size of each range transferred in parallel.
+     */
+    public static final long CHUNK_SIZE  = 64L * 1024 * 1024;
+    /**
+     * Default amount of ranges transferred at once.
+     */
+    public static final int  PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private final ExecutorService executor;
+
+    /**
+     * Create a new {@link ParallelCopy} instance.
+     *
+     * @param parallelism
+     *         The maximum amount of ranges transferred at once, across every copy.
+     */
+    public ParallelCopy(int parallelism) {
+
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism must be positive.");
+        }
+
+        this.executor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("sanctum-copy-", 0).daemon().factory());
+    }
+
+    /**
+     * Check if the provided file should be copied with {@link #copy(Path, Path, long)}: both files must be handled by the default
+     * {@link java.nio.file.FileSystem} and the source must be larger than {@link #THRESHOLD}.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     * @param size
+     *         The size of the source, in bytes.
+     *
+     * @return True if a parallel copy is worth it.
+     */
+    public static boolean isEligible(Path source, Path destination, long size) {
+
+        return source.getFileSystem() == FileSystems.getDefault() &&
+                destination.getFileSystem() == FileSystems.getDefault() &&
+                size >= THRESHOLD;
+    }
+
+    /**
+     * Copy a file to a new file with parallel ranged transfers. The destination must not exist. Only the content is copied.
+     *
+     * @param source
+     *         The source {@link Path}
+     * @param destination
+     *         The destination {@link Path}
+     * @param size
+     *         The size of the source, in bytes.
+     *
+     * @throws IOException
+     *         If the copy fails. The destination is deleted in that case.
+     */
+    public void copy(Path source, Path destination, long size) throws IOException {
+
+        List<Future<?>> tasks       = new ArrayList<>();
+        AtomicBoolean   aborted     = new AtomicBoolean(false);
+        IOException     failure     = null;
+        boolean         interrupted = false;
+
+        try (ChunkedFile target = ChunkedFile.create(destination, size);
+             FileChannel output = FileChannel.open(destination, StandardOpenOption.WRITE)) {
+
+            try {
+                for (Chunk chunk : target.split(CHUNK_SIZE)) {
+                    tasks.add(this.executor.submit(() -> {
+                        // Tasks are never interrupted, it would close the output they share: they stop by themselves.
+                        if (aborted.get()) return null;
+
+                        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+                            input.position(chunk.offset());
+                            long transferred = 0;
+                            while (transferred < chunk.length() && !aborted.get()) {
+                                long position = chunk.offset() + transferred;
+                                long count    = output.transferFrom(input, position, chunk.length() - transferred);
+                                if (count <= 0) throw new IOException("Unexpected end of file while copying " + source);
+                                transferred += count;
+                            }
+                        }
+                        return null;
+                    }));
+                }
+            } catch (RejectedExecutionException e) {
+                aborted.set(true);
+                failure = new IOException("Cannot copy " + source + " once the copier is closed", e);
+            }
+
+            // Every task is waited for, even once the copy failed, so that none still writes when the destination is deleted.
+            for (Future<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.get();
+                        break;
+                    } catch (ExecutionException e) {
+                        aborted.set(true);
+                        IOException cause = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                        if (failure == null) failure = cause;
+                        else failure.addSuppressed(cause);
+                        break;
+                    } catch (InterruptedException e) {
+                        aborted.set(true);
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+
+        if (failure == null && !interrupted) return;
+
+        Files.deleteIfExists(destination);
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            if (failure == null) failure = new IOException("Interrupted while copying " + source);
+        }
+        throw failure;
+    }
+
+    /**
+     * Stop the threads of this {@link ParallelCopy}. Copies in progress are completed.
+     */
+    @Override
+    public void close() {
+
+        this.executor.shutdown();
+    }
+
+}
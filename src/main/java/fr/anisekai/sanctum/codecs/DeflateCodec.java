@@ -0,0 +1,86 @@
+package fr.anisekai.sanctum.codecs;
+
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Implementation of {@link StorageCodec} compressing the content using the deflate algorithm.
+ *
+ * @param level
+ *         The compression level, between {@link Deflater#BEST_SPEED} and {@link Deflater#BEST_COMPRESSION}.
+ */
+public record DeflateCodec(int level) implements StorageCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Provide default sanity checks when creating a {@link DeflateCodec}.
+     *
+     * @param level
+     *         The compression level, between {@link Deflater#BEST_SPEED} and {@link Deflater#BEST_COMPRESSION}.
+     */
+    public DeflateCodec {
+
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+    }
+
+    /**
+     * Create a new {@link DeflateCodec} using the default compression level.
+     */
+    public DeflateCodec() {
+
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public String name() {
+
+        return "deflate";
+    }
+
+    @Override
+    public InputStream decode(InputStream source) {
+
+        Inflater inflater = new Inflater();
+
+        return new InflaterInputStream(source, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public OutputStream encode(OutputStream target) {
+
+        Deflater deflater = new Deflater(this.level());
+
+        return new DeflaterOutputStream(target, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,40 @@
+package fr.anisekai.sanctum.enums;
+
+import fr.anisekai.sanctum.interfaces.LibraryMetrics;
+
+/**
+ * Enum listing the library operations timed by a {@link LibraryMetrics}.
+ */
+public enum LibraryOperation {
+
+    /**
+     * Creation of an isolation session.
+     */
+    CREATE_ISOLATION,
+
+    /**
+     * Creation of a resolver for a store, within the library or an isolation session.
+     */
+    GET_RESOLVER,
+
+    /**
+     * Resolution of an entity of a store within the library.
+     */
+    RESOLVE,
+
+    /**
+     * Commit of a whole isolation session.
+     */
+    COMMIT,
+
+    /**
+     * Commit of a single scope of an isolation session, recorded with its store and policy.
+     */
+    COMMIT_SCOPE,
+
+    /**
+     * Discard of an isolation session.
+     */
+    DISCARD
+
+}
@@ -0,0 +1,75 @@
+package fr.anisekai.sanctum.enums;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Enum allowing to declare what a {@link Path} is pointing to on the filesystem.
+ */
+public enum PathKind {
+
+    /**
+     * The {@link Path} is pointing to an existing directory.
+     */
+    DIRECTORY,
+
+    /**
+     * The {@link Path} is pointing to an existing regular file.
+     */
+    FILE,
+
+    /**
+     * The {@link Path} is pointing to something that exists but is neither a directory nor a regular file.
+     */
+    OTHER,
+
+    /**
+     * The {@link Path} is not pointing to anything.
+     */
+    MISSING;
+
+    /**
+     * Retrieve the {@link PathKind} of the provided {@link Path}. This only reads the file attributes once, instead of querying
+     * the filesystem for each possible kind.
+     *
+     * @param path
+     *         The {@link Path} to check.
+     * @param options
+     *         The {@link LinkOption} to use when reading the file attributes.
+     *
+     * @return A {@link PathKind}.
+     */
+    public static PathKind of(Path path, LinkOption... options) {
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, options);
+            if (attributes.isDirectory()) return DIRECTORY;
+            if (attributes.isRegularFile()) return FILE;
+            return OTHER;
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            // Same behavior as Files.notExists(): unknown state is not considered as missing.
+            return OTHER;
+        }
+    }
+
+    /**
+     * Check if this {@link PathKind} can be safely kept in cache. Only existing directories and files are considered stable
+     * enough to be cached, as a missing path is expected to be created shortly after being resolved.
+     *
+     * @return True if the {@link PathKind} can be cached, false otherwise.
+     */
+    public boolean isCacheable() {
+
+        return switch (this) {
+            case DIRECTORY, FILE -> true;
+            case OTHER, MISSING -> false;
+        };
+    }
+
+}
@@ -28,6 +28,13 @@ public enum StorePolicy {
      */
     FULL_SWAP,
 
+    /**
+     * The {@link FileStore} can be used within a {@link IsolationSession} and its content will completely replace the one present
+     * in the main storage, like {@link #FULL_SWAP}. Each commit creates a new immutable generation of the entity and publishes
+     * it atomically, so that readers never see a partially committed entity.
+     */
+    GENERATIONAL,
+
     /**
      * The {@link FileStore} is unique to each instance of {@link IsolationSession} and its content will be discarded once the
      * {@link IsolationSession} is closed.
@@ -42,7 +49,7 @@ public enum StorePolicy {
     public boolean willModifyFilesystem() {
 
         return switch (this) {
-            case OVERWRITE, FULL_SWAP -> true;
+            case OVERWRITE, FULL_SWAP, GENERATIONAL -> true;
             case DISCARD, PRIVATE -> false;
         };
     }
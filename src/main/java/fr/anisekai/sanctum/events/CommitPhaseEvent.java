@@ -0,0 +1,118 @@
+package fr.anisekai.sanctum.events;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering one phase of the commit of a scope, allowing to tell whether a slow commit spends its time
+ * backing up the previous content, deleting it, copying the new content, rolling back or cleaning up.
+ */
+@Name("fr.anisekai.sanctum.CommitPhase")
+@Label("Commit Phase")
+@Category({"Sanctum", "Commit"})
+@Description("A phase of the commit of a single scope")
+@StackTrace(false)
+public final class CommitPhaseEvent extends Event {
+
+    /**
+     * Enum listing the phases of the commit of a scope.
+     */
+    public enum Phase {
+
+        /**
+         * Copy of the current content of the entity, restored if the commit fails.
+         */
+        BACKUP,
+
+        /**
+         * Deletion of the current content of the entity before it is replaced.
+         */
+        DELETE,
+
+        /**
+         * Copy of the content of the isolation session into the library.
+         */
+        COPY,
+
+        /**
+         * Restoration of the backup after a failed commit.
+         */
+        ROLLBACK,
+
+        /**
+         * Deletion of the backup.
+         */
+        CLEANUP
+
+    }
+
+    @Label("Store")
+    private String store;
+
+    @Label("Policy")
+    private String policy;
+
+    @Label("Entity")
+    private String entity;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Files")
+    private long files;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    private transient AccessScope scope;
+
+    /**
+     * Start timing a phase of the commit of the provided {@link AccessScope}.
+     *
+     * @param scope
+     *         The {@link AccessScope} being committed.
+     * @param policy
+     *         The {@link StorePolicy} applied by the commit.
+     * @param phase
+     *         The {@link Phase} starting.
+     *
+     * @return A started {@link CommitPhaseEvent}.
+     */
+    public static CommitPhaseEvent start(AccessScope scope, StorePolicy policy, Phase phase) {
+
+        CommitPhaseEvent event = new CommitPhaseEvent();
+        event.scope  = scope;
+        event.policy = policy.name();
+        event.phase  = phase.name();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop timing the phase and emit this event if it is enabled and above its threshold.
+     *
+     * @param size
+     *         The {@link TransferSize} of the content affected by the phase.
+     */
+    public void finish(TransferSize size) {
+
+        this.end();
+        if (!this.shouldCommit()) return;
+
+        this.store  = this.scope.store().name();
+        this.entity = this.scope.claim().getScopedName();
+        this.files  = size.files();
+        this.bytes  = size.bytes();
+        this.commit();
+    }
+
+}
@@ -0,0 +1,65 @@
+package fr.anisekai.sanctum.events;
+
+import fr.anisekai.sanctum.metrics.TransferSize;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * Flight recorder event covering the discard of an isolation session, including the deletion of its content.
+ */
+@Name("fr.anisekai.sanctum.Discard")
+@Label("Discard")
+@Category({"Sanctum", "Isolation"})
+@Description("The discard of an isolation session")
+@StackTrace(false)
+public final class DiscardEvent extends Event {
+
+    @Label("Session")
+    private String session;
+
+    @Label("Files")
+    private long files;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Start timing the discard of an isolation session.
+     *
+     * @return A started {@link DiscardEvent}.
+     */
+    public static DiscardEvent start() {
+
+        DiscardEvent event = new DiscardEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop timing the discard and emit this event if it is enabled and above its threshold.
+     *
+     * @param session
+     *         The {@link UUID} of the discarded isolation session.
+     * @param size
+     *         The {@link TransferSize} of the deleted content.
+     */
+    public void finish(UUID session, TransferSize size) {
+
+        this.end();
+        if (!this.shouldCommit()) return;
+
+        this.session = session.toString();
+        this.files   = size.files();
+        this.bytes   = size.bytes();
+        this.commit();
+    }
+
+}
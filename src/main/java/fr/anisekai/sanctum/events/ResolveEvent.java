@@ -0,0 +1,61 @@
+package fr.anisekai.sanctum.events;
+
+import fr.anisekai.sanctum.AccessScope;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event covering the resolution of an entity within the library. Resolutions are frequent, so this event is
+ * disabled by default and only records resolutions slower than its threshold once enabled, which can be lowered in the recording
+ * settings to sample more of them.
+ */
+@Name("fr.anisekai.sanctum.Resolve")
+@Label("Resolve")
+@Category({"Sanctum", "Resolution"})
+@Description("The resolution of an entity within the library")
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public final class ResolveEvent extends Event {
+
+    @Label("Store")
+    private String store;
+
+    @Label("Entity")
+    private String entity;
+
+    /**
+     * Start timing a resolution.
+     *
+     * @return A started {@link ResolveEvent}.
+     */
+    public static ResolveEvent start() {
+
+        ResolveEvent event = new ResolveEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop timing the resolution and emit this event if it is enabled and above its threshold.
+     *
+     * @param scope
+     *         The resolved {@link AccessScope}.
+     */
+    public void finish(AccessScope scope) {
+
+        this.end();
+        if (!this.shouldCommit()) return;
+
+        this.store  = scope.store().name();
+        this.entity = scope.claim().getScopedName();
+        this.commit();
+    }
+
+}
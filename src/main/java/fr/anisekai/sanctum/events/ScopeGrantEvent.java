@@ -0,0 +1,85 @@
+package fr.anisekai.sanctum.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.UUID;
+
+/**
+ * Flight recorder event covering the grant of scopes to an isolation session, including the time spent waiting for other grants
+ * to complete.
+ */
+@Name("fr.anisekai.sanctum.ScopeGrant")
+@Label("Scope Grant")
+@Category({"Sanctum", "Isolation"})
+@Description("The grant of scopes to an isolation session")
+@StackTrace(false)
+public final class ScopeGrantEvent extends Event {
+
+    @Label("Session")
+    private String session;
+
+    @Label("Scopes")
+    private int scopes;
+
+    @Label("Granted")
+    private boolean granted;
+
+    @Label("Contention")
+    @Description("Time spent waiting for the claim lock")
+    @Timespan(Timespan.NANOSECONDS)
+    private long contention;
+
+    private transient long requested;
+
+    /**
+     * Start timing the grant of scopes, before waiting for the claim lock.
+     *
+     * @param session
+     *         The {@link UUID} of the isolation session receiving the scopes.
+     * @param scopes
+     *         The amount of scopes requested.
+     *
+     * @return A started {@link ScopeGrantEvent}.
+     */
+    public static ScopeGrantEvent start(UUID session, int scopes) {
+
+        ScopeGrantEvent event = new ScopeGrantEvent();
+        event.session   = session.toString();
+        event.scopes    = scopes;
+        event.requested = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Mark the claim lock as acquired, recording the time spent waiting for it.
+     */
+    public void acquired() {
+
+        this.contention = System.nanoTime() - this.requested;
+    }
+
+    /**
+     * Mark the scopes as granted.
+     */
+    public void granted() {
+
+        this.granted = true;
+    }
+
+    /**
+     * Stop timing the grant and emit this event if it is enabled and above its threshold.
+     */
+    public void finish() {
+
+        this.end();
+        if (this.shouldCommit()) this.commit();
+    }
+
+}
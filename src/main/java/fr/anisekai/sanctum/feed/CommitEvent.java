@@ -0,0 +1,21 @@
+package fr.anisekai.sanctum.feed;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notification of a commit, published by a {@link CommitFeed}.
+ *
+ * @param offset
+ *         The offset of the event, increasing by one with each commit. A gap between two received events means that events have
+ *         been dropped, and can be read back from the {@link CommitLog} when there is one.
+ * @param timestamp
+ *         The time at which the commit completed, in milliseconds since the epoch.
+ * @param session
+ *         The {@link UUID} of the committed isolation session.
+ * @param scopes
+ *         The {@link CommittedScope} of every entity changed by the commit.
+ */
+public record CommitEvent(long offset, long timestamp, UUID session, List<CommittedScope> scopes) {
+
+}
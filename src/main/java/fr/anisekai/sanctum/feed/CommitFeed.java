@@ -0,0 +1,143 @@
+package fr.anisekai.sanctum.feed;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Flow.Publisher} notifying subscribers of every commit of a library, so that consumers do not have to poll the library to
+ * find what changed. Events are delivered on the provided {@link Executor}, and each subscriber has a bounded buffer filled
+ * according to the demand it signals through its {@link Flow.Subscription}.
+ * <p>
+ * Commits never wait for subscribers: an event is dropped for a subscriber whose buffer is full. Subscribers can detect dropped
+ * events through gaps in the event offsets, and read them back from the {@link CommitLog} when the feed has one, which also
+ * allows them to resume from the last offset they processed after a restart.
+ * <p>
+ * Publishing never fails the commit it describes, which has already been applied: an event that could not be recorded or
+ * published is logged and counted by {@link #failures()}.
+ */
+public final class CommitFeed implements Flow.Publisher<CommitEvent>, AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(CommitFeed.class.getName());
+
+    private final SubmissionPublisher<CommitEvent> publisher;
+    private final @Nullable CommitLog              log;
+    private final LongAdder                        dropped  = new LongAdder();
+    private final LongAdder                        failures = new LongAdder();
+    private       long                             next     = 1;
+
+    /**
+     * Create a new {@link CommitFeed} instance.
+     *
+     * @param executor
+     *         The {@link Executor} delivering the events to the subscribers.
+     * @param bufferCapacity
+     *         The maximum amount of events buffered for each subscriber.
+     * @param log
+     *         The {@link CommitLog} recording every event before it is published, or {@code null} to only publish events.
+     */
+    public CommitFeed(Executor executor, int bufferCapacity, @Nullable CommitLog log) {
+
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.log       = log;
+
+        if (log != null) this.next = log.next();
+    }
+
+    /**
+     * Publish the event of a commit, recording it in the {@link CommitLog} first if there is one.
+     *
+     * @param session
+     *         The {@link UUID} of the committed isolation session.
+     * @param scopes
+     *         The {@link CommittedScope} of every entity changed by the commit.
+     *
+     * @return The published {@link CommitEvent}, or {@code null} if it could not be recorded or published.
+     */
+    public synchronized @Nullable CommitEvent publish(UUID session, List<CommittedScope> scopes) {
+
+        try {
+            long        now   = System.currentTimeMillis();
+            CommitEvent event = this.log == null ?
+                    new CommitEvent(this.next++, now, session, List.copyOf(scopes)) :
+                    this.log.append(now, session, scopes);
+
+            // Publishing under the lock keeps the events of every subscriber ordered by offset.
+            this.publisher.offer(event, (subscriber, dropped) -> {
+                this.dropped.increment();
+                return false;
+            });
+            return event;
+        } catch (IOException | RuntimeException e) {
+            this.failures.increment();
+            LOGGER.log(System.Logger.Level.WARNING, String.format("Failed to publish the commit of session %s", session), e);
+            return null;
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CommitEvent> subscriber) {
+
+        this.publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Retrieve the {@link CommitLog} recording the events of this {@link CommitFeed}.
+     *
+     * @return A {@link CommitLog}, or {@code null} if events are not recorded.
+     */
+    public @Nullable CommitLog log() {
+
+        return this.log;
+    }
+
+    /**
+     * Retrieve the amount of events dropped for subscribers whose buffer was full, summed over every subscriber.
+     *
+     * @return The amount of dropped events.
+     */
+    public long dropped() {
+
+        return this.dropped.sum();
+    }
+
+    /**
+     * Retrieve the amount of commits whose event could not be recorded or published.
+     *
+     * @return The amount of failed events.
+     */
+    public long failures() {
+
+        return this.failures.sum();
+    }
+
+    /**
+     * Retrieve the amount of subscribers currently notified by this {@link CommitFeed}.
+     *
+     * @return The amount of subscribers.
+     */
+    public int subscribers() {
+
+        return this.publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Complete every subscription, then close the {@link CommitLog} if there is one.
+     *
+     * @throws IOException
+     *         If the {@link CommitLog} could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+
+        this.publisher.close();
+        if (this.log != null) this.log.close();
+    }
+
+}
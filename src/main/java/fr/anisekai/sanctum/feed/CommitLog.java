@@ -0,0 +1,390 @@
+package fr.anisekai.sanctum.feed;
+
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Durable log of {@link CommitEvent}, allowing consumers of a {@link CommitFeed} to resume from the offset of the last event they
+ * processed after a restart, or to recover events dropped while they were lagging. Events are appended to a single file and
+ * forced to the disk before {@link #append(long, UUID, List)} returns.
+ * <p>
+ * Each event is stored as {@code [int length][payload][int crc]}, so that an event torn by a crash is detected and dropped when
+ * the log is opened. Old events are only removed by {@link #discard(long)}.
+ */
+public final class CommitLog implements AutoCloseable {
+
+    private static final String LOG_FILE         = "commits";
+    private static final int    MAGIC            = 0x53434c47; // SCLG
+    private static final int    VERSION          = 1;
+    private static final int    HEADER_SIZE      = 8;
+    private static final int    CHECKPOINT_EVERY = 256;
+
+    private final Path                     file;
+    private final NavigableMap<Long, Long> checkpoints = new TreeMap<>();
+    private       FileChannel              channel;
+    private       long                     first;
+    private       long                     next;
+    private       long                     end;
+
+    private CommitLog(Path file) {
+
+        this.file = file;
+    }
+
+    /**
+     * Open the {@link CommitLog} located in the provided directory, creating it if needed. An event left incomplete by a crash is
+     * discarded.
+     *
+     * @param root
+     *         The directory holding the log file.
+     *
+     * @return A {@link CommitLog}.
+     *
+     * @throws IOException
+     *         If the log could not be read, or if the file is not a commit log.
+     */
+    public static CommitLog open(Path root) throws IOException {
+
+        Files.createDirectories(root);
+
+        CommitLog log = new CommitLog(root.resolve(LOG_FILE));
+
+        if (!Files.exists(log.file)) {
+            log.first = 1;
+            log.next  = 1;
+            log.rewrite(List.of());
+            return log;
+        }
+
+        long position = HEADER_SIZE;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log.file)))) {
+            readHeader(in, log.file);
+
+            byte[] payload;
+            while ((payload = readPayload(in)) != null) {
+                CommitEvent event = decode(payload);
+                if (log.first == 0) log.first = event.offset();
+                log.next = event.offset() + 1;
+                log.checkpoint(event.offset(), position);
+                position += Integer.BYTES * 2 + payload.length;
+            }
+        }
+
+        if (log.first == 0) {
+            // The log is empty: the offset of its next event was recorded when it was last rewritten.
+            log.first = log.readFirstOffset();
+            log.next  = log.first;
+        }
+
+        log.end     = position;
+        log.channel = FileChannel.open(log.file, StandardOpenOption.WRITE);
+        // Drop what follows the last complete event, so that new events are not appended after garbage.
+        log.channel.truncate(position);
+        log.channel.position(position);
+        return log;
+    }
+
+    private static void readHeader(DataInputStream in, Path file) throws IOException {
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException(String.format("The file '%s' is not a commit log", file));
+        }
+
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported commit log version %s", version));
+        }
+    }
+
+    private long readFirstOffset() throws IOException {
+
+        Path marker = this.file.resolveSibling(LOG_FILE + ".offset");
+        return Files.exists(marker) ? Long.parseLong(Files.readString(marker).trim()) : 1;
+    }
+
+    private static int checksum(byte[] payload) {
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(CommitEvent event) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(event.offset());
+            out.writeLong(event.timestamp());
+            out.writeLong(event.session().getMostSignificantBits());
+            out.writeLong(event.session().getLeastSignificantBits());
+            out.writeInt(event.scopes().size());
+            for (CommittedScope scope : event.scopes()) {
+                out.writeUTF(scope.store());
+                out.writeUTF(scope.entity());
+                out.writeUTF(scope.policy().name());
+                out.writeLong(scope.size().files());
+                out.writeLong(scope.size().bytes());
+                out.writeLong(scope.delta().files());
+                out.writeLong(scope.delta().bytes());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CommitEvent decode(byte[] payload) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long                 offset    = in.readLong();
+            long                 timestamp = in.readLong();
+            UUID                 session   = new UUID(in.readLong(), in.readLong());
+            int                  count     = in.readInt();
+            List<CommittedScope> scopes    = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                scopes.add(new CommittedScope(
+                        in.readUTF(),
+                        in.readUTF(),
+                        StorePolicy.valueOf(in.readUTF()),
+                        new TransferSize(in.readLong(), in.readLong()),
+                        new TransferSize(in.readLong(), in.readLong())
+                ));
+            }
+
+            return new CommitEvent(offset, timestamp, session, List.copyOf(scopes));
+        }
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+
+        try {
+            int length = in.readInt();
+            if (length <= 0) return null;
+
+            byte[] payload = in.readNBytes(length);
+            if (payload.length != length || in.readInt() != checksum(payload)) return null;
+            return payload;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + payload.length);
+        buffer.putInt(payload.length).put(payload).putInt(checksum(payload));
+        return buffer.flip();
+    }
+
+    private void checkpoint(long offset, long position) {
+
+        if ((offset - this.first) % CHECKPOINT_EVERY == 0) {
+            this.checkpoints.put(offset, position);
+        }
+    }
+
+    /**
+     * Durably append a new event to this {@link CommitLog}.
+     *
+     * @param timestamp
+     *         The time at which the commit completed, in milliseconds since the epoch.
+     * @param session
+     *         The {@link UUID} of the committed isolation session.
+     * @param scopes
+     *         The {@link CommittedScope} of every entity changed by the commit.
+     *
+     * @return The {@link CommitEvent}, with the offset assigned by the log.
+     *
+     * @throws IOException
+     *         If the event could not be written.
+     */
+    public synchronized CommitEvent append(long timestamp, UUID session, List<CommittedScope> scopes) throws IOException {
+
+        CommitEvent event  = new CommitEvent(this.next, timestamp, session, List.copyOf(scopes));
+        ByteBuffer  buffer = frame(encode(event));
+        int         length = buffer.remaining();
+
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.channel.force(false);
+
+        this.checkpoint(event.offset(), this.end);
+        this.end += length;
+        this.next++;
+        return event;
+    }
+
+    /**
+     * Read the events of this {@link CommitLog} starting from the provided offset.
+     *
+     * @param from
+     *         The offset of the first event to read. Events older than the first retained one are skipped.
+     * @param limit
+     *         The maximum amount of events to read.
+     *
+     * @return A {@link List} of {@link CommitEvent}, from the oldest to the newest.
+     *
+     * @throws IOException
+     *         If the log could not be read.
+     */
+    public List<CommitEvent> read(long from, int limit) throws IOException {
+
+        long start;
+        long stop;
+
+        FileChannel reader;
+
+        // The file is opened with the positions it matches: discarding events replaces it and moves the events it keeps.
+        synchronized (this) {
+            Map.Entry<Long, Long> checkpoint = this.checkpoints.floorEntry(from);
+            start  = checkpoint == null ? HEADER_SIZE : checkpoint.getValue();
+            stop   = this.end;
+            reader = FileChannel.open(this.file, StandardOpenOption.READ);
+        }
+
+        List<CommitEvent> events = new ArrayList<>();
+
+        try (reader) {
+            reader.position(start);
+
+            DataInputStream in       = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader)));
+            long            position = start;
+
+            // Only read what was fully appended when the read started.
+            while (position < stop && events.size() < limit) {
+                byte[] payload = readPayload(in);
+                if (payload == null) break;
+                position += Integer.BYTES * 2 + payload.length;
+
+                CommitEvent event = decode(payload);
+                if (event.offset() >= from) events.add(event);
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Retrieve the offset of the oldest event retained by this {@link CommitLog}.
+     *
+     * @return The offset of the oldest event, equal to {@link #next()} if the log is empty.
+     */
+    public synchronized long first() {
+
+        return this.first;
+    }
+
+    /**
+     * Retrieve the offset that will be assigned to the next appended event.
+     *
+     * @return The next offset.
+     */
+    public synchronized long next() {
+
+        return this.next;
+    }
+
+    /**
+     * Remove every event older than the provided offset, typically once every consumer processed them.
+     *
+     * @param before
+     *         The offset of the oldest event to keep.
+     *
+     * @return The amount of removed events.
+     *
+     * @throws IOException
+     *         If the log could not be rewritten.
+     */
+    public synchronized long discard(long before) throws IOException {
+
+        long target = Math.min(before, this.next);
+        if (target <= this.first) return 0;
+
+        List<CommitEvent> kept = new ArrayList<>();
+        long              from = target;
+
+        while (from < this.next) {
+            List<CommitEvent> batch = this.read(from, CHECKPOINT_EVERY);
+            if (batch.isEmpty()) break;
+            kept.addAll(batch);
+            from = batch.getLast().offset() + 1;
+        }
+
+        long removed = target - this.first;
+        this.first = target;
+        this.rewrite(kept);
+        return removed;
+    }
+
+    private void rewrite(List<CommitEvent> events) throws IOException {
+
+        Path staging = this.file.resolveSibling(String.format(".%s.tmp", this.file.getFileName()));
+        long size    = HEADER_SIZE;
+
+        this.checkpoints.clear();
+
+        try (FileChannel out = FileChannel.open(
+                staging,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+
+            for (CommitEvent event : events) {
+                ByteBuffer buffer = frame(encode(event));
+                this.checkpoint(event.offset(), size);
+                size += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(false);
+        }
+
+        // The offset of the first event must survive the log being emptied.
+        Path offset        = this.file.resolveSibling(LOG_FILE + ".offset");
+        Path stagingOffset = this.file.resolveSibling(String.format(".%s.offset.tmp", LOG_FILE));
+        Files.writeString(stagingOffset, String.valueOf(this.first));
+        Files.move(stagingOffset, offset, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        if (this.channel != null) this.channel.close();
+        Files.move(staging, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.end     = size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        this.channel.close();
+    }
+
+}
@@ -0,0 +1,24 @@
+package fr.anisekai.sanctum.feed;
+
+import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+/**
+ * Entity changed by a commit, as reported within a {@link CommitEvent}. The entity is identified by names rather than by its
+ * {@link AccessScope}, so that it can be read back from a {@link CommitLog}.
+ *
+ * @param store
+ *         The name of the store of the entity.
+ * @param entity
+ *         The scoped name of the entity.
+ * @param policy
+ *         The {@link StorePolicy} applied by the commit.
+ * @param size
+ *         The {@link TransferSize} of the entity content after the commit, {@link TransferSize#NONE} if it has been removed.
+ * @param delta
+ *         The difference between the {@link TransferSize} of the entity after and before the commit.
+ */
+public record CommittedScope(String store, String entity, StorePolicy policy, TransferSize size, TransferSize delta) {
+
+}
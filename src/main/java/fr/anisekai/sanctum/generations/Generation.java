@@ -0,0 +1,40 @@
+package fr.anisekai.sanctum.generations;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lease on a generation of an entity acquired from a {@link GenerationStore}. The generation content is immutable and will not be
+ * reaped until this {@link Generation} has been closed, even if newer generations are published meanwhile.
+ */
+public final class Generation implements AutoCloseable {
+
+    private final GenerationStore store;
+    private final Path            path;
+    private final AtomicBoolean   closed = new AtomicBoolean(false);
+
+    Generation(GenerationStore store, Path path) {
+
+        this.store = store;
+        this.path  = path;
+    }
+
+    /**
+     * Retrieve the {@link Path} of the generation content. It must only be read.
+     *
+     * @return A {@link Path}.
+     */
+    public Path path() {
+
+        return this.path;
+    }
+
+    @Override
+    public void close() {
+
+        if (this.closed.compareAndSet(false, true)) {
+            this.store.release(this.path);
+        }
+    }
+
+}
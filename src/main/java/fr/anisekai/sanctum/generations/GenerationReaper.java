@@ -0,0 +1,27 @@
+package fr.anisekai.sanctum.generations;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Background task deleting the generations retired by a {@link GenerationStore} once no {@link Generation} lease holds them
+ * anymore. This task is meant to be scheduled periodically, for example with a {@link ScheduledExecutorService}.
+ *
+ * @param store
+ *         The {@link GenerationStore} to reap.
+ */
+public record GenerationReaper(GenerationStore store) implements Runnable {
+
+    @Override
+    public void run() {
+
+        try {
+            this.store().reap();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+}
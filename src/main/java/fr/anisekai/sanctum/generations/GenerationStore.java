@@ -0,0 +1,275 @@
+package fr.anisekai.sanctum.generations;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Publishes entities as immutable generations. Each generation of an entity is stored in its own directory next to the entity,
+ * under {@code .generations/<entity>/<generation>}, and the entity itself is a symbolic link to its current generation. A new
+ * generation is published by atomically replacing that link, so readers either see the previous generation or the new one, but
+ * never a mix of both.
+ * <p>
+ * Replaced generations are retired and deleted by {@link #reap()} once no {@link Generation} lease holds them. Retired
+ * generations are only tracked in memory: {@link #recover(Path)} must be called on each store directory before it is used, so that
+ * generations retired by a previous run are reaped too.
+ */
+public final class GenerationStore {
+
+    private static final String GENERATIONS = ".generations";
+
+    private final MetadataCache      cache;
+    private final Map<Path, Integer> leases  = new HashMap<>();
+    private final Queue<Path>        retired = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create a new {@link GenerationStore} instance.
+     *
+     * @param cache
+     *         The {@link MetadataCache} to invalidate when a generation is published.
+     */
+    public GenerationStore(MetadataCache cache) {
+
+        this.cache = cache;
+    }
+
+    /**
+     * Retrieve the {@link Path} in which a new generation of the provided entity should be written before being published.
+     *
+     * @param live
+     *         The {@link Path} of the entity.
+     * @param generation
+     *         The unique name of the generation.
+     *
+     * @return The {@link Path} of the generation, which does not exist yet.
+     *
+     * @throws IOException
+     *         If the generation parent directory could not be created.
+     */
+    public Path allocate(Path live, String generation) throws IOException {
+
+        Path directory = live.resolveSibling(GENERATIONS).resolve(live.getFileName().toString());
+        Files.createDirectories(directory);
+        return directory.resolve(generation);
+    }
+
+    /**
+     * Retrieve the generation currently published for the provided entity.
+     *
+     * @param live
+     *         The {@link Path} of the entity.
+     *
+     * @return The {@link Path} of the current generation, or {@code null} if the entity is not published as a generation.
+     *
+     * @throws IOException
+     *         If the link could not be read.
+     */
+    public @Nullable Path current(Path live) throws IOException {
+
+        if (!Files.isSymbolicLink(live)) return null;
+        return live.resolveSibling(Files.readSymbolicLink(live)).normalize();
+    }
+
+    /**
+     * Publish a generation previously written in the {@link Path} obtained from {@link #allocate(Path, String)}, replacing
+     * atomically the current generation of the entity.
+     *
+     * @param live
+     *         The {@link Path} of the entity.
+     * @param generation
+     *         The {@link Path} of the generation to publish.
+     *
+     * @throws IOException
+     *         If the generation could not be published.
+     */
+    public void publish(Path live, Path generation) throws IOException {
+
+        Path link     = live.resolveSibling(String.format(".%s.link", live.getFileName()));
+        Path previous = this.current(live);
+
+        Files.deleteIfExists(link);
+        Files.createSymbolicLink(link, live.getParent().relativize(generation));
+
+        try {
+            // Content committed before the store became generational cannot be replaced atomically.
+            if (previous == null) SanctumUtils.delete(live);
+            Files.move(link, live, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(link);
+            this.cache.invalidate(live);
+        }
+
+        if (previous != null && !previous.equals(generation)) {
+            this.retired.add(previous);
+        }
+    }
+
+    /**
+     * Remove the entity, retiring its current generation.
+     *
+     * @param live
+     *         The {@link Path} of the entity.
+     *
+     * @throws IOException
+     *         If the entity could not be removed.
+     */
+    public void unpublish(Path live) throws IOException {
+
+        Path previous = this.current(live);
+
+        try {
+            if (previous == null) SanctumUtils.delete(live);
+            else Files.delete(live);
+        } finally {
+            this.cache.invalidate(live);
+        }
+
+        if (previous != null) this.retired.add(previous);
+    }
+
+    /**
+     * Acquire a lease on the generation currently published for the provided entity, preventing it from being reaped until the
+     * returned {@link Generation} is closed.
+     *
+     * @param live
+     *         The {@link Path} of the entity.
+     *
+     * @return A {@link Generation}.
+     */
+    public Generation acquire(Path live) {
+
+        synchronized (this.leases) {
+            try {
+                Path current = this.current(live);
+
+                if (current == null) {
+                    throw new StorageException(String.format("No generation is published for '%s'", live));
+                }
+
+                this.leases.merge(current, 1, Integer::sum);
+                return new Generation(this, current);
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
+    }
+
+    /**
+     * Release a lease acquired with {@link #acquire(Path)}.
+     *
+     * @param generation
+     *         The {@link Path} of the generation.
+     */
+    void release(Path generation) {
+
+        synchronized (this.leases) {
+            this.leases.computeIfPresent(generation, (path, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Retire every generation of the provided store directory that is not currently published, such as generations retired by a
+     * previous run that did not reap them, or generations written by a commit that did not complete. Generations left hidden by
+     * an interrupted reaping are deleted. Must not be called while entities of the store are being committed.
+     *
+     * @param directory
+     *         The {@link Path} of the store directory.
+     *
+     * @return The amount of retired generations.
+     *
+     * @throws IOException
+     *         If the generations could not be listed.
+     */
+    public int recover(Path directory) throws IOException {
+
+        Path generations = directory.resolve(GENERATIONS);
+        if (!Files.isDirectory(generations)) return 0;
+
+        Set<Path> known     = new HashSet<>(this.retired);
+        int       recovered = 0;
+
+        try (DirectoryStream<Path> entities = Files.newDirectoryStream(generations)) {
+            for (Path entity : entities) {
+                Path current = this.current(directory.resolve(entity.getFileName().toString()));
+
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(entity)) {
+                    for (Path generation : stream) {
+                        if (generation.getFileName().toString().startsWith(".")) {
+                            SanctumUtils.delete(generation);
+                        } else if (!generation.equals(current) && known.add(generation)) {
+                            this.retired.add(generation);
+                            recovered++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return recovered;
+    }
+
+    /**
+     * Retrieve the amount of generations waiting to be reaped.
+     *
+     * @return The amount of retired generations.
+     */
+    public int retired() {
+
+        return this.retired.size();
+    }
+
+    /**
+     * Delete every retired generation that is not leased anymore. Leased generations stay retired until the next call.
+     *
+     * @return The amount of deleted generations.
+     *
+     * @throws IOException
+     *         If a generation could not be deleted.
+     */
+    public int reap() throws IOException {
+
+        List<Path> leased  = new ArrayList<>();
+        List<Path> reaping = new ArrayList<>();
+        Path       generation;
+
+        while ((generation = this.retired.poll()) != null) {
+            synchronized (this.leases) {
+                if (this.leases.containsKey(generation)) {
+                    leased.add(generation);
+                    continue;
+                }
+
+                // Hide the generation while holding the lock, so that it cannot be leased while being deleted.
+                Path hidden = generation.resolveSibling(String.format(".%s.reaping", generation.getFileName()));
+                if (Files.exists(generation)) {
+                    Files.move(generation, hidden, StandardCopyOption.ATOMIC_MOVE);
+                    reaping.add(hidden);
+                }
+            }
+        }
+
+        this.retired.addAll(leased);
+
+        for (Path hidden : reaping) {
+            SanctumUtils.delete(hidden);
+        }
+
+        return reaping.size();
+    }
+
+}
@@ -0,0 +1,377 @@
+package fr.anisekai.sanctum.index;
+
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Sorted index of the committed entities of a store, kept in a single file so that the entities can be enumerated without
+ * listing the store directories. Entries are held in memory for lookups and ordered iteration, and every change is appended to
+ * the index file and forced to the disk before returning.
+ * <p>
+ * Each record is stored as {@code [int length][payload][int crc]}, so that a record torn by a crash is detected and dropped when
+ * the index is opened. The file is rewritten with only the live entries once superseded records outnumber them.
+ * <p>
+ * A hidden marker is left next to the index file when it is closed, and removed when it is opened. An index opened without its
+ * marker was not closed properly, may have missed commits, and is considered stale until its content is replaced by a scan of
+ * the store.
+ */
+public final class EntityIndex implements AutoCloseable {
+
+    private static final int  MAGIC           = 0x53454958; // SEIX
+    private static final int  VERSION         = 1;
+    private static final int  HEADER_SIZE     = 8;
+    private static final byte OP_PUT          = 1;
+    private static final byte OP_REMOVE       = 2;
+    private static final int  COMPACT_RECORDS = 1024;
+
+    private final Path                                          file;
+    private final Path                                          marker;
+    private final ConcurrentNavigableMap<String, IndexedEntity> entries = new ConcurrentSkipListMap<>();
+    private       FileChannel                                   channel;
+    private       long                                          records;
+    private volatile boolean                                    stale;
+
+    private EntityIndex(Path file) {
+
+        this.file   = file;
+        this.marker = file.resolveSibling(String.format(".%s.closed", file.getFileName()));
+    }
+
+    /**
+     * Open the {@link EntityIndex} stored in the provided file, creating it if it does not exist. A record left incomplete by a
+     * crash is discarded. An index that has just been created, or that was not closed properly, is {@link #isStale() stale}.
+     *
+     * @param file
+     *         The {@link Path} of the index file.
+     *
+     * @return An {@link EntityIndex}.
+     *
+     * @throws IOException
+     *         If the index could not be read, or if the file is not an index.
+     */
+    public static EntityIndex open(Path file) throws IOException {
+
+        EntityIndex index = new EntityIndex(file);
+
+        index.stale = !Files.deleteIfExists(index.marker);
+
+        if (!Files.exists(file)) {
+            index.stale = true;
+            index.rewrite();
+            return index;
+        }
+
+        long valid = HEADER_SIZE;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("The file '%s' is not an entity index", file));
+            }
+
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("Unsupported entity index version %s", version));
+            }
+
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0) break;
+                    payload = in.readNBytes(length);
+                    if (payload.length != length || in.readInt() != checksum(payload)) break;
+                } catch (EOFException e) {
+                    break;
+                }
+
+                index.apply(payload);
+                index.records++;
+                valid += Integer.BYTES * 2 + payload.length;
+            }
+        }
+
+        index.channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        // Drop what follows the last complete record, so that new records are not appended after garbage.
+        index.channel.truncate(valid);
+        index.channel.position(valid);
+        return index;
+    }
+
+    private static int checksum(byte[] payload) {
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(byte op, IndexedEntity entity) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            out.writeUTF(entity.name());
+            if (op == OP_PUT) {
+                out.writeLong(entity.created().toEpochMilli());
+                out.writeLong(entity.modified().toEpochMilli());
+                out.writeLong(entity.size().files());
+                out.writeLong(entity.size().bytes());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + payload.length);
+        buffer.putInt(payload.length).put(payload).putInt(checksum(payload));
+        return buffer.flip();
+    }
+
+    private void apply(byte[] payload) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte   op   = in.readByte();
+            String name = in.readUTF();
+
+            if (op == OP_REMOVE) {
+                this.entries.remove(name);
+                return;
+            }
+
+            Instant      created  = Instant.ofEpochMilli(in.readLong());
+            Instant      modified = Instant.ofEpochMilli(in.readLong());
+            TransferSize size     = new TransferSize(in.readLong(), in.readLong());
+            this.entries.put(name, new IndexedEntity(name, created, modified, size));
+        }
+    }
+
+    private void append(byte[] payload) throws IOException {
+
+        ByteBuffer buffer = frame(payload);
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.channel.force(false);
+        this.records++;
+    }
+
+    /**
+     * Record an entity as committed with the provided content size. The creation time of an already indexed entity is kept.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     * @param size
+     *         The {@link TransferSize} of the entity content.
+     *
+     * @return The {@link IndexedEntity} recorded.
+     *
+     * @throws IOException
+     *         If the record could not be written.
+     */
+    public synchronized IndexedEntity put(String name, TransferSize size) throws IOException {
+
+        Instant       now      = Instant.ofEpochMilli(System.currentTimeMillis());
+        IndexedEntity previous = this.entries.get(name);
+        IndexedEntity entity   = new IndexedEntity(name, previous == null ? now : previous.created(), now, size);
+
+        this.append(encode(OP_PUT, entity));
+        this.entries.put(name, entity);
+        this.compactIfNeeded();
+        return entity;
+    }
+
+    /**
+     * Remove an entity from this {@link EntityIndex}.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     *
+     * @return True if the entity was indexed.
+     *
+     * @throws IOException
+     *         If the record could not be written.
+     */
+    public synchronized boolean remove(String name) throws IOException {
+
+        if (!this.entries.containsKey(name)) return false;
+
+        this.append(encode(OP_REMOVE, new IndexedEntity(name, Instant.EPOCH, Instant.EPOCH, TransferSize.NONE)));
+        this.entries.remove(name);
+        this.compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Replace the whole content of this {@link EntityIndex}, typically after scanning the store it describes. The index is not
+     * {@link #isStale() stale} anymore once replaced.
+     *
+     * @param entities
+     *         The {@link IndexedEntity} of every entity of the store.
+     *
+     * @throws IOException
+     *         If the index could not be written.
+     */
+    public synchronized void replace(Collection<IndexedEntity> entities) throws IOException {
+
+        this.entries.clear();
+        for (IndexedEntity entity : entities) {
+            this.entries.put(entity.name(), entity);
+        }
+        this.rewrite();
+        this.stale = false;
+    }
+
+    /**
+     * Check if this {@link EntityIndex} may have missed changes of its store, because it has just been created or because it was
+     * not closed properly. A stale index must be {@link #replace(Collection) replaced} before being trusted.
+     *
+     * @return True if the index is stale.
+     */
+    public boolean isStale() {
+
+        return this.stale;
+    }
+
+    /**
+     * Retrieve the entry of an entity.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     *
+     * @return An optional {@link IndexedEntity}.
+     */
+    public Optional<IndexedEntity> get(String name) {
+
+        return Optional.ofNullable(this.entries.get(name));
+    }
+
+    /**
+     * Retrieve the amount of entities in this {@link EntityIndex}.
+     *
+     * @return The amount of entities.
+     */
+    public int size() {
+
+        return this.entries.size();
+    }
+
+    /**
+     * Iterate, in name order, over every entity of this {@link EntityIndex}.
+     *
+     * @return A {@link Stream} of {@link IndexedEntity}.
+     */
+    public Stream<IndexedEntity> entities() {
+
+        return this.entries.values().stream();
+    }
+
+    /**
+     * Iterate, in name order, over the entities whose name starts with the provided prefix.
+     *
+     * @param prefix
+     *         The prefix of the entity names.
+     *
+     * @return A {@link Stream} of {@link IndexedEntity}.
+     */
+    public Stream<IndexedEntity> prefix(String prefix) {
+
+        return this.entries.tailMap(prefix, true).values().stream().takeWhile(entity -> entity.name().startsWith(prefix));
+    }
+
+    /**
+     * Iterate, in name order, over the entities whose name is within the provided range.
+     *
+     * @param from
+     *         The lowest name included, or {@code null} to start from the first entity.
+     * @param to
+     *         The highest name excluded, or {@code null} to stop after the last entity.
+     *
+     * @return A {@link Stream} of {@link IndexedEntity}.
+     */
+    public Stream<IndexedEntity> range(String from, String to) {
+
+        ConcurrentNavigableMap<String, IndexedEntity> view = this.entries;
+
+        if (from != null) view = view.tailMap(from, true);
+        if (to != null) view = view.headMap(to, false);
+
+        return view.values().stream();
+    }
+
+    /**
+     * Rewrite the index file so that it only holds the live entries.
+     *
+     * @throws IOException
+     *         If the index could not be written.
+     */
+    public synchronized void compact() throws IOException {
+
+        this.rewrite();
+    }
+
+    private void compactIfNeeded() throws IOException {
+
+        if (this.records > COMPACT_RECORDS && this.records > this.entries.size() * 2L) {
+            this.rewrite();
+        }
+    }
+
+    private void rewrite() throws IOException {
+
+        Path staging = this.file.resolveSibling(String.format(".%s.tmp", this.file.getFileName()));
+
+        try (FileChannel out = FileChannel.open(
+                staging,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+
+            for (IndexedEntity entity : this.entries.values()) {
+                ByteBuffer buffer = frame(encode(OP_PUT, entity));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(false);
+        }
+
+        if (this.channel != null) this.channel.close();
+        Files.move(staging, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.records = this.entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        this.channel.close();
+        if (!this.stale) Files.write(this.marker, new byte[0]);
+    }
+
+}
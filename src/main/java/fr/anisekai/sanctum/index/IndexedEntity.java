@@ -0,0 +1,21 @@
+package fr.anisekai.sanctum.index;
+
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.time.Instant;
+
+/**
+ * Entry of an {@link EntityIndex}, describing a committed entity of a store.
+ *
+ * @param name
+ *         The scoped name of the entity.
+ * @param created
+ *         The {@link Instant} at which the entity was first committed.
+ * @param modified
+ *         The {@link Instant} at which the entity was last committed.
+ * @param size
+ *         The {@link TransferSize} of the entity content.
+ */
+public record IndexedEntity(String name, Instant created, Instant modified, TransferSize size) {
+
+}
@@ -0,0 +1,106 @@
+package fr.anisekai.sanctum.index;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.listing.DirectoryListing;
+import fr.anisekai.sanctum.listing.ListedEntry;
+import fr.anisekai.sanctum.listing.ListingPage;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link StorageResolver} paging through the entities of an indexed store from its {@link EntityIndex} instead
+ * of scanning the store directories for each page. Every other operation is handled by the wrapped {@link StorageResolver}.
+ *
+ * @param resolver
+ *         The {@link StorageResolver} of the store.
+ * @param store
+ *         The indexed {@link FileStore}.
+ * @param index
+ *         The {@link EntityIndex} of the store.
+ */
+public record IndexedResolver(StorageResolver resolver, FileStore store, EntityIndex index) implements StorageResolver {
+
+    private Path entity(String name) {
+
+        ScopedEntity entity = () -> name;
+
+        if (this.store().type() == StoreType.FILE_SCOPED) {
+            return this.resolver().file(entity);
+        }
+        return this.resolver().directory(entity);
+    }
+
+    @Override
+    public StorageCodec codec() {
+
+        return this.resolver().codec();
+    }
+
+    @Override
+    public Path directory() {
+
+        return this.resolver().directory();
+    }
+
+    @Override
+    public List<Path> directories() {
+
+        return this.resolver().directories();
+    }
+
+    @Override
+    public @Nullable String name(Path entry) {
+
+        return this.resolver().name(entry);
+    }
+
+    @Override
+    public Path directory(String name) {
+
+        return this.resolver().directory(name);
+    }
+
+    @Override
+    public Path file(String filename) {
+
+        return this.resolver().file(filename);
+    }
+
+    @Override
+    public Path directory(ScopedEntity entity) {
+
+        return this.resolver().directory(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity) {
+
+        return this.resolver().file(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity, String filename) {
+
+        return this.resolver().file(entity, filename);
+    }
+
+    @Override
+    public Stream<ListedEntry> list(boolean prefetch) {
+
+        return this.resolver().list(prefetch);
+    }
+
+    @Override
+    public ListingPage page(@Nullable String token, int size, boolean prefetch) {
+
+        return DirectoryListing.page(this.index(), this::entity, token, size, prefetch);
+    }
+
+}
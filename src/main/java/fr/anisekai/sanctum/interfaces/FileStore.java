@@ -34,6 +34,49 @@ public interface FileStore {
         throw new UnsupportedOperationException("This store does not support enforced extensions");
     }
 
+    /**
+     * Check if the content of this {@link FileStore} should be deduplicated. When enabled, committed files are stored once in a
+     * content-addressed area and linked into each {@link ScopedEntity}.
+     *
+     * @return True if the content should be deduplicated, false otherwise.
+     */
+    default boolean deduplicated() {
+
+        return false;
+    }
+
+    /**
+     * Check if the content of this {@link FileStore} should be packed into segment files instead of having one file for each
+     * {@link ScopedEntity}. Only {@link StoreType#FILE_SCOPED} stores can be packed.
+     *
+     * @return True if the content should be packed, false otherwise.
+     */
+    default boolean packed() {
+
+        return false;
+    }
+
+    /**
+     * Retrieve the amount of previous versions of each {@link ScopedEntity} kept when committing. Versions share unchanged files
+     * with the committed content through hard links. Only scoped stores that are not packed can keep versions.
+     *
+     * @return The amount of versions to keep, or {@code 0} to keep none.
+     */
+    default int retention() {
+
+        return 0;
+    }
+
+    /**
+     * Retrieve the {@link StorageCodec} used to encode the content of this {@link FileStore} on the disk.
+     *
+     * @return A {@link StorageCodec}.
+     */
+    default StorageCodec codec() {
+
+        return StorageCodec.identity();
+    }
+
     /**
      * Retrieve this {@link FileStore}'s name. The name is the directory name on the disk.
      *
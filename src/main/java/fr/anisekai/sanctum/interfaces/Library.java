@@ -66,4 +66,28 @@ public interface Library extends IsolationSessionAware, AutoCloseable {
      */
     IsolationSession createIsolation(Set<AccessScope> scopes);
 
+    /**
+     * Open a {@link ReadView} pinning the current content of the provided {@link FileStore}.
+     *
+     * @param stores
+     *         The {@link FileStore} to pin.
+     *
+     * @return The newly opened {@link ReadView}.
+     */
+    default ReadView openView(FileStore... stores) {
+
+        return this.openView(Set.of(stores));
+    }
+
+    /**
+     * Open a {@link ReadView} pinning the current content of the provided {@link FileStore} set. The content of every store is
+     * pinned at the same point in time: a commit is either visible in all of them or in none.
+     *
+     * @param stores
+     *         The {@link FileStore} to pin.
+     *
+     * @return The newly opened {@link ReadView}.
+     */
+    ReadView openView(Set<FileStore> stores);
+
 }
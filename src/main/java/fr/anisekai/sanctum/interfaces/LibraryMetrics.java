@@ -0,0 +1,67 @@
+package fr.anisekai.sanctum.interfaces;
+
+import fr.anisekai.sanctum.enums.LibraryOperation;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Interface receiving the measurements of a library: the latency of its operations, the content it copies and deletes, and
+ * gauges describing its current state. Every method is called on the thread performing the operation, so implementations must
+ * be thread-safe and should not block.
+ */
+public interface LibraryMetrics {
+
+    /**
+     * Create a {@link LibraryMetrics} ignoring every measurement.
+     *
+     * @return A {@link LibraryMetrics}.
+     */
+    static LibraryMetrics noop() {
+
+        return new LibraryMetrics() {};
+    }
+
+    /**
+     * Record the duration of an operation.
+     *
+     * @param operation
+     *         The {@link LibraryOperation} performed.
+     * @param store
+     *         The {@link FileStore} targeted by the operation, or {@code null} if the operation is not related to a store.
+     * @param policy
+     *         The {@link StorePolicy} applied by the operation, or {@code null} if no policy was applied.
+     * @param nanos
+     *         The duration of the operation, in nanoseconds.
+     */
+    default void record(LibraryOperation operation, @Nullable FileStore store, @Nullable StorePolicy policy, long nanos) {}
+
+    /**
+     * Record content copied by the library.
+     *
+     * @param size
+     *         The {@link TransferSize} of the copied content.
+     */
+    default void copied(TransferSize size) {}
+
+    /**
+     * Record content deleted by the library.
+     *
+     * @param size
+     *         The {@link TransferSize} of the deleted content.
+     */
+    default void deleted(TransferSize size) {}
+
+    /**
+     * Register a gauge whose value is read when the measurements are exported.
+     *
+     * @param name
+     *         The name of the gauge.
+     * @param gauge
+     *         The {@link LongSupplier} providing the current value of the gauge.
+     */
+    default void gauge(String name, LongSupplier gauge) {}
+
+}
@@ -0,0 +1,52 @@
+package fr.anisekai.sanctum.interfaces;
+
+import fr.anisekai.sanctum.placement.ConsistentHashRing;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Interface defining on which root a library spanning several roots places the content of its {@link FileStore}. The placement
+ * must be deterministic: the same store and entity must always be placed on the same root for a given amount of roots.
+ */
+@FunctionalInterface
+public interface PlacementStrategy {
+
+    /**
+     * Create a {@link PlacementStrategy} placing every store as a whole on a root chosen by consistent hashing of its name.
+     *
+     * @return A {@link PlacementStrategy}.
+     */
+    static PlacementStrategy perStore() {
+
+        return (store, entity, roots) -> ConsistentHashRing.of(roots).node(store.name());
+    }
+
+    /**
+     * Create a {@link PlacementStrategy} placing each entity of scoped stores on a root chosen by consistent hashing of its store
+     * and scoped name. Content not related to an entity is placed as with {@link #perStore()}.
+     *
+     * @return A {@link PlacementStrategy}.
+     */
+    static PlacementStrategy perEntity() {
+
+        return (store, entity, roots) -> {
+            ConsistentHashRing ring = ConsistentHashRing.of(roots);
+            if (entity == null || !store.type().isScoped()) return ring.node(store.name());
+            return ring.node(String.format("%s/%s", store.name(), entity));
+        };
+    }
+
+    /**
+     * Retrieve the index of the root on which the provided content should be placed.
+     *
+     * @param store
+     *         The {@link FileStore} of the content.
+     * @param entity
+     *         The scoped name of the entity, or {@code null} when resolving content not related to a specific entity.
+     * @param roots
+     *         The amount of roots of the library.
+     *
+     * @return The index of a root, between {@code 0} (inclusive) and {@code roots} (exclusive).
+     */
+    int place(FileStore store, @Nullable String entity, int roots);
+
+}
@@ -0,0 +1,49 @@
+package fr.anisekai.sanctum.interfaces;
+
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Interface representing a point-in-time view of one or more {@link FileStore} of a {@link Library}. Content resolved through a
+ * {@link ReadView} reflects the library as it was when the view was opened, no matter how many commits happened since, until
+ * the view is closed.
+ * <p>
+ * Content resolved through a {@link ReadView} must only be read.
+ */
+public interface ReadView extends StorageAware, AutoCloseable {
+
+    /**
+     * Retrieve the uuid of this {@link ReadView}.
+     *
+     * @return The uuid
+     */
+    UUID uuid();
+
+    /**
+     * Retrieve every {@link FileStore} pinned by this {@link ReadView}. Only those can be resolved through
+     * {@link #getResolver(FileStore)}.
+     *
+     * @return A {@link Set} of {@link FileStore}.
+     */
+    Set<FileStore> stores();
+
+    /**
+     * Retrieve a {@link StorageResolver} for the provided pinned {@link FileStore}.
+     *
+     * @param store
+     *         A {@link FileStore} pinned by this {@link ReadView}.
+     *
+     * @return A {@link StorageResolver}.
+     */
+    @Override
+    StorageResolver getResolver(FileStore store);
+
+    /**
+     * Release the content pinned by this {@link ReadView}.
+     */
+    @Override
+    void close();
+
+}
@@ -3,7 +3,9 @@ package fr.anisekai.sanctum.interfaces;
 import fr.anisekai.sanctum.AccessScope;
 import fr.anisekai.sanctum.enums.StoreType;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.streaming.ContentChannel;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -31,10 +33,15 @@ public interface StorageAware {
      */
     default Path resolve(AccessScope scope) {
 
+        return resolve(this.getResolver(scope.store()), scope);
+    }
+
+    private static Path resolve(StorageResolver resolver, AccessScope scope) {
+
         if (scope.store().type() == StoreType.FILE_SCOPED) {
-            return this.getResolver(scope.store()).file(scope.claim());
+            return resolver.file(scope.claim());
         }
-        return this.getResolver(scope.store()).directory(scope.claim());
+        return resolver.directory(scope.claim());
     }
 
     /**
@@ -52,4 +59,54 @@ public interface StorageAware {
         return this.getResolver(scope.store()).file(scope.claim(), filename);
     }
 
+    /**
+     * Open a {@link ContentChannel} on the file of the provided {@link AccessScope}, allowing to stream byte ranges of the file
+     * without copying them through the heap.
+     *
+     * @param scope
+     *         The {@link AccessScope} to open.
+     *
+     * @return A {@link ContentChannel}.
+     *
+     * @throws IOException
+     *         If the file could not be opened.
+     * @throws UnsupportedOperationException
+     *         If the content is encoded on the disk.
+     */
+    default ContentChannel open(AccessScope scope) throws IOException {
+
+        StorageResolver resolver = this.getResolver(scope.store());
+        return open(resolver, resolve(resolver, scope));
+    }
+
+    /**
+     * Open a {@link ContentChannel} on the file with the provided name within the directory of the provided {@link AccessScope},
+     * allowing to stream byte ranges of the file without copying them through the heap.
+     *
+     * @param scope
+     *         The {@link AccessScope} to open.
+     * @param filename
+     *         The file name to open.
+     *
+     * @return A {@link ContentChannel}.
+     *
+     * @throws IOException
+     *         If the file could not be opened.
+     * @throws UnsupportedOperationException
+     *         If the content is encoded on the disk.
+     */
+    default ContentChannel open(AccessScope scope, String filename) throws IOException {
+
+        StorageResolver resolver = this.getResolver(scope.store());
+        return open(resolver, resolver.file(scope.claim(), filename));
+    }
+
+    private static ContentChannel open(StorageResolver resolver, Path path) throws IOException {
+
+        if (!resolver.codec().isIdentity()) {
+            throw new UnsupportedOperationException("Encoded content cannot be streamed as-is.");
+        }
+        return ContentChannel.open(path);
+    }
+
 }
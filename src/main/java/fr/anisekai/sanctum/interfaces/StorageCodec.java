@@ -0,0 +1,84 @@
+package fr.anisekai.sanctum.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Interface defining how the content of a {@link FileStore} is encoded on the disk. The content is always encoded when being
+ * committed to the library, and decoded when being read through a library resolver.
+ */
+public interface StorageCodec {
+
+    /**
+     * Create a {@link StorageCodec} that leaves the content untouched.
+     *
+     * @return A {@link StorageCodec}.
+     */
+    static StorageCodec identity() {
+
+        return new StorageCodec() {
+            @Override
+            public String name() {
+
+                return "identity";
+            }
+
+            @Override
+            public InputStream decode(InputStream source) {
+
+                return source;
+            }
+
+            @Override
+            public OutputStream encode(OutputStream target) {
+
+                return target;
+            }
+        };
+    }
+
+    /**
+     * Retrieve this {@link StorageCodec}'s name.
+     *
+     * @return The codec name.
+     */
+    String name();
+
+    /**
+     * Check if this {@link StorageCodec} leaves the content untouched, allowing the content to be copied as-is.
+     *
+     * @return True if the content is not modified by this {@link StorageCodec}, false otherwise.
+     */
+    default boolean isIdentity() {
+
+        return "identity".equals(this.name());
+    }
+
+    /**
+     * Wrap the provided {@link InputStream} to decode the content read from the disk.
+     *
+     * @param source
+     *         The {@link InputStream} reading the encoded content.
+     *
+     * @return An {@link InputStream} reading the decoded content.
+     *
+     * @throws IOException
+     *         If the decoding stream could not be created.
+     */
+    InputStream decode(InputStream source) throws IOException;
+
+    /**
+     * Wrap the provided {@link OutputStream} to encode the content written to the disk.
+     *
+     * @param target
+     *         The {@link OutputStream} writing the encoded content.
+     *
+     * @return An {@link OutputStream} accepting the decoded content.
+     *
+     * @throws IOException
+     *         If the encoding stream could not be created.
+     */
+    OutputStream encode(OutputStream target) throws IOException;
+
+}
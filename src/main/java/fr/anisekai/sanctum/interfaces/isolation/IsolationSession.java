@@ -1,6 +1,7 @@
 package fr.anisekai.sanctum.interfaces.isolation;
 
 import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.chunks.ChunkedFile;
 import fr.anisekai.sanctum.exceptions.context.ContextCommitException;
 import fr.anisekai.sanctum.exceptions.context.ContextDiscardException;
 import fr.anisekai.sanctum.exceptions.scope.ScopeGrantException;
@@ -10,6 +11,7 @@ import fr.anisekai.sanctum.interfaces.ScopedEntity;
 import fr.anisekai.sanctum.interfaces.StorageAware;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.UUID;
 
@@ -45,6 +47,34 @@ public interface IsolationSession extends StorageAware, ScopedEntity, AutoClosea
         return this.owner().requestTemporaryFile(this, extension);
     }
 
+    /**
+     * Retrieve a {@link Path} pointing to a temporary file within this {@link IsolationSession}, created with the provided size so
+     * that it can be written without being extended. The file must be opened without truncating it.
+     *
+     * @param extension
+     *         The file extension of the temporary file.
+     * @param sizeHint
+     *         The expected size of the file, in bytes.
+     *
+     * @return A {@link Path} pointing to a temporary file
+     */
+    default Path requestTemporaryFile(String extension, long sizeHint) {
+
+        return this.owner().requestTemporaryFile(this, extension, sizeHint);
+    }
+
+    /**
+     * Release a temporary file obtained from this {@link IsolationSession}, deleting it right away instead of waiting for this
+     * {@link IsolationSession} to be discarded.
+     *
+     * @param path
+     *         The {@link Path} of the temporary file.
+     */
+    default void releaseTemporaryFile(Path path) {
+
+        this.owner().releaseTemporaryFile(this, path);
+    }
+
     /**
      * Request one or more {@link AccessScope} to claim for this {@link IsolationSession}.
      *
@@ -60,6 +90,46 @@ public interface IsolationSession extends StorageAware, ScopedEntity, AutoClosea
         this.owner().requestScope(this, scopes);
     }
 
+    /**
+     * Create a {@link ChunkedFile} of the provided size for the provided {@link AccessScope}, allowing several threads to write
+     * distinct regions of the file at once.
+     *
+     * @param scope
+     *         The {@link AccessScope} of a file scoped store.
+     * @param size
+     *         The final size of the file, in bytes.
+     *
+     * @return A {@link ChunkedFile}.
+     *
+     * @throws IOException
+     *         If the file could not be created.
+     */
+    default ChunkedFile createChunkedFile(AccessScope scope, long size) throws IOException {
+
+        return ChunkedFile.create(this.resolve(scope), size);
+    }
+
+    /**
+     * Create a {@link ChunkedFile} of the provided size with the provided name within the directory of the provided
+     * {@link AccessScope}, allowing several threads to write distinct regions of the file at once.
+     *
+     * @param scope
+     *         The {@link AccessScope} of a directory scoped store.
+     * @param filename
+     *         The file name to create.
+     * @param size
+     *         The final size of the file, in bytes.
+     *
+     * @return A {@link ChunkedFile}.
+     *
+     * @throws IOException
+     *         If the file could not be created.
+     */
+    default ChunkedFile createChunkedFile(AccessScope scope, String filename, long size) throws IOException {
+
+        return ChunkedFile.create(this.resolve(scope, filename), size);
+    }
+
     /**
      * Commit this {@link IsolationSession} to the main storage.
      *
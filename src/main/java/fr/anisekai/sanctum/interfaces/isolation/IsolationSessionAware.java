@@ -39,7 +39,36 @@ public interface IsolationSessionAware extends StorageAware {
      *
      * @return A {@link Path} pointing to a temporary file.
      */
-    Path requestTemporaryFile(IsolationSession context, String extension);
+    default Path requestTemporaryFile(IsolationSession context, String extension) {
+
+        return this.requestTemporaryFile(context, extension, 0);
+    }
+
+    /**
+     * Retrieve a {@link Path} pointing to a temporary file withing the provided {@link IsolationSession}, created with the provided
+     * size so that it can be written without being extended.
+     *
+     * @param context
+     *         The {@link IsolationSession} defining the isolation context.
+     * @param extension
+     *         The file extension for the temporary file.
+     * @param sizeHint
+     *         The expected size of the file, or {@code 0} to leave the file uncreated.
+     *
+     * @return A {@link Path} pointing to a temporary file.
+     */
+    Path requestTemporaryFile(IsolationSession context, String extension, long sizeHint);
+
+    /**
+     * Release a temporary file obtained from {@link #requestTemporaryFile(IsolationSession, String)} before the
+     * {@link IsolationSession} is discarded, deleting it.
+     *
+     * @param context
+     *         The {@link IsolationSession} defining the isolation context.
+     * @param path
+     *         The {@link Path} of the temporary file.
+     */
+    void releaseTemporaryFile(IsolationSession context, Path path);
 
     /**
      * Try to claim {@link AccessScope} for the provided {@link IsolationSession}.
@@ -1,6 +1,7 @@
 package fr.anisekai.sanctum.interfaces.isolation;
 
 import fr.anisekai.sanctum.AccessScope;
+import fr.anisekai.sanctum.temporary.TemporaryAllocator;
 
 import java.util.Collection;
 import java.util.UUID;
@@ -66,4 +67,11 @@ public interface IsolationSessionDescriptor {
      */
     void setCommitted(boolean committed);
 
+    /**
+     * Retrieve the {@link TemporaryAllocator} handing out the temporary files of the underlying {@link IsolationSession}.
+     *
+     * @return A {@link TemporaryAllocator}.
+     */
+    TemporaryAllocator temporaryAllocator();
+
 }
@@ -0,0 +1,62 @@
+package fr.anisekai.sanctum.interfaces.resolvers;
+
+import fr.anisekai.sanctum.enums.PathKind;
+
+import java.nio.file.Path;
+
+/**
+ * Interface defining a cache holding the {@link PathKind} of {@link Path} resolved by a {@link StorageWalker}, allowing to avoid
+ * hitting the filesystem each time a directory or a file needs to be told apart.
+ */
+public interface MetadataCache {
+
+    /**
+     * Create a {@link MetadataCache} that does not cache anything and always query the filesystem.
+     *
+     * @return A {@link MetadataCache}.
+     */
+    static MetadataCache disabled() {
+
+        return new MetadataCache() {
+            @Override
+            public PathKind kind(Path path) {
+
+                return PathKind.of(path);
+            }
+
+            @Override
+            public void invalidate(Path path) {
+
+            }
+
+            @Override
+            public void invalidateAll() {
+
+            }
+        };
+    }
+
+    /**
+     * Retrieve the {@link PathKind} of the provided {@link Path}, either from the cache or from the filesystem.
+     *
+     * @param path
+     *         The {@link Path} to check.
+     *
+     * @return A {@link PathKind}.
+     */
+    PathKind kind(Path path);
+
+    /**
+     * Invalidate the cached {@link PathKind} of the provided {@link Path} and of every {@link Path} located within it.
+     *
+     * @param path
+     *         The {@link Path} to invalidate.
+     */
+    void invalidate(Path path);
+
+    /**
+     * Invalidate every cached {@link PathKind}.
+     */
+    void invalidateAll();
+
+}
@@ -1,8 +1,24 @@
 package fr.anisekai.sanctum.interfaces.resolvers;
 
+import fr.anisekai.sanctum.interfaces.FileStore;
 import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.listing.DirectoryListing;
+import fr.anisekai.sanctum.listing.ListedEntry;
+import fr.anisekai.sanctum.listing.ListingPage;
+import fr.anisekai.sanctum.mapping.MappedView;
+import fr.anisekai.sanctum.mapping.MappingRegistry;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This interface provides methods to retrieve {@link Path} instances representing directories and files, based on either simple
@@ -70,4 +86,172 @@ public interface StorageResolver {
      */
     Path file(ScopedEntity entity, String filename);
 
+    /**
+     * Retrieve every directory holding content resolved by this {@link StorageResolver}. A {@link StorageResolver} spanning
+     * several roots holds its content in several directories.
+     *
+     * @return A {@link List} of {@link Path} pointing to directories, which are not guaranteed to exist.
+     */
+    default List<Path> directories() {
+
+        return List.of(this.directory());
+    }
+
+    /**
+     * Retrieve the name under which the provided entry of one of the {@link #directories()} is listed.
+     *
+     * @param entry
+     *         The {@link Path} of the entry.
+     *
+     * @return The name of the entry, or {@code null} if the entry is not part of the resolved content.
+     */
+    default @Nullable String name(Path entry) {
+
+        return entry.getFileName().toString();
+    }
+
+    /**
+     * Lazily list the entries of this {@link StorageResolver}, in no particular order: the entities of a scoped store, or the
+     * files and directories of any other store. The returned {@link Stream} holds an open directory and must be closed.
+     *
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each entry while listing it.
+     *
+     * @return A {@link Stream} of {@link ListedEntry}.
+     */
+    default Stream<ListedEntry> list(boolean prefetch) {
+
+        return DirectoryListing.stream(this.directories(), this::name, prefetch);
+    }
+
+    /**
+     * Lazily list the files within the directory of the provided {@link ScopedEntity}, in no particular order. The returned
+     * {@link Stream} holds an open directory and must be closed.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} for which the directory should be listed.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each file while listing it.
+     *
+     * @return A {@link Stream} of {@link ListedEntry}.
+     */
+    default Stream<ListedEntry> list(ScopedEntity entity, boolean prefetch) {
+
+        return DirectoryListing.stream(List.of(this.directory(entity)), entry -> entry.getFileName().toString(), prefetch);
+    }
+
+    /**
+     * Retrieve a page of the entries of this {@link StorageResolver}, ordered by name. Only the entries of the page are kept in
+     * memory, whatever the amount of entries, but every directory is scanned again for each page.
+     *
+     * @param token
+     *         The {@link ListingPage#next()} token of the previous page, or {@code null} to retrieve the first page.
+     * @param size
+     *         The maximum amount of entries in the page.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each entry of the page.
+     *
+     * @return A {@link ListingPage}.
+     * @see DirectoryListing
+     */
+    default ListingPage page(@Nullable String token, int size, boolean prefetch) {
+
+        return DirectoryListing.page(this.directories(), this::name, token, size, prefetch);
+    }
+
+    /**
+     * Retrieve the {@link StorageCodec} used to encode the content resolved by this {@link StorageResolver}.
+     *
+     * @return A {@link StorageCodec}.
+     */
+    default StorageCodec codec() {
+
+        return StorageCodec.identity();
+    }
+
+    /**
+     * Open an {@link InputStream} reading the decoded content of the file of the provided {@link ScopedEntity}.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} for which the file should be read.
+     *
+     * @return An {@link InputStream}.
+     *
+     * @throws IOException
+     *         If the file could not be opened.
+     * @see FileStore#codec()
+     */
+    default InputStream newInputStream(ScopedEntity entity) throws IOException {
+
+        return this.codec().decode(Files.newInputStream(this.file(entity)));
+    }
+
+    /**
+     * Open an {@link OutputStream} writing encoded content to the file of the provided {@link ScopedEntity}.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} for which the file should be written.
+     * @param options
+     *         An array of {@link OpenOption} to use when opening the file.
+     *
+     * @return An {@link OutputStream}.
+     *
+     * @throws IOException
+     *         If the file could not be opened.
+     * @see FileStore#codec()
+     */
+    default OutputStream newOutputStream(ScopedEntity entity, OpenOption... options) throws IOException {
+
+        return this.codec().encode(Files.newOutputStream(this.file(entity), options));
+    }
+
+    /**
+     * Map the file of the provided {@link ScopedEntity} in memory. Mappings are shared through the global
+     * {@link MappingRegistry}, and the returned {@link MappedView} must be closed once the content is not needed anymore.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} for which the file should be mapped.
+     *
+     * @return A {@link MappedView}.
+     *
+     * @throws IOException
+     *         If the file could not be mapped.
+     * @throws UnsupportedOperationException
+     *         If the content is encoded on the disk.
+     */
+    default MappedView map(ScopedEntity entity) throws IOException {
+
+        return this.map(this.file(entity));
+    }
+
+    /**
+     * Map the file with the provided name within the directory of the provided {@link ScopedEntity} in memory. Mappings are
+     * shared through the global {@link MappingRegistry}, and the returned {@link MappedView} must be closed once the content is
+     * not needed anymore.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} for which the directory should be resolved.
+     * @param filename
+     *         The file name to map.
+     *
+     * @return A {@link MappedView}.
+     *
+     * @throws IOException
+     *         If the file could not be mapped.
+     * @throws UnsupportedOperationException
+     *         If the content is encoded on the disk.
+     */
+    default MappedView map(ScopedEntity entity, String filename) throws IOException {
+
+        return this.map(this.file(entity, filename));
+    }
+
+    private MappedView map(Path path) throws IOException {
+
+        if (!this.codec().isIdentity()) {
+            throw new UnsupportedOperationException("Encoded content cannot be mapped in memory.");
+        }
+        return MappingRegistry.global().acquire(path);
+    }
+
 }
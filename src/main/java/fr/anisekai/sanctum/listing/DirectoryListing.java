@@ -0,0 +1,245 @@
+package fr.anisekai.sanctum.listing;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.index.EntityIndex;
+import fr.anisekai.sanctum.index.IndexedEntity;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy listing of the entries of one or several directories, used by {@link StorageResolver} to enumerate its content without
+ * collecting it. Hidden entries, used for staging copies and backups, are never listed. Entries removed while being listed are
+ * skipped when their attributes are read.
+ * <p>
+ * Pages are ordered by name and only hold the entries of the page while the directories are scanned, so that a store can be paged
+ * through in constant memory whatever its size. Directories are not sorted on the disk, so each page scans every directory again
+ * and skips the entries up to the one named by the token of the previous page: paging through a store of {@code N} entries costs
+ * {@code O(N)} per page. Stores with an {@link EntityIndex} are paged from their index instead, which only reads the entries of
+ * the page.
+ */
+public final class DirectoryListing {
+
+    private DirectoryListing() {}
+
+    /**
+     * Stream the entries of the provided directories, in no particular order. Directories are only opened once the stream reaches
+     * them, and the returned {@link Stream} must be closed to release the one being read.
+     *
+     * @param directories
+     *         The directories to list. Directories that do not exist are skipped.
+     * @param namer
+     *         The {@link Function} naming an entry from its {@link Path}, returning {@code null} for entries that must be skipped.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each entry.
+     *
+     * @return A {@link Stream} of {@link ListedEntry}.
+     */
+    public static Stream<ListedEntry> stream(List<Path> directories, Function<Path, @Nullable String> namer, boolean prefetch) {
+
+        Stream<ListedEntry> entries = directories.stream().flatMap(directory -> entries(directory, namer));
+        if (!prefetch) return entries;
+
+        return entries.mapMulti((entry, consumer) -> {
+            BasicFileAttributes attributes = attributes(entry.path());
+            if (attributes != null) consumer.accept(new ListedEntry(entry.name(), entry.path(), attributes));
+        });
+    }
+
+    /**
+     * Retrieve a page of the entries of the provided directories, ordered by name. An entry present in several directories is
+     * listed once, with the {@link Path} found in the first directory holding it.
+     *
+     * @param directories
+     *         The directories to list. Directories that do not exist are skipped.
+     * @param namer
+     *         The {@link Function} naming an entry from its {@link Path}, returning {@code null} for entries that must be skipped.
+     * @param token
+     *         The token of the previous page, or {@code null} to retrieve the first page.
+     * @param size
+     *         The maximum amount of entries in the page.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each entry of the page.
+     *
+     * @return A {@link ListingPage}.
+     */
+    public static ListingPage page(
+            List<Path> directories,
+            Function<Path, @Nullable String> namer,
+            @Nullable String token,
+            int size,
+            boolean prefetch
+    ) {
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("The page size must be positive.");
+        }
+
+        String                after    = token == null ? null : decode(token);
+        TreeMap<String, Path> selected = new TreeMap<>();
+
+        // Keep one more entry than requested to know whether a next page exists.
+        for (Path directory : directories) {
+            try (Stream<ListedEntry> entries = entries(directory, namer)) {
+                entries.forEach(entry -> {
+                    if (after != null && entry.name().compareTo(after) <= 0) return;
+                    if (selected.size() > size && entry.name().compareTo(selected.lastKey()) >= 0) return;
+
+                    selected.putIfAbsent(entry.name(), entry.path());
+                    if (selected.size() > size + 1) selected.pollLastEntry();
+                });
+            }
+        }
+
+        String next = null;
+        if (selected.size() > size) {
+            selected.pollLastEntry();
+            next = encode(selected.lastKey());
+        }
+
+        List<ListedEntry> page = new ArrayList<>(selected.size());
+        for (Map.Entry<String, Path> entry : selected.entrySet()) {
+            if (!prefetch) {
+                page.add(new ListedEntry(entry.getKey(), entry.getValue(), null));
+                continue;
+            }
+
+            BasicFileAttributes attributes = attributes(entry.getValue());
+            if (attributes != null) page.add(new ListedEntry(entry.getKey(), entry.getValue(), attributes));
+        }
+
+        return new ListingPage(List.copyOf(page), next);
+    }
+
+    /**
+     * Retrieve a page of the entities recorded by the provided {@link EntityIndex}, ordered by name. Unlike listing directories,
+     * only the entries of the page are read.
+     *
+     * @param index
+     *         The {@link EntityIndex} of the listed store.
+     * @param locator
+     *         The {@link Function} resolving the {@link Path} of an entity from its name.
+     * @param token
+     *         The token of the previous page, or {@code null} to retrieve the first page.
+     * @param size
+     *         The maximum amount of entries in the page.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of each entry of the page.
+     *
+     * @return A {@link ListingPage}.
+     */
+    public static ListingPage page(
+            EntityIndex index,
+            Function<String, Path> locator,
+            @Nullable String token,
+            int size,
+            boolean prefetch
+    ) {
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("The page size must be positive.");
+        }
+
+        String       after = token == null ? null : decode(token);
+        List<String> names;
+
+        // Keep one more entry than requested to know whether a next page exists.
+        try (Stream<IndexedEntity> entities = index.range(after, null)) {
+            names = entities.map(IndexedEntity::name).filter(name -> !name.equals(after)).limit(size + 1L).toList();
+        }
+
+        String next = null;
+        if (names.size() > size) {
+            names = names.subList(0, size);
+            next  = encode(names.getLast());
+        }
+
+        List<ListedEntry> page = new ArrayList<>(names.size());
+        for (String name : names) {
+            Path path = locator.apply(name);
+            if (!prefetch) {
+                page.add(new ListedEntry(name, path, null));
+                continue;
+            }
+
+            BasicFileAttributes attributes = attributes(path);
+            if (attributes != null) page.add(new ListedEntry(name, path, attributes));
+        }
+
+        return new ListingPage(List.copyOf(page), next);
+    }
+
+    private static Stream<ListedEntry> entries(Path directory, Function<Path, @Nullable String> namer) {
+
+        DirectoryStream<Path> stream;
+
+        try {
+            stream = Files.newDirectoryStream(directory, entry -> !entry.getFileName().toString().startsWith("."));
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+
+        Spliterator<Path> spliterator = Spliterators.spliteratorUnknownSize(
+                stream.iterator(),
+                Spliterator.DISTINCT | Spliterator.NONNULL
+        );
+
+        return StreamSupport.stream(spliterator, false).<ListedEntry>mapMulti((path, consumer) -> {
+            String name = namer.apply(path);
+            if (name != null) consumer.accept(new ListedEntry(name, path, null));
+        }).onClose(() -> {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        });
+    }
+
+    private static @Nullable BasicFileAttributes attributes(Path path) {
+
+        // Links are followed, as generational stores expose each entity as a link to its current generation.
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // The entry has been removed since it was listed.
+            return null;
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private static String encode(String name) {
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String token) {
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new StorageException(String.format("Invalid listing token '%s'", token));
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package fr.anisekai.sanctum.listing;
+
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Entry found while listing the content of a {@link StorageResolver}.
+ *
+ * @param name
+ *         The name of the entry: the scoped name of the entity when listing a scoped store, the file name otherwise.
+ * @param path
+ *         The {@link Path} of the entry.
+ * @param attributes
+ *         The {@link BasicFileAttributes} of the entry, or {@code null} if they were not requested.
+ */
+public record ListedEntry(String name, Path path, @Nullable BasicFileAttributes attributes) {
+
+}
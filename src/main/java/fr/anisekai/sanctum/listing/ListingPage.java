@@ -0,0 +1,18 @@
+package fr.anisekai.sanctum.listing;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of entries listed by {@link DirectoryListing#page(List, Function, String, int, boolean)}, ordered by name.
+ *
+ * @param entries
+ *         The {@link ListedEntry} of the page.
+ * @param next
+ *         The token to provide to retrieve the next page, or {@code null} if this page is the last one.
+ */
+public record ListingPage(List<ListedEntry> entries, @Nullable String next) {
+
+}
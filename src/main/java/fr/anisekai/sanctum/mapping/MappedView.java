@@ -0,0 +1,62 @@
+package fr.anisekai.sanctum.mapping;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle on a read-only memory mapping acquired from a {@link MappingRegistry}. The content must not be accessed once this
+ * {@link MappedView} has been closed, as the file might have been unmapped.
+ */
+public final class MappedView implements AutoCloseable {
+
+    private final MappingRegistry               registry;
+    private final MappingRegistry.SharedMapping mapping;
+    private final AtomicBoolean                 closed = new AtomicBoolean(false);
+
+    MappedView(MappingRegistry registry, MappingRegistry.SharedMapping mapping) {
+
+        this.registry = registry;
+        this.mapping  = mapping;
+    }
+
+    /**
+     * Retrieve the read-only {@link MemorySegment} covering the whole file.
+     *
+     * @return A {@link MemorySegment}.
+     */
+    public MemorySegment segment() {
+
+        return this.mapping.segment();
+    }
+
+    /**
+     * Retrieve a read-only {@link ByteBuffer} covering the whole file. This is only possible for files smaller than 2 GiB, use
+     * {@link #segment()} for bigger files.
+     *
+     * @return A {@link ByteBuffer}.
+     */
+    public ByteBuffer buffer() {
+
+        return this.mapping.segment().asByteBuffer();
+    }
+
+    /**
+     * Retrieve the size of the mapped file.
+     *
+     * @return The size, in bytes.
+     */
+    public long size() {
+
+        return this.mapping.segment().byteSize();
+    }
+
+    @Override
+    public void close() {
+
+        if (this.closed.compareAndSet(false, true)) {
+            this.registry.release(this.mapping);
+        }
+    }
+
+}
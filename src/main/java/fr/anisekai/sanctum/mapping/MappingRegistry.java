@@ -0,0 +1,163 @@
+package fr.anisekai.sanctum.mapping;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry sharing read-only memory mappings of files between every consumer. Each mapping is bound to a shared {@link Arena} and
+ * reference-counted: the file is unmapped as soon as the last {@link MappedView} using it is closed, without waiting for the
+ * garbage collector.
+ * <p>
+ * When a file is replaced (for example by a commit), the next acquisition creates a new mapping, while the previous one stays
+ * valid until every {@link MappedView} using it is closed.
+ */
+public final class MappingRegistry {
+
+    private static final MappingRegistry GLOBAL = new MappingRegistry();
+
+    private final Map<Path, SharedMapping> mappings = new HashMap<>();
+
+    /**
+     * Retrieve the {@link MappingRegistry} shared by the whole application.
+     *
+     * @return A {@link MappingRegistry}.
+     */
+    public static MappingRegistry global() {
+
+        return GLOBAL;
+    }
+
+    /**
+     * Acquire a read-only mapping of the provided file. The returned {@link MappedView} must be closed once the content is not
+     * needed anymore.
+     *
+     * @param path
+     *         The {@link Path} of the file to map.
+     *
+     * @return A {@link MappedView}.
+     *
+     * @throws IOException
+     *         If the file could not be mapped.
+     */
+    public MappedView acquire(Path path) throws IOException {
+
+        Path key = path.toAbsolutePath().normalize();
+
+        try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            // The size is taken from the opened file, so that a file replaced after being opened is mapped again next time.
+            FileVersion version = new FileVersion(attributes.fileKey(), channel.size(), attributes.lastModifiedTime());
+
+            synchronized (this) {
+                MappedView view = this.share(key, version);
+                if (view != null) return view;
+            }
+
+            // Mapping is slow, and the registry is shared by the whole application: it is done without holding the lock.
+            SharedMapping mapping = map(key, version, channel);
+            MappedView    view;
+
+            synchronized (this) {
+                view = this.share(key, version);
+
+                if (view == null) {
+                    this.mappings.put(key, mapping);
+                    mapping.references++;
+                    return new MappedView(this, mapping);
+                }
+            }
+
+            // Another acquisition mapped the same version in the meantime.
+            mapping.arena.close();
+            return view;
+        }
+    }
+
+    /**
+     * Share the mapping of the provided version of a file, if it is already mapped. Must be called while holding the lock of this
+     * {@link MappingRegistry}.
+     *
+     * @param key
+     *         The normalized {@link Path} of the file.
+     * @param version
+     *         The {@link FileVersion} of the file.
+     *
+     * @return A {@link MappedView} on the existing mapping, or {@code null} if this version of the file is not mapped.
+     */
+    private @Nullable MappedView share(Path key, FileVersion version) {
+
+        SharedMapping mapping = this.mappings.get(key);
+        if (mapping == null || !mapping.version.equals(version)) return null;
+
+        mapping.references++;
+        return new MappedView(this, mapping);
+    }
+
+    /**
+     * Retrieve the amount of files currently mapped through this {@link MappingRegistry}.
+     *
+     * @return The amount of mapped files.
+     */
+    public synchronized int size() {
+
+        return this.mappings.size();
+    }
+
+    synchronized void release(SharedMapping mapping) {
+
+        if (--mapping.references > 0) return;
+
+        this.mappings.remove(mapping.path, mapping);
+        mapping.arena.close();
+    }
+
+    private static SharedMapping map(Path path, FileVersion version, FileChannel channel) throws IOException {
+
+        Arena arena = Arena.ofShared();
+
+        try {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, version.size(), arena);
+            return new SharedMapping(path, version, arena, segment.asReadOnly());
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private record FileVersion(Object fileKey, long size, FileTime lastModified) {}
+
+    static final class SharedMapping {
+
+        private final Path          path;
+        private final FileVersion   version;
+        private final Arena         arena;
+        private final MemorySegment segment;
+        private       int           references = 0;
+
+        private SharedMapping(Path path, FileVersion version, Arena arena, MemorySegment segment) {
+
+            this.path    = path;
+            this.version = version;
+            this.arena   = arena;
+            this.segment = segment;
+        }
+
+        MemorySegment segment() {
+
+            return this.segment;
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package fr.anisekai.sanctum.metrics;
+
+import fr.anisekai.sanctum.enums.LibraryOperation;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.LibraryMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link LibraryMetrics} keeping every measurement in memory without locking: a {@link LatencyHistogram} per operation, store and
+ * policy, and counters for the copied and deleted content. Its content is meant to be read periodically and exported to a
+ * monitoring system.
+ */
+public final class InProcessMetrics implements LibraryMetrics {
+
+    private final Map<MetricKey, LatencyHistogram> histograms   = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier>        gauges       = new ConcurrentHashMap<>();
+    private final LongAdder                        copiedFiles  = new LongAdder();
+    private final LongAdder                        copiedBytes  = new LongAdder();
+    private final LongAdder                        deletedFiles = new LongAdder();
+    private final LongAdder                        deletedBytes = new LongAdder();
+
+    @Override
+    public void record(LibraryOperation operation, @Nullable FileStore store, @Nullable StorePolicy policy, long nanos) {
+
+        MetricKey key = new MetricKey(operation, store == null ? null : store.name(), policy);
+        this.histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void copied(TransferSize size) {
+
+        this.copiedFiles.add(size.files());
+        this.copiedBytes.add(size.bytes());
+    }
+
+    @Override
+    public void deleted(TransferSize size) {
+
+        this.deletedFiles.add(size.files());
+        this.deletedBytes.add(size.bytes());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier gauge) {
+
+        this.gauges.put(name, gauge);
+    }
+
+    /**
+     * Retrieve every {@link LatencyHistogram} recorded so far.
+     *
+     * @return A {@link Map} associating each {@link MetricKey} to its {@link LatencyHistogram}.
+     */
+    public Map<MetricKey, LatencyHistogram> histograms() {
+
+        return Map.copyOf(this.histograms);
+    }
+
+    /**
+     * Retrieve the {@link LatencyHistogram} of the provided operation.
+     *
+     * @param operation
+     *         The {@link LibraryOperation} measured.
+     * @param store
+     *         The name of the store targeted by the operation, or {@code null} if the operation is not related to a store.
+     * @param policy
+     *         The {@link StorePolicy} applied by the operation, or {@code null} if no policy was applied.
+     *
+     * @return A {@link LatencyHistogram}, or {@code null} if the operation has never been recorded.
+     */
+    public @Nullable LatencyHistogram histogram(LibraryOperation operation, @Nullable String store, @Nullable StorePolicy policy) {
+
+        return this.histograms.get(new MetricKey(operation, store, policy));
+    }
+
+    /**
+     * Read the current value of every registered gauge.
+     *
+     * @return A {@link Map} associating each gauge name to its value.
+     */
+    public Map<String, Long> gauges() {
+
+        Map<String, Long> values = new TreeMap<>();
+        this.gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    /**
+     * Retrieve the content copied so far.
+     *
+     * @return A {@link TransferSize}.
+     */
+    public TransferSize copied() {
+
+        return new TransferSize(this.copiedFiles.sum(), this.copiedBytes.sum());
+    }
+
+    /**
+     * Retrieve the content deleted so far.
+     *
+     * @return A {@link TransferSize}.
+     */
+    public TransferSize deleted() {
+
+        return new TransferSize(this.deletedFiles.sum(), this.deletedBytes.sum());
+    }
+
+}
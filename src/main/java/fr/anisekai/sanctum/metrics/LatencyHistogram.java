@@ -0,0 +1,130 @@
+package fr.anisekai.sanctum.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations. Values are counted in buckets growing exponentially, each power of two being split into four
+ * buckets, so that a percentile is reported with an error below 25% whatever its magnitude while using a fixed amount of memory.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS     = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder       count   = new LongAdder();
+    private final LongAdder       total   = new LongAdder();
+    private final LongAccumulator max     = new LongAccumulator(Math::max, 0);
+
+    private static int index(long value) {
+
+        if (value < SUB_BUCKETS) return (int) Math.max(0, value);
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub      = (int) ((value >>> (exponent - 2)) & (SUB_BUCKETS - 1));
+        return (exponent - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+
+        if (index < SUB_BUCKETS) return index;
+
+        int exponent = index / SUB_BUCKETS + 1;
+        int sub      = index % SUB_BUCKETS;
+        if (exponent - 2 >= 60) return Long.MAX_VALUE;
+
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - 2);
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos
+     *         The duration, in nanoseconds.
+     */
+    public void record(long nanos) {
+
+        this.buckets.incrementAndGet(index(nanos));
+        this.count.increment();
+        this.total.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /**
+     * Retrieve the amount of recorded durations.
+     *
+     * @return The amount of durations.
+     */
+    public long count() {
+
+        return this.count.sum();
+    }
+
+    /**
+     * Retrieve the sum of every recorded duration.
+     *
+     * @return The total duration, in nanoseconds.
+     */
+    public long total() {
+
+        return this.total.sum();
+    }
+
+    /**
+     * Retrieve the mean of the recorded durations.
+     *
+     * @return The mean duration, in nanoseconds, or {@code 0} if nothing has been recorded.
+     */
+    public long mean() {
+
+        long count = this.count();
+        return count == 0 ? 0 : this.total() / count;
+    }
+
+    /**
+     * Retrieve the longest recorded duration.
+     *
+     * @return The maximum duration, in nanoseconds.
+     */
+    public long max() {
+
+        return this.max.get();
+    }
+
+    /**
+     * Retrieve the duration under which the provided fraction of the recorded durations fall. The value is the upper bound of the
+     * bucket holding the percentile, and never exceeds {@link #max()}.
+     *
+     * @param percentile
+     *         The fraction of durations, between {@code 0} and {@code 1}, for example {@code 0.99}.
+     *
+     * @return The duration, in nanoseconds, or {@code 0} if nothing has been recorded.
+     */
+    public long percentile(double percentile) {
+
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 1.");
+        }
+
+        long[] counts = new long[BUCKETS];
+        long   total  = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), this.max());
+        }
+        return this.max();
+    }
+
+}
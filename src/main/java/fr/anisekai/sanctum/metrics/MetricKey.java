@@ -0,0 +1,19 @@
+package fr.anisekai.sanctum.metrics;
+
+import fr.anisekai.sanctum.enums.LibraryOperation;
+import fr.anisekai.sanctum.enums.StorePolicy;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Identify a {@link LatencyHistogram} of an {@link InProcessMetrics}.
+ *
+ * @param operation
+ *         The {@link LibraryOperation} measured.
+ * @param store
+ *         The name of the store targeted by the operation, or {@code null} if the operation is not related to a store.
+ * @param policy
+ *         The {@link StorePolicy} applied by the operation, or {@code null} if no policy was applied.
+ */
+public record MetricKey(LibraryOperation operation, @Nullable String store, @Nullable StorePolicy policy) {
+
+}
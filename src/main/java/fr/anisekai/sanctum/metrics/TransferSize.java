@@ -0,0 +1,45 @@
+package fr.anisekai.sanctum.metrics;
+
+/**
+ * Amount of content, as a number of files and their total size. It describes what a filesystem operation such as a recursive copy
+ * or deletion affected, as well as what an entity or a store uses on the disk.
+ *
+ * @param files
+ *         The amount of files.
+ * @param bytes
+ *         The total size of the files, in bytes.
+ */
+public record TransferSize(long files, long bytes) {
+
+    /**
+     * A {@link TransferSize} affecting nothing.
+     */
+    public static final TransferSize NONE = new TransferSize(0, 0);
+
+    /**
+     * Create a {@link TransferSize} combining this one with the provided one.
+     *
+     * @param other
+     *         The {@link TransferSize} to add.
+     *
+     * @return A {@link TransferSize}.
+     */
+    public TransferSize plus(TransferSize other) {
+
+        return new TransferSize(this.files() + other.files(), this.bytes() + other.bytes());
+    }
+
+    /**
+     * Create a {@link TransferSize} subtracting the provided one from this one.
+     *
+     * @param other
+     *         The {@link TransferSize} to subtract.
+     *
+     * @return A {@link TransferSize}.
+     */
+    public TransferSize minus(TransferSize other) {
+
+        return new TransferSize(this.files() - other.files(), this.bytes() - other.bytes());
+    }
+
+}
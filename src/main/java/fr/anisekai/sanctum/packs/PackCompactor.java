@@ -0,0 +1,58 @@
+package fr.anisekai.sanctum.packs;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Background task compacting the segments of a {@link PackStore} whose live ratio fell below a threshold. Copies are throttled so
+ * that compaction does not starve foreground commits of disk bandwidth. This task is meant to be scheduled periodically, for
+ * example with a {@link ScheduledExecutorService}.
+ *
+ * @param store
+ *         The {@link PackStore} to compact.
+ * @param threshold
+ *         The live ratio, between 0 and 1, under which a segment should be compacted.
+ * @param bytesPerSecond
+ *         The maximum amount of bytes copied per second, or {@code 0} to copy without limit.
+ */
+public record PackCompactor(PackStore store, double threshold, long bytesPerSecond) implements Runnable {
+
+    /**
+     * Provide default sanity checks when creating a {@link PackCompactor}.
+     *
+     * @param store
+     *         The {@link PackStore} to compact.
+     * @param threshold
+     *         The live ratio, between 0 and 1, under which a segment should be compacted.
+     * @param bytesPerSecond
+     *         The maximum amount of bytes copied per second, or {@code 0} to copy without limit.
+     */
+    public PackCompactor {
+
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("The threshold must be between 0 and 1.");
+        }
+
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("The throughput cannot be negative.");
+        }
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            for (int segment : this.store().candidates(this.threshold())) {
+                if (Thread.currentThread().isInterrupted()) return;
+                this.store().compact(segment, this.bytesPerSecond());
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package fr.anisekai.sanctum.packs;
+
+/**
+ * Location of a record within the segments of a {@link PackStore}.
+ *
+ * @param segment
+ *         The identifier of the segment containing the record.
+ * @param offset
+ *         The offset of the record header within the segment.
+ * @param length
+ *         The length of the record content, or {@code -1} if the record has been removed.
+ */
+public record PackEntry(int segment, long offset, long length) {
+
+    /**
+     * Check if this {@link PackEntry} points to content that has been removed.
+     *
+     * @return True if the record has been removed, false otherwise.
+     */
+    public boolean isRemoved() {
+
+        return this.length < 0;
+    }
+
+}
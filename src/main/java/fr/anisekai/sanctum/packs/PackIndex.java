@@ -0,0 +1,292 @@
+package fr.anisekai.sanctum.packs;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Memory-mapped open addressing hash table mapping record names of a {@link PackStore} to their {@link PackEntry}. Only the hash
+ * of the name is stored in the index: the caller is responsible for checking the name stored in the record header, allowing
+ * lookups to be done in constant time without keeping any name in memory.
+ */
+final class PackIndex implements AutoCloseable {
+
+    private static final int   MAGIC       = 0x53504958; // SPIX
+    private static final int   VERSION     = 1;
+    private static final int   HEADER_SIZE = 16;
+    private static final int   SLOT_SIZE   = 32;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private final Path             path;
+    private       FileChannel      channel;
+    private       MappedByteBuffer buffer;
+    private       int              capacity;
+    private       int              used;
+
+    private PackIndex(Path path, FileChannel channel, MappedByteBuffer buffer) {
+
+        this.path     = path;
+        this.channel  = channel;
+        this.buffer   = buffer;
+        this.capacity = buffer.getInt(8);
+        this.used     = buffer.getInt(12);
+    }
+
+    /**
+     * Open the {@link PackIndex} located at the provided {@link Path}, creating it if it does not exist.
+     *
+     * @param path
+     *         The {@link Path} of the index file.
+     * @param initialCapacity
+     *         The amount of slots of the index if it has to be created. Must be a power of two.
+     *
+     * @return A {@link PackIndex}.
+     *
+     * @throws IOException
+     *         If the index could not be opened.
+     */
+    static PackIndex open(Path path, int initialCapacity) throws IOException {
+
+        if (Integer.bitCount(initialCapacity) != 1) {
+            throw new IllegalArgumentException("The index capacity must be a power of two.");
+        }
+
+        boolean     exists  = Files.exists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            long size = exists ? channel.size() : HEADER_SIZE + (long) initialCapacity * SLOT_SIZE;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (exists) {
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new StorageException("Invalid pack index (Path: " + path + ")");
+                }
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, initialCapacity);
+                buffer.putInt(12, 0);
+                buffer.force();
+            }
+
+            return new PackIndex(path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Compute the hash of the provided record name, as stored in the index.
+     *
+     * @param name
+     *         The record name.
+     *
+     * @return The hash, never equal to zero as it marks empty slots.
+     */
+    static long hash(String name) {
+
+        return hash(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compute the hash of the provided UTF-8 encoded record name, as stored in the index.
+     *
+     * @param name
+     *         The record name.
+     *
+     * @return The hash, never equal to zero as it marks empty slots.
+     */
+    static long hash(byte[] name) {
+
+        // FNV-1a, 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private int slot(int index) {
+
+        return HEADER_SIZE + index * SLOT_SIZE;
+    }
+
+    private PackEntry entryAt(int position) {
+
+        return new PackEntry(
+                this.buffer.getInt(position + 8),
+                this.buffer.getLong(position + 16),
+                this.buffer.getLong(position + 24)
+        );
+    }
+
+    /**
+     * Find the slot position of the record matching the provided hash and predicate.
+     *
+     * @return The slot position, or the negated position of the first free slot if no record matches.
+     */
+    private int probe(long hash, Predicate<PackEntry> matcher) {
+
+        int mask  = this.capacity - 1;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+
+        // Bounded loop: optimistic readers may observe the index while it is being grown.
+        for (int attempt = 0; attempt < this.capacity; attempt++) {
+            int  position = this.slot(index);
+            long stored   = this.buffer.getLong(position);
+
+            if (stored == 0) return -position;
+            if (stored == hash && matcher.test(this.entryAt(position))) return position;
+
+            index = (index + 1) & mask;
+        }
+
+        throw new IllegalStateException("The pack index is full.");
+    }
+
+    /**
+     * Retrieve the {@link PackEntry} matching the provided hash and predicate.
+     *
+     * @param hash
+     *         The hash of the record name.
+     * @param matcher
+     *         The {@link Predicate} checking that a {@link PackEntry} is pointing to the expected record.
+     *
+     * @return The {@link PackEntry}, or {@code null} if none matched.
+     */
+    PackEntry get(long hash, Predicate<PackEntry> matcher) {
+
+        int position = this.probe(hash, matcher);
+        return position < 0 ? null : this.entryAt(position);
+    }
+
+    /**
+     * Insert or replace the {@link PackEntry} matching the provided hash and predicate.
+     *
+     * @param hash
+     *         The hash of the record name.
+     * @param matcher
+     *         The {@link Predicate} checking that a {@link PackEntry} is pointing to the expected record.
+     * @param entry
+     *         The {@link PackEntry} to store.
+     *
+     * @throws IOException
+     *         If the index had to grow and could not be rewritten.
+     */
+    void put(long hash, Predicate<PackEntry> matcher, PackEntry entry) throws IOException {
+
+        if (this.used + 1 > this.capacity * LOAD_FACTOR) {
+            this.grow();
+        }
+
+        int position = this.probe(hash, matcher);
+
+        if (position < 0) {
+            position = -position;
+            this.used++;
+            this.buffer.putInt(12, this.used);
+        }
+
+        this.buffer.putInt(position + 8, entry.segment());
+        this.buffer.putLong(position + 16, entry.offset());
+        this.buffer.putLong(position + 24, entry.length());
+        // The hash is written last as it marks the slot as used.
+        this.buffer.putLong(position, hash);
+    }
+
+    /**
+     * Replace the {@link PackEntry} matching the provided hash and predicate. Unlike
+     * {@link #put(long, Predicate, PackEntry)}, nothing is inserted if no record matches.
+     *
+     * @param hash
+     *         The hash of the record name.
+     * @param matcher
+     *         The {@link Predicate} checking that a {@link PackEntry} is pointing to the expected record.
+     * @param entry
+     *         The {@link PackEntry} to store.
+     *
+     * @return True if a {@link PackEntry} has been replaced, false otherwise.
+     */
+    boolean replace(long hash, Predicate<PackEntry> matcher, PackEntry entry) {
+
+        int position = this.probe(hash, matcher);
+        if (position < 0) return false;
+
+        this.buffer.putInt(position + 8, entry.segment());
+        this.buffer.putLong(position + 16, entry.offset());
+        this.buffer.putLong(position + 24, entry.length());
+        return true;
+    }
+
+    /**
+     * Call the provided {@link BiConsumer} for each slot in use in this {@link PackIndex}, including removed records.
+     *
+     * @param consumer
+     *         The {@link BiConsumer} receiving the hash and the {@link PackEntry} of each slot.
+     */
+    void forEach(BiConsumer<Long, PackEntry> consumer) {
+
+        for (int i = 0; i < this.capacity; i++) {
+            int  position = this.slot(i);
+            long hash     = this.buffer.getLong(position);
+            if (hash != 0) consumer.accept(hash, this.entryAt(position));
+        }
+    }
+
+    /**
+     * Flush the changes made to this {@link PackIndex} to the disk.
+     */
+    void force() {
+
+        this.buffer.force();
+    }
+
+    private void grow() throws IOException {
+
+        Path grown = this.path.resolveSibling(this.path.getFileName() + ".grow");
+        Files.deleteIfExists(grown);
+
+        try (PackIndex target = open(grown, this.capacity * 2)) {
+            // Removed records are dropped, they don't need to be found anymore.
+            this.forEach((hash, entry) -> {
+                if (entry.isRemoved()) return;
+                int position = -target.probe(hash, e -> false);
+                target.buffer.putInt(position + 8, entry.segment());
+                target.buffer.putLong(position + 16, entry.offset());
+                target.buffer.putLong(position + 24, entry.length());
+                target.buffer.putLong(position, hash);
+                target.used++;
+            });
+            target.buffer.putInt(12, target.used);
+            target.force();
+        }
+
+        this.channel.close();
+        Files.move(grown, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        this.channel  = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer   = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.channel.size());
+        this.capacity = this.buffer.getInt(8);
+        this.used     = this.buffer.getInt(12);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+}
@@ -0,0 +1,26 @@
+package fr.anisekai.sanctum.packs;
+
+/**
+ * Space usage of a {@link PackStore}.
+ *
+ * @param segments
+ *         The amount of segment files.
+ * @param liveBytes
+ *         The amount of bytes used by records that can still be read.
+ * @param deadBytes
+ *         The amount of bytes used by records that have been replaced or removed, and that can be reclaimed by compaction.
+ */
+public record PackStatistics(int segments, long liveBytes, long deadBytes) {
+
+    /**
+     * Retrieve the ratio of live bytes over the total size of the segments.
+     *
+     * @return The live ratio, between 0 and 1.
+     */
+    public double liveRatio() {
+
+        long total = this.liveBytes + this.deadBytes;
+        return total == 0 ? 1 : (double) this.liveBytes / total;
+    }
+
+}
@@ -0,0 +1,547 @@
+package fr.anisekai.sanctum.packs;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/**
+ * Store appending small files to large segment files instead of keeping one file per record. Records are located through a
+ * memory-mapped {@link PackIndex}, and their content is served as {@link ByteBuffer} slices of the memory-mapped segments, without
+ * any copy.
+ * <p>
+ * Each record is stored as {@code [int nameLength][name][long contentLength][content]}. Reads are optimistic and never wait for
+ * writers unless they overlap with an index update, in which case they are retried under a read lock.
+ */
+public final class PackStore implements AutoCloseable {
+
+    private static final String SEGMENTS_DIRECTORY = "segments";
+    private static final String SEGMENT_EXTENSION  = ".pack";
+    private static final String COMPACT_EXTENSION  = ".compact";
+    private static final String INDEX_FILE         = "index";
+    private static final int    INDEX_CAPACITY     = 1024;
+
+    private final Path                                     root;
+    private final long                                     segmentSize;
+    private final PackIndex                                index;
+    private final ConcurrentNavigableMap<Integer, Segment> segments  = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Long>                       liveBytes = new ConcurrentHashMap<>();
+    private final StampedLock                              lock      = new StampedLock();
+
+    private PackStore(Path root, long segmentSize, PackIndex index) {
+
+        this.root        = root;
+        this.segmentSize = segmentSize;
+        this.index       = index;
+    }
+
+    /**
+     * Open the {@link PackStore} located in the provided directory, creating it if it does not exist.
+     *
+     * @param root
+     *         The {@link Path} of the directory holding the index and segments.
+     * @param segmentSize
+     *         The maximum size of a segment file, in bytes.
+     *
+     * @return A {@link PackStore}.
+     *
+     * @throws IOException
+     *         If the index or the segments could not be opened.
+     */
+    public static PackStore open(Path root, long segmentSize) throws IOException {
+
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The segment size must be between 1 and " + Integer.MAX_VALUE + " bytes.");
+        }
+
+        Path segmentsRoot = root.resolve(SEGMENTS_DIRECTORY);
+        Files.createDirectories(segmentsRoot);
+
+        PackStore store = new PackStore(root, segmentSize, PackIndex.open(root.resolve(INDEX_FILE), INDEX_CAPACITY));
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(segmentsRoot)) {
+            for (Path path : stream) {
+                String filename = path.getFileName().toString();
+
+                if (filename.endsWith(COMPACT_EXTENSION)) {
+                    // Leftover of an interrupted compaction, never referenced by the index.
+                    Files.delete(path);
+                } else if (filename.endsWith(SEGMENT_EXTENSION)) {
+                    int id = Integer.parseInt(filename.substring(0, filename.length() - SEGMENT_EXTENSION.length()));
+                    store.segments.put(id, new Segment(id, path));
+                }
+            }
+
+            for (Map.Entry<Long, PackEntry> entry : store.entries()) {
+                store.track(entry.getValue(), 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+
+        return store;
+    }
+
+    private static int headerSize(int nameLength) {
+
+        return Integer.BYTES + nameLength + Long.BYTES;
+    }
+
+    private Path segmentPath(int id, String extension) {
+
+        return this.root.resolve(SEGMENTS_DIRECTORY).resolve(String.format("%08d%s", id, extension));
+    }
+
+    private List<Map.Entry<Long, PackEntry>> entries() {
+
+        List<Map.Entry<Long, PackEntry>> entries = new ArrayList<>();
+        this.index.forEach((hash, entry) -> {
+            if (!entry.isRemoved()) entries.add(Map.entry(hash, entry));
+        });
+        return entries;
+    }
+
+    /**
+     * Update the amount of live bytes of the segment holding the provided {@link PackEntry}.
+     */
+    private void track(PackEntry entry, int direction) throws IOException {
+
+        Segment segment = this.segments.get(entry.segment());
+        if (segment == null || entry.isRemoved()) return;
+
+        int  nameLength = segment.view(entry.offset() + Integer.BYTES).getInt((int) entry.offset());
+        long size       = headerSize(nameLength) + entry.length();
+        this.liveBytes.merge(entry.segment(), direction * size, Long::sum);
+    }
+
+    private Predicate<PackEntry> matcher(byte[] name) {
+
+        return entry -> {
+            Segment segment = this.segments.get(entry.segment());
+            if (segment == null) return false;
+
+            try {
+                ByteBuffer view = segment.view(entry.offset() + headerSize(name.length));
+                if (view.getInt((int) entry.offset()) != name.length) return false;
+
+                byte[] stored = new byte[name.length];
+                view.get((int) entry.offset() + Integer.BYTES, stored);
+                return Arrays.equals(stored, name);
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        };
+    }
+
+    private Segment activeSegment(long recordSize) throws IOException {
+
+        if (!this.segments.isEmpty()) {
+            Segment last = this.segments.lastEntry().getValue();
+            if (last.channel.size() + recordSize <= this.segmentSize) return last;
+        }
+
+        int     id      = this.segments.isEmpty() ? 0 : this.segments.lastKey() + 1;
+        Segment segment = new Segment(id, this.segmentPath(id, SEGMENT_EXTENSION));
+        this.segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Append the content of the provided file to this {@link PackStore} under the provided name, replacing any previous record
+     * having the same name.
+     *
+     * @param name
+     *         The name of the record.
+     * @param source
+     *         The {@link Path} of the file to append.
+     *
+     * @throws IOException
+     *         If the content could not be appended.
+     */
+    public void append(String name, Path source) throws IOException {
+
+        byte[] nameBytes  = name.getBytes(StandardCharsets.UTF_8);
+        long   size       = Files.size(source);
+        int    headerSize = headerSize(nameBytes.length);
+
+        if (headerSize + size > this.segmentSize) {
+            throw new StorageException(String.format(
+                    "Record '%s' (%s bytes) is too large to be packed (Segment size: %s bytes)",
+                    name,
+                    size,
+                    this.segmentSize
+            ));
+        }
+
+        long stamp = this.lock.writeLock();
+        try {
+            Segment segment = this.activeSegment(headerSize + size);
+            long    offset  = segment.channel.size();
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize).putInt(nameBytes.length).put(nameBytes).putLong(size).flip();
+            while (header.hasRemaining()) {
+                segment.channel.write(header, offset + header.position());
+            }
+
+            try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+                long written = 0;
+                while (written < size) {
+                    written += segment.channel.transferFrom(input, offset + headerSize + written, size - written);
+                }
+            }
+
+            segment.channel.force(false);
+
+            long      hash     = PackIndex.hash(nameBytes);
+            PackEntry previous = this.index.get(hash, this.matcher(nameBytes));
+            PackEntry entry    = new PackEntry(segment.id, offset, size);
+
+            this.index.put(hash, this.matcher(nameBytes), entry);
+            this.index.force();
+
+            if (previous != null) this.track(previous, -1);
+            this.track(entry, 1);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the record having the provided name. Its content is kept within the segment until it is compacted.
+     *
+     * @param name
+     *         The name of the record.
+     *
+     * @return True if a record has been removed, false otherwise.
+     *
+     * @throws IOException
+     *         If the index could not be updated.
+     */
+    public boolean remove(String name) throws IOException {
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        long   hash      = PackIndex.hash(nameBytes);
+
+        long stamp = this.lock.writeLock();
+        try {
+            PackEntry entry = this.index.get(hash, this.matcher(nameBytes));
+            if (entry == null || entry.isRemoved()) return false;
+
+            this.index.put(hash, this.matcher(nameBytes), new PackEntry(entry.segment(), entry.offset(), -1));
+            this.index.force();
+            this.track(entry, -1);
+            return true;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    private PackEntry lookup(byte[] name) {
+
+        PackEntry entry = this.index.get(PackIndex.hash(name), this.matcher(name));
+        return entry == null || entry.isRemoved() ? null : entry;
+    }
+
+    private ByteBuffer content(PackEntry entry, int nameLength) throws IOException {
+
+        long       start = entry.offset() + headerSize(nameLength);
+        ByteBuffer view  = this.segments.get(entry.segment()).view(start + entry.length());
+        return view.slice((int) start, (int) entry.length()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Check if this {@link PackStore} contains a record having the provided name.
+     *
+     * @param name
+     *         The name of the record.
+     *
+     * @return True if the record exists, false otherwise.
+     */
+    public boolean contains(String name) {
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean found = this.lookup(nameBytes) != null;
+                if (this.lock.validate(stamp)) return found;
+            } catch (RuntimeException ignored) {
+                // Inconsistent state observed while a writer was active, retry under lock.
+            }
+        }
+
+        stamp = this.lock.readLock();
+        try {
+            return this.lookup(nameBytes) != null;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Read the content of the record having the provided name. The returned {@link ByteBuffer} is a read-only view of the
+     * memory-mapped segment: no content is copied.
+     *
+     * @param name
+     *         The name of the record.
+     *
+     * @return An {@link Optional} {@link ByteBuffer} holding the record content.
+     *
+     * @throws IOException
+     *         If the segment could not be mapped.
+     */
+    public Optional<ByteBuffer> read(String name) throws IOException {
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                PackEntry  entry   = this.lookup(nameBytes);
+                ByteBuffer content = entry == null ? null : this.content(entry, nameBytes.length);
+                if (this.lock.validate(stamp)) return Optional.ofNullable(content);
+            } catch (RuntimeException | IOException ignored) {
+                // Inconsistent state observed while a writer was active, retry under lock.
+            }
+        }
+
+        stamp = this.lock.readLock();
+        try {
+            PackEntry entry = this.lookup(nameBytes);
+            return entry == null ? Optional.empty() : Optional.of(this.content(entry, nameBytes.length));
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Retrieve the space usage of this {@link PackStore}.
+     *
+     * @return A {@link PackStatistics}.
+     *
+     * @throws IOException
+     *         If the size of a segment could not be read.
+     */
+    public PackStatistics statistics() throws IOException {
+
+        long stamp = this.lock.readLock();
+        try {
+            long total = 0;
+            long live  = 0;
+            for (Segment segment : this.segments.values()) {
+                total += segment.channel.size();
+                live += this.liveBytes.getOrDefault(segment.id, 0L);
+            }
+            return new PackStatistics(this.segments.size(), live, total - live);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Retrieve the identifiers of the segments having a live ratio below the provided threshold. The segment currently receiving
+     * new records is never included.
+     *
+     * @param threshold
+     *         The live ratio, between 0 and 1, under which a segment should be compacted.
+     *
+     * @return A {@link List} of segment identifiers.
+     *
+     * @throws IOException
+     *         If the size of a segment could not be read.
+     */
+    public List<Integer> candidates(double threshold) throws IOException {
+
+        long stamp = this.lock.readLock();
+        try {
+            List<Integer> candidates = new ArrayList<>();
+            if (this.segments.isEmpty()) return candidates;
+
+            int active = this.segments.lastKey();
+            for (Segment segment : this.segments.values()) {
+                long size = segment.channel.size();
+                if (segment.id == active || size == 0) continue;
+
+                double ratio = (double) this.liveBytes.getOrDefault(segment.id, 0L) / size;
+                if (ratio < threshold) candidates.add(segment.id);
+            }
+            return candidates;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Rewrite the live records of the provided segment into a new segment, then delete it. Records are copied without holding any
+     * lock: the index is only locked to swap the location of the copied records, which is skipped for records replaced or removed
+     * in the meantime.
+     *
+     * @param id
+     *         The identifier of the segment to compact.
+     * @param bytesPerSecond
+     *         The maximum amount of bytes copied per second, or {@code 0} to copy without limit.
+     *
+     * @return The amount of bytes reclaimed.
+     *
+     * @throws IOException
+     *         If the segment could not be compacted.
+     * @throws InterruptedException
+     *         If the thread is interrupted while being throttled.
+     */
+    public synchronized long compact(int id, long bytesPerSecond) throws IOException, InterruptedException {
+
+        Segment                          victim;
+        List<Map.Entry<Long, PackEntry>> records = new ArrayList<>();
+
+        long stamp = this.lock.readLock();
+        try {
+            victim = this.segments.get(id);
+            if (victim == null || id == this.segments.lastKey()) return 0;
+
+            for (Map.Entry<Long, PackEntry> entry : this.entries()) {
+                if (entry.getValue().segment() == id) records.add(entry);
+            }
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+
+        // Records are copied in their original order to keep reads sequential.
+        records.sort(Comparator.comparingLong(entry -> entry.getValue().offset()));
+
+        Path       staging = this.segmentPath(id, COMPACT_EXTENSION);
+        long[]     offsets = new long[records.size()];
+        long       started = System.nanoTime();
+        long       copied  = 0;
+        ByteBuffer source  = victim.view(victim.channel.size());
+
+        try (FileChannel output = FileChannel.open(
+                staging,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE
+        )) {
+            for (int i = 0; i < records.size(); i++) {
+                PackEntry  entry      = records.get(i).getValue();
+                int        nameLength = source.getInt((int) entry.offset());
+                int        size       = (int) (headerSize(nameLength) + entry.length());
+                ByteBuffer chunk      = source.slice((int) entry.offset(), size);
+
+                offsets[i] = output.position();
+                while (chunk.hasRemaining()) output.write(chunk);
+                copied += size;
+
+                if (bytesPerSecond > 0) {
+                    long expected = TimeUnit.SECONDS.toNanos(copied) / bytesPerSecond;
+                    long elapsed  = System.nanoTime() - started;
+                    if (expected > elapsed) TimeUnit.NANOSECONDS.sleep(expected - elapsed);
+                }
+            }
+            output.force(false);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(staging);
+            throw e;
+        }
+
+        long reclaimed;
+
+        stamp = this.lock.writeLock();
+        try {
+            int  target = this.segments.lastKey() + 1;
+            Path path   = this.segmentPath(target, SEGMENT_EXTENSION);
+            Files.move(staging, path, StandardCopyOption.ATOMIC_MOVE);
+            this.segments.put(target, new Segment(target, path));
+
+            for (int i = 0; i < records.size(); i++) {
+                Map.Entry<Long, PackEntry> record   = records.get(i);
+                PackEntry                  previous = record.getValue();
+                PackEntry                  entry    = new PackEntry(target, offsets[i], previous.length());
+
+                boolean swapped = this.index.replace(
+                        record.getKey(),
+                        e -> e.segment() == previous.segment() && e.offset() == previous.offset() && !e.isRemoved(),
+                        entry
+                );
+
+                if (swapped) this.track(entry, 1);
+            }
+
+            this.index.force();
+
+            reclaimed = victim.channel.size();
+            this.segments.remove(id);
+            this.liveBytes.remove(id);
+            victim.channel.close();
+            Files.delete(this.segmentPath(id, SEGMENT_EXTENSION));
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+
+        return reclaimed - copied;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        long stamp = this.lock.writeLock();
+        try {
+            this.index.close();
+            for (Segment segment : this.segments.values()) {
+                segment.channel.close();
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static final class Segment {
+
+        private final    int              id;
+        private final    FileChannel      channel;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(int id, Path path) throws IOException {
+
+            this.id      = id;
+            this.channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE
+            );
+        }
+
+        /**
+         * Retrieve a memory-mapped view of this segment covering at least the provided amount of bytes.
+         */
+        private ByteBuffer view(long end) throws IOException {
+
+            MappedByteBuffer current = this.mapped;
+            if (current != null && current.capacity() >= end) return current;
+
+            synchronized (this) {
+                if (this.mapped == null || this.mapped.capacity() < end) {
+                    this.mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+                }
+                return this.mapped;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package fr.anisekai.sanctum.placement;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consistent hash ring distributing keys over a fixed amount of nodes. Each node is represented by several virtual points on the
+ * ring so that keys are evenly spread, and adding a node only moves the keys now falling closer to one of its points.
+ */
+public final class ConsistentHashRing {
+
+    private static final int                              VIRTUAL_NODES = 128;
+    private static final Map<Integer, ConsistentHashRing> RINGS         = new ConcurrentHashMap<>();
+
+    private final int                         nodes;
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    /**
+     * Create a new {@link ConsistentHashRing} instance.
+     *
+     * @param nodes
+     *         The amount of nodes on the ring.
+     */
+    public ConsistentHashRing(int nodes) {
+
+        if (nodes <= 0) {
+            throw new IllegalArgumentException("A ring needs at least one node.");
+        }
+
+        this.nodes = nodes;
+
+        for (int node = 0; node < nodes; node++) {
+            for (int point = 0; point < VIRTUAL_NODES; point++) {
+                this.ring.put(hash(String.format("node-%d#%d", node, point)), node);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the shared {@link ConsistentHashRing} for the provided amount of nodes.
+     *
+     * @param nodes
+     *         The amount of nodes on the ring.
+     *
+     * @return A {@link ConsistentHashRing}.
+     */
+    public static ConsistentHashRing of(int nodes) {
+
+        return RINGS.computeIfAbsent(nodes, ConsistentHashRing::new);
+    }
+
+    /**
+     * Compute the 64-bit FNV-1a hash of the provided key, followed by a final mix spreading close keys over the whole ring.
+     *
+     * @param key
+     *         The key to hash.
+     *
+     * @return The hash of the key.
+     */
+    public static long hash(String key) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Retrieve the amount of nodes on this {@link ConsistentHashRing}.
+     *
+     * @return The amount of nodes.
+     */
+    public int nodes() {
+
+        return this.nodes;
+    }
+
+    /**
+     * Retrieve the node owning the provided key.
+     *
+     * @param key
+     *         The key to place.
+     *
+     * @return The index of the node, between {@code 0} (inclusive) and {@link #nodes()} (exclusive).
+     */
+    public int node(String key) {
+
+        if (this.nodes == 1) return 0;
+
+        Map.Entry<Long, Integer> entry = this.ring.ceilingEntry(hash(key));
+        return entry == null ? this.ring.firstEntry().getValue() : entry.getValue();
+    }
+
+}
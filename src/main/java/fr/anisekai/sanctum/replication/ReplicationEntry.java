@@ -0,0 +1,52 @@
+package fr.anisekai.sanctum.replication;
+
+/**
+ * Entry of a {@link ReplicationJournal}, representing an entity committed to the library that must be copied to the mirrors.
+ *
+ * @param sequence
+ *         The sequence number of the entry, increasing with each commit.
+ * @param timestamp
+ *         The time at which the entity was committed, in milliseconds since the epoch.
+ * @param root
+ *         The index of the library root holding the entity.
+ * @param path
+ *         The path of the entity relative to its library root, using {@code /} as separator.
+ */
+public record ReplicationEntry(long sequence, long timestamp, int root, String path) {
+
+    /**
+     * Parse a {@link ReplicationEntry} from a journal line.
+     *
+     * @param line
+     *         The line to parse.
+     *
+     * @return A {@link ReplicationEntry}, or {@code null} if the line is malformed (typically an interrupted write).
+     */
+    static ReplicationEntry parse(String line) {
+
+        String[] parts = line.split("\t", 4);
+        if (parts.length != 4) return null;
+
+        try {
+            return new ReplicationEntry(
+                    Long.parseLong(parts[0]),
+                    Long.parseLong(parts[1]),
+                    Integer.parseInt(parts[2]),
+                    parts[3]
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Format this {@link ReplicationEntry} as a journal line, without the line separator.
+     *
+     * @return The journal line.
+     */
+    String format() {
+
+        return String.format("%s\t%s\t%s\t%s", this.sequence(), this.timestamp(), this.root(), this.path());
+    }
+
+}
@@ -0,0 +1,194 @@
+package fr.anisekai.sanctum.replication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Durable queue of {@link ReplicationEntry} waiting to be copied to the mirrors of a library. Entries are appended to a journal
+ * file and forced to the disk before {@link #append(List)} returns, and a cursor file records the last entry replicated, so that
+ * pending entries survive a restart.
+ * <p>
+ * The journal is truncated each time every entry has been replicated, keeping its size proportional to the replication lag.
+ */
+public final class ReplicationJournal implements AutoCloseable {
+
+    private static final String JOURNAL_FILE = "journal";
+    private static final String CURSOR_FILE  = "cursor";
+
+    private final Path                    root;
+    private final FileChannel             channel;
+    private final Deque<ReplicationEntry> pending = new ArrayDeque<>();
+    private       long                    sequence;
+
+    private ReplicationJournal(Path root, FileChannel channel, long sequence) {
+
+        this.root     = root;
+        this.channel  = channel;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Open the {@link ReplicationJournal} located in the provided directory, creating it if needed. Entries that were not
+     * replicated before the journal was last closed are pending again.
+     *
+     * @param root
+     *         The directory holding the journal files.
+     *
+     * @return A {@link ReplicationJournal}.
+     *
+     * @throws IOException
+     *         If the journal could not be read.
+     */
+    public static ReplicationJournal open(Path root) throws IOException {
+
+        Files.createDirectories(root);
+
+        Path cursorPath  = root.resolve(CURSOR_FILE);
+        Path journalPath = root.resolve(JOURNAL_FILE);
+        long cursor      = Files.exists(cursorPath) ? Long.parseLong(Files.readString(cursorPath).trim()) : 0;
+
+        List<ReplicationEntry> entries = new ArrayList<>();
+        long                   last    = cursor;
+
+        if (Files.exists(journalPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    ReplicationEntry entry = ReplicationEntry.parse(line);
+                    if (entry == null) continue;
+                    last = Math.max(last, entry.sequence());
+                    if (entry.sequence() > cursor) entries.add(entry);
+                }
+            }
+        }
+
+        FileChannel channel = FileChannel.open(
+                journalPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND
+        );
+
+        ReplicationJournal journal = new ReplicationJournal(root, channel, last);
+        journal.pending.addAll(entries);
+        return journal;
+    }
+
+    /**
+     * Durably append new entries to this {@link ReplicationJournal}.
+     *
+     * @param entries
+     *         The entities to replicate, as {@link ReplicationEntry} whose sequence number will be assigned by the journal.
+     *
+     * @throws IOException
+     *         If the entries could not be written.
+     */
+    public synchronized void append(List<ReplicationEntry> entries) throws IOException {
+
+        if (entries.isEmpty()) return;
+
+        StringBuilder          builder  = new StringBuilder();
+        List<ReplicationEntry> assigned = new ArrayList<>(entries.size());
+
+        for (ReplicationEntry entry : entries) {
+            ReplicationEntry numbered = new ReplicationEntry(++this.sequence, entry.timestamp(), entry.root(), entry.path());
+            assigned.add(numbered);
+            builder.append(numbered.format()).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.channel.force(false);
+
+        this.pending.addAll(assigned);
+    }
+
+    /**
+     * Retrieve, without removing them, the oldest pending entries.
+     *
+     * @param limit
+     *         The maximum amount of entries to retrieve.
+     *
+     * @return A {@link List} of {@link ReplicationEntry}, from the oldest to the newest.
+     */
+    public synchronized List<ReplicationEntry> peek(int limit) {
+
+        return this.pending.stream().limit(limit).toList();
+    }
+
+    /**
+     * Retrieve the amount of entries waiting to be replicated.
+     *
+     * @return The amount of pending entries.
+     */
+    public synchronized int size() {
+
+        return this.pending.size();
+    }
+
+    /**
+     * Retrieve the oldest pending entry.
+     *
+     * @return A {@link ReplicationEntry}, or {@code null} if every entry has been replicated.
+     */
+    public synchronized ReplicationEntry oldest() {
+
+        return this.pending.peekFirst();
+    }
+
+    /**
+     * Mark every entry up to the provided sequence number as replicated.
+     *
+     * @param sequence
+     *         The sequence number of the last replicated entry.
+     *
+     * @throws IOException
+     *         If the cursor could not be written.
+     */
+    public synchronized void acknowledge(long sequence) throws IOException {
+
+        while (!this.pending.isEmpty() && this.pending.peekFirst().sequence() <= sequence) {
+            this.pending.pollFirst();
+        }
+
+        Path cursor  = this.root.resolve(CURSOR_FILE);
+        Path staging = this.root.resolve(CURSOR_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(
+                staging,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            channel.write(ByteBuffer.wrap(String.valueOf(sequence).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+        Files.move(staging, cursor, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        if (this.pending.isEmpty()) {
+            // The cursor already covers every entry, the journal content is not needed anymore.
+            this.channel.truncate(0);
+            this.channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        this.channel.close();
+    }
+
+}
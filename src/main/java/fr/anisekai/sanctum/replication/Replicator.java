@@ -0,0 +1,196 @@
+package fr.anisekai.sanctum.replication;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background task copying the entities listed in a {@link ReplicationJournal} from the library roots to one or more mirror roots.
+ * Entries are processed in batches, where an entity committed several times is only copied once. When an entity cannot be
+ * copied, the batch stops and the entity is retried on the next run, so entries are always acknowledged in order. This task is
+ * meant to be scheduled periodically, for example with a {@link ScheduledExecutorService}.
+ * <p>
+ * An entity missing from the library is deleted from the mirrors. Entities are copied to a hidden name then renamed, so a mirror
+ * never exposes a partially copied entity.
+ */
+public final class Replicator implements Runnable {
+
+    private final ReplicationJournal journal;
+    private final List<Path>         roots;
+    private final List<Path>         mirrors;
+    private final int                batchSize;
+    private final ParallelCopy       copier;
+    private final AtomicLong         replicated = new AtomicLong();
+    private final AtomicLong         failures   = new AtomicLong();
+
+    /**
+     * Create a new {@link Replicator} instance.
+     *
+     * @param journal
+     *         The {@link ReplicationJournal} listing the entities to replicate.
+     * @param roots
+     *         The library roots, in the order used by {@link ReplicationEntry#root()}.
+     * @param mirrors
+     *         The mirror roots into which entities are copied.
+     * @param batchSize
+     *         The maximum amount of entries processed by each run.
+     * @param copier
+     *         The {@link ParallelCopy} used to copy large files to the mirrors.
+     */
+    public Replicator(ReplicationJournal journal, List<Path> roots, List<Path> mirrors, int batchSize, ParallelCopy copier) {
+
+        if (mirrors.isEmpty()) {
+            throw new IllegalArgumentException("At least one mirror is required.");
+        }
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+
+        this.journal   = journal;
+        this.roots     = List.copyOf(roots);
+        this.mirrors   = List.copyOf(mirrors);
+        this.batchSize = batchSize;
+        this.copier    = copier;
+    }
+
+    /**
+     * Retrieve the amount of entries waiting to be replicated.
+     *
+     * @return The amount of pending entries.
+     */
+    public int pending() {
+
+        return this.journal.size();
+    }
+
+    /**
+     * Retrieve the replication lag, being the age of the oldest commit not replicated yet.
+     *
+     * @return A {@link Duration}, {@link Duration#ZERO} when every commit has been replicated.
+     */
+    public Duration lag() {
+
+        ReplicationEntry oldest = this.journal.oldest();
+        if (oldest == null) return Duration.ZERO;
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - oldest.timestamp()));
+    }
+
+    /**
+     * Retrieve the amount of entities copied to the mirrors since this {@link Replicator} was created.
+     *
+     * @return The amount of replicated entities.
+     */
+    public long replicated() {
+
+        return this.replicated.get();
+    }
+
+    /**
+     * Retrieve the amount of failed copies since this {@link Replicator} was created.
+     *
+     * @return The amount of failures.
+     */
+    public long failures() {
+
+        return this.failures.get();
+    }
+
+    /**
+     * Replicate the next batch of pending entries.
+     *
+     * @return The amount of acknowledged entries.
+     *
+     * @throws IOException
+     *         If the journal could not be updated.
+     */
+    public int replicate() throws IOException {
+
+        List<ReplicationEntry> batch = this.journal.peek(this.batchSize);
+        if (batch.isEmpty()) return 0;
+
+        // An entity committed several times within the batch is only copied for its last occurrence.
+        Map<String, Long> latest = new HashMap<>();
+        for (ReplicationEntry entry : batch) {
+            latest.put(key(entry), entry.sequence());
+        }
+
+        long acknowledged = 0;
+        int  count        = 0;
+
+        for (ReplicationEntry entry : batch) {
+            if (Thread.currentThread().isInterrupted()) break;
+
+            if (latest.get(key(entry)) == entry.sequence()) {
+                try {
+                    this.copy(entry);
+                    this.replicated.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    this.failures.incrementAndGet();
+                    break;
+                }
+            }
+
+            acknowledged = entry.sequence();
+            count++;
+        }
+
+        if (count > 0) this.journal.acknowledge(acknowledged);
+        return count;
+    }
+
+    private static String key(ReplicationEntry entry) {
+
+        return entry.root() + "/" + entry.path();
+    }
+
+    private void copy(ReplicationEntry entry) throws IOException {
+
+        Path source = this.roots.get(entry.root()).resolve(entry.path());
+
+        for (Path mirror : this.mirrors) {
+            Path target = mirror.resolve(entry.path());
+
+            if (!Files.exists(source)) {
+                SanctumUtils.delete(target);
+                continue;
+            }
+
+            Files.createDirectories(target.getParent());
+            Path staging = target.resolveSibling(String.format(".%s.replicating", target.getFileName()));
+
+            try {
+                SanctumUtils.delete(staging);
+                // Generational entities are links, the content they point to is the one to replicate.
+                SanctumUtils.copy(this.copier, source.toRealPath(), staging, StandardCopyOption.COPY_ATTRIBUTES);
+                if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) SanctumUtils.delete(target);
+                SanctumUtils.move(staging, target);
+            } finally {
+                SanctumUtils.delete(staging);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            this.replicate();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package fr.anisekai.sanctum.resolvers;
+
+import fr.anisekai.sanctum.enums.PathKind;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of {@link MetadataCache} keeping a bounded amount of entries, evicting the least recently used ones first. Each
+ * entry expires after a fixed duration, allowing changes made outside the library to be picked up eventually.
+ * <p>
+ * Cached paths are also linked to their parent directory, so that invalidating a directory only visits the paths located beneath
+ * it instead of every cached entry.
+ */
+public final class BoundedMetadataCache implements MetadataCache {
+
+    private final int                   maxEntries;
+    private final long                  ttlNanos;
+    private final Map<Path, CacheEntry> entries;
+    private final Map<Path, Set<Path>>  children = new HashMap<>();
+
+    /**
+     * Create a new {@link BoundedMetadataCache} instance.
+     *
+     * @param maxEntries
+     *         The maximum amount of {@link Path} that can be held in this {@link MetadataCache}.
+     * @param ttl
+     *         The {@link Duration} after which a cached entry will be queried again from the filesystem.
+     */
+    public BoundedMetadataCache(int maxEntries, Duration ttl) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The cache size must be strictly positive.");
+        }
+
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The cache duration must be strictly positive.");
+        }
+
+        this.maxEntries = maxEntries;
+        this.ttlNanos   = ttl.toNanos();
+        this.entries    = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CacheEntry> eldest) {
+
+                if (this.size() <= BoundedMetadataCache.this.maxEntries) return false;
+                BoundedMetadataCache.this.unlink(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public PathKind kind(Path path) {
+
+        long now = System.nanoTime();
+
+        synchronized (this.entries) {
+            CacheEntry entry = this.entries.get(path);
+            if (entry != null && now - entry.createdAt() < this.ttlNanos) {
+                return entry.kind();
+            }
+        }
+
+        // Query outside the lock: a slow filesystem must not block other resolutions.
+        PathKind kind = PathKind.of(path);
+
+        synchronized (this.entries) {
+            if (kind.isCacheable()) {
+                this.link(path);
+                this.entries.put(path, new CacheEntry(kind, now));
+            } else if (this.entries.remove(path) != null) {
+                this.unlink(path);
+            }
+        }
+
+        return kind;
+    }
+
+    @Override
+    public void invalidate(Path path) {
+
+        synchronized (this.entries) {
+            this.entries.remove(path);
+
+            Deque<Path> pending = new ArrayDeque<>();
+            pending.push(path);
+
+            while (!pending.isEmpty()) {
+                Set<Path> nested = this.children.remove(pending.pop());
+                if (nested == null) continue;
+
+                for (Path child : nested) {
+                    this.entries.remove(child);
+                    pending.push(child);
+                }
+            }
+
+            this.unlink(path);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.children.clear();
+        }
+    }
+
+    /**
+     * Retrieve the amount of {@link Path} currently held in this {@link MetadataCache}.
+     *
+     * @return The amount of cached entries.
+     */
+    public int size() {
+
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Link the provided {@link Path} to each of its parent directories, stopping at the first one already linked.
+     *
+     * @param path
+     *         The {@link Path} being cached.
+     */
+    private void link(Path path) {
+
+        Path child  = path;
+        Path parent = path.getParent();
+
+        while (parent != null && this.children.computeIfAbsent(parent, key -> new HashSet<>()).add(child)) {
+            child  = parent;
+            parent = parent.getParent();
+        }
+    }
+
+    /**
+     * Unlink the provided {@link Path} from its parent directory once nothing beneath it is cached anymore, then do the same for
+     * each parent directory left without any cached entry.
+     *
+     * @param path
+     *         The {@link Path} removed from the cache.
+     */
+    private void unlink(Path path) {
+
+        Path node = path;
+
+        while (!this.children.containsKey(node)) {
+            Path      parent   = node.getParent();
+            Set<Path> siblings = parent == null ? null : this.children.get(parent);
+
+            if (siblings == null) return;
+
+            siblings.remove(node);
+            if (!siblings.isEmpty()) return;
+
+            this.children.remove(parent);
+            if (this.entries.containsKey(parent)) return;
+            node = parent;
+        }
+    }
+
+    private record CacheEntry(PathKind kind, long createdAt) {}
+
+}
@@ -0,0 +1,85 @@
+package fr.anisekai.sanctum.resolvers;
+
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.PlacementStrategy;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Implementation of {@link StorageResolver} spanning several roots, delegating each resolution to the {@link StorageResolver} of
+ * the root chosen by a {@link PlacementStrategy}. Content not related to an entity is resolved on the root of the store.
+ *
+ * @param store
+ *         The {@link FileStore} associated to this {@link StorageResolver}.
+ * @param resolvers
+ *         The {@link StorageResolver} of each root, in the order of the roots.
+ * @param placement
+ *         The {@link PlacementStrategy} choosing the root of each entity.
+ */
+public record PlacedResolver(FileStore store, List<StorageResolver> resolvers, PlacementStrategy placement) implements StorageResolver {
+
+    private StorageResolver resolver(String entity) {
+
+        return this.resolvers().get(this.placement().place(this.store(), entity, this.resolvers().size()));
+    }
+
+    @Override
+    public StorageCodec codec() {
+
+        return this.resolver(null).codec();
+    }
+
+    @Override
+    public Path directory() {
+
+        return this.resolver(null).directory();
+    }
+
+    @Override
+    public List<Path> directories() {
+
+        return this.resolvers().stream().flatMap(resolver -> resolver.directories().stream()).toList();
+    }
+
+    @Override
+    public @Nullable String name(Path entry) {
+
+        return this.resolvers().getFirst().name(entry);
+    }
+
+    @Override
+    public Path directory(String name) {
+
+        return this.resolver(null).directory(name);
+    }
+
+    @Override
+    public Path file(String filename) {
+
+        return this.resolver(null).file(filename);
+    }
+
+    @Override
+    public Path directory(ScopedEntity entity) {
+
+        return this.resolver(entity.getScopedName()).directory(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity) {
+
+        return this.resolver(entity.getScopedName()).file(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity, String filename) {
+
+        return this.resolver(entity.getScopedName()).file(entity, filename);
+    }
+
+}
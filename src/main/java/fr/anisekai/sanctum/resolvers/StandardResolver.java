@@ -1,10 +1,14 @@
 package fr.anisekai.sanctum.resolvers;
 
+import fr.anisekai.sanctum.enums.StoreType;
 import fr.anisekai.sanctum.interfaces.FileStore;
 import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
 import fr.anisekai.sanctum.interfaces.resolvers.ResolverPolicy;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.util.Objects;
@@ -18,6 +22,7 @@ public final class StandardResolver implements StorageResolver {
     private final Path           root;
     private final FileStore      store;
     private final ResolverPolicy resolverPolicy;
+    private final StorageCodec   codec;
     private final StorageWalker  walker;
 
     /**
@@ -32,10 +37,36 @@ public final class StandardResolver implements StorageResolver {
      */
     public StandardResolver(Path root, FileStore store, ResolverPolicy resolverPolicy) {
 
+        this(root, store, resolverPolicy, MetadataCache.disabled(), StorageCodec.identity());
+    }
+
+    /**
+     * Create a new {@link StandardResolver} instance.
+     *
+     * @param root
+     *         The root {@link Path} from which the {@link StorageResolver} will resolve other {@link Path}.
+     * @param store
+     *         The {@link FileStore} associated to this {@link StorageResolver}.
+     * @param resolverPolicy
+     *         The {@link ResolverPolicy} to use before resolving any {@link Path}.
+     * @param cache
+     *         The {@link MetadataCache} to use when checking the nature of a resolved {@link Path}.
+     * @param codec
+     *         The {@link StorageCodec} used to encode the content resolved by this {@link StorageResolver}.
+     */
+    public StandardResolver(Path root, FileStore store, ResolverPolicy resolverPolicy, MetadataCache cache, StorageCodec codec) {
+
         this.root           = root;
         this.store          = store;
         this.resolverPolicy = resolverPolicy;
-        this.walker         = new StandardWalker(this.root);
+        this.codec          = codec;
+        this.walker         = new StandardWalker(this.root, cache);
+    }
+
+    @Override
+    public StorageCodec codec() {
+
+        return this.codec;
     }
 
     @Override
@@ -80,6 +111,16 @@ public final class StandardResolver implements StorageResolver {
         return this.walker.walk(entity.getScopedName()).file(filename);
     }
 
+    @Override
+    public @Nullable String name(Path entry) {
+
+        String name = entry.getFileName().toString();
+        if (this.store.type() != StoreType.FILE_SCOPED) return name;
+
+        String suffix = "." + this.store.extension();
+        return name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : null;
+    }
+
     @Override
     public boolean equals(Object obj) {
 
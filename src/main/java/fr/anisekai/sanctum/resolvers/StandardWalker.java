@@ -1,8 +1,10 @@
 package fr.anisekai.sanctum.resolvers;
 
 import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.PathKind;
 import fr.anisekai.sanctum.exceptions.ResolveOutOfBoundException;
 import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
 import fr.anisekai.sanctum.interfaces.resolvers.StorageWalker;
 
 import java.nio.file.Files;
@@ -13,21 +15,43 @@ import java.nio.file.Path;
  *
  * @param root
  *         The root {@link Path} into which the {@link StorageWalker} will resolve content.
+ * @param cache
+ *         The {@link MetadataCache} to use when checking the nature of a resolved {@link Path}.
  */
-public record StandardWalker(Path root) implements StorageWalker {
+public record StandardWalker(Path root, MetadataCache cache) implements StorageWalker {
 
     /**
-     * Provide default sanity checks when creating a {@link StandardWalker}.
+     * Provide default sanity checks when creating a {@link StandardWalker}. A missing root is created, unless it is located on a
+     * read-only filesystem, where it is simply resolved as empty.
      *
      * @param root
      *         The root {@link Path} into which the {@link StorageWalker} will resolve content.
+     * @param cache
+     *         The {@link MetadataCache} to use when checking the nature of a resolved {@link Path}.
      */
     public StandardWalker {
 
-        if (Files.exists(root) && !Files.isDirectory(root)) {
-            throw new StorageException("Directory was expected (Path: " + root + ")");
+        switch (cache.kind(root)) {
+            case DIRECTORY -> {
+            }
+            case MISSING -> {
+                if (!root.getFileSystem().isReadOnly()) {
+                    SanctumUtils.Action.wrap(() -> Files.createDirectories(root), StorageException::new);
+                }
+            }
+            default -> throw new StorageException("Directory was expected (Path: " + root + ")");
         }
-        SanctumUtils.Action.wrap(() -> Files.createDirectories(root), StorageException::new);
+    }
+
+    /**
+     * Create a new {@link StandardWalker} that does not cache any filesystem metadata.
+     *
+     * @param root
+     *         The root {@link Path} into which the {@link StorageWalker} will resolve content.
+     */
+    public StandardWalker(Path root) {
+
+        this(root, MetadataCache.disabled());
     }
 
     static Path walk(Path from, String toward) {
@@ -48,19 +72,20 @@ public record StandardWalker(Path root) implements StorageWalker {
     @Override
     public StorageWalker walk(String into) {
 
-        return new StandardWalker(this.directory(into));
+        return new StandardWalker(this.directory(into), this.cache());
     }
 
     @Override
     public Path directory(String name) {
 
-        Path walked = walk(this.root(), name);
+        Path     walked = walk(this.root(), name);
+        PathKind kind   = this.cache().kind(walked);
 
-        if (Files.isDirectory(walked) || Files.notExists(walked)) {
+        if (kind == PathKind.DIRECTORY || kind == PathKind.MISSING) {
             return walked;
         }
 
-        if (Files.isRegularFile(walked)) {
+        if (kind == PathKind.FILE) {
             throw new StorageException("Directory was expected, got file instead (Path: " + walked + ")");
         }
 
@@ -70,14 +95,15 @@ public record StandardWalker(Path root) implements StorageWalker {
     @Override
     public Path file(String filename) {
 
-        Path walked = walk(this.root(), filename);
+        Path     walked = walk(this.root(), filename);
+        PathKind kind   = this.cache().kind(walked);
 
         // Non-existant files are considered valid as they will be created on write
-        if (Files.isRegularFile(walked) || Files.notExists(walked)) {
+        if (kind == PathKind.FILE || kind == PathKind.MISSING) {
             return walked;
         }
 
-        if (Files.isDirectory(walked)) {
+        if (kind == PathKind.DIRECTORY) {
             throw new StorageException("File was expected, got directory instead (Path: " + walked + ")");
         }
 
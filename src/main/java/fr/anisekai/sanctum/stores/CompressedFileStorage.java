@@ -0,0 +1,50 @@
+package fr.anisekai.sanctum.stores;
+
+import fr.anisekai.sanctum.codecs.DeflateCodec;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+
+/**
+ * Specific implementation of a {@link FileStore} behaving like a {@link ScopedFileStorage}, but where each file is encoded with a
+ * {@link StorageCodec} when committed. This is ideal for highly compressible content like metadata or subtitles.
+ *
+ * @param name
+ *         The name of this {@link FileStore}
+ * @param scope
+ *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+ * @param extension
+ *         The extension that this {@link FileStore} will enforce.
+ * @param codec
+ *         The {@link StorageCodec} used to encode files of this {@link FileStore}.
+ */
+public record CompressedFileStorage(
+        String name,
+        Class<? extends ScopedEntity> scope,
+        String extension,
+        StorageCodec codec
+) implements FileStore {
+
+    /**
+     * Create a new {@link CompressedFileStorage} using a {@link DeflateCodec} with the default compression level.
+     *
+     * @param name
+     *         The name of this {@link FileStore}
+     * @param scope
+     *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+     * @param extension
+     *         The extension that this {@link FileStore} will enforce.
+     */
+    public CompressedFileStorage(String name, Class<? extends ScopedEntity> scope, String extension) {
+
+        this(name, scope, extension, new DeflateCodec());
+    }
+
+    @Override
+    public StoreType type() {
+
+        return StoreType.FILE_SCOPED;
+    }
+
+}
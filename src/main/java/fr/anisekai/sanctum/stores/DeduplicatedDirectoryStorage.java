@@ -0,0 +1,31 @@
+package fr.anisekai.sanctum.stores;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+
+/**
+ * Specific implementation of a {@link FileStore} behaving like a {@link ScopedDirectoryStorage}, but where identical files are
+ * only stored once on the disk, no matter how many {@link ScopedEntity} directories are containing them. This is ideal for
+ * attachments shared between a lot of entities.
+ *
+ * @param name
+ *         The name of this {@link FileStore}.
+ * @param scope
+ *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+ */
+public record DeduplicatedDirectoryStorage(String name, Class<? extends ScopedEntity> scope) implements FileStore {
+
+    @Override
+    public StoreType type() {
+
+        return StoreType.DIRECTORY_SCOPED;
+    }
+
+    @Override
+    public boolean deduplicated() {
+
+        return true;
+    }
+
+}
@@ -0,0 +1,34 @@
+package fr.anisekai.sanctum.stores;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.packs.PackStore;
+
+/**
+ * Specific implementation of a {@link FileStore} behaving like a {@link ScopedFileStorage} within isolation, but where committed
+ * files are appended to large segment files of a {@link PackStore} instead of being kept as one file per {@link ScopedEntity}.
+ * This is ideal for a very large amount of tiny files.
+ *
+ * @param name
+ *         The name of this {@link FileStore}
+ * @param scope
+ *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+ * @param extension
+ *         The extension that this {@link FileStore} will enforce.
+ */
+public record PackedFileStorage(String name, Class<? extends ScopedEntity> scope, String extension) implements FileStore {
+
+    @Override
+    public StoreType type() {
+
+        return StoreType.FILE_SCOPED;
+    }
+
+    @Override
+    public boolean packed() {
+
+        return true;
+    }
+
+}
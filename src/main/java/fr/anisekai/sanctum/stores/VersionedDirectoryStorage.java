@@ -0,0 +1,43 @@
+package fr.anisekai.sanctum.stores;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+
+/**
+ * Specific implementation of a {@link FileStore} behaving like a {@link ScopedDirectoryStorage}, but where the previous versions
+ * of each {@link ScopedEntity} directory are kept when committing, allowing to restore them later.
+ *
+ * @param name
+ *         The name of this {@link FileStore}.
+ * @param scope
+ *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+ * @param retention
+ *         The amount of previous versions kept for each {@link ScopedEntity}.
+ */
+public record VersionedDirectoryStorage(String name, Class<? extends ScopedEntity> scope, int retention) implements FileStore {
+
+    /**
+     * Provide default sanity checks when creating a {@link VersionedDirectoryStorage}.
+     *
+     * @param name
+     *         The name of this {@link FileStore}.
+     * @param scope
+     *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+     * @param retention
+     *         The amount of previous versions kept for each {@link ScopedEntity}.
+     */
+    public VersionedDirectoryStorage {
+
+        if (retention <= 0) {
+            throw new IllegalArgumentException("A versioned store must keep at least one version.");
+        }
+    }
+
+    @Override
+    public StoreType type() {
+
+        return StoreType.DIRECTORY_SCOPED;
+    }
+
+}
@@ -0,0 +1,52 @@
+package fr.anisekai.sanctum.stores;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+
+/**
+ * Specific implementation of a {@link FileStore} behaving like a {@link ScopedFileStorage}, but where the previous versions of
+ * each {@link ScopedEntity} file are kept when committing, allowing to restore them later.
+ *
+ * @param name
+ *         The name of this {@link FileStore}
+ * @param scope
+ *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+ * @param extension
+ *         The extension that this {@link FileStore} will enforce.
+ * @param retention
+ *         The amount of previous versions kept for each {@link ScopedEntity}.
+ */
+public record VersionedFileStorage(
+        String name,
+        Class<? extends ScopedEntity> scope,
+        String extension,
+        int retention
+) implements FileStore {
+
+    /**
+     * Provide default sanity checks when creating a {@link VersionedFileStorage}.
+     *
+     * @param name
+     *         The name of this {@link FileStore}
+     * @param scope
+     *         The type of {@link ScopedEntity} that this {@link FileStore} uses.
+     * @param extension
+     *         The extension that this {@link FileStore} will enforce.
+     * @param retention
+     *         The amount of previous versions kept for each {@link ScopedEntity}.
+     */
+    public VersionedFileStorage {
+
+        if (retention <= 0) {
+            throw new IllegalArgumentException("A versioned store must keep at least one version.");
+        }
+    }
+
+    @Override
+    public StoreType type() {
+
+        return StoreType.FILE_SCOPED;
+    }
+
+}
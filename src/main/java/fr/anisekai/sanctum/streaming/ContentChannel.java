@@ -0,0 +1,137 @@
+package fr.anisekai.sanctum.streaming;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Read-only handle on a file allowing to stream byte ranges to any {@link WritableByteChannel} using
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, letting the operating system send the content without copying
+ * it through the heap when possible.
+ */
+public final class ContentChannel implements AutoCloseable {
+
+    private static final int MAX_OPEN_ATTEMPTS = 8;
+
+    private final FileChannel     channel;
+    private final ContentMetadata metadata;
+
+    private ContentChannel(FileChannel channel, ContentMetadata metadata) {
+
+        this.channel  = channel;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Open a {@link ContentChannel} on the provided file. The file attributes are read only once, right after opening the channel,
+     * and are checked against the size of the opened file: a file replaced while being opened is opened again, a bounded amount
+     * of times.
+     *
+     * @param path
+     *         The {@link Path} of the file to open.
+     *
+     * @return A {@link ContentChannel}.
+     *
+     * @throws IOException
+     *         If the file could not be opened, or kept being replaced while being opened.
+     */
+    public static ContentChannel open(Path path) throws IOException {
+
+        for (int attempt = 0; attempt < MAX_OPEN_ATTEMPTS; attempt++) {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+                // The size of the channel is read from the opened file, while the attributes are read from the path: they only
+                // differ if the file has been replaced in between. As the size bounds every transfer, it is all that must match.
+                if (channel.size() == attributes.size()) {
+                    return new ContentChannel(channel, ContentMetadata.of(attributes));
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+
+            channel.close();
+        }
+
+        throw new FileSystemException(path.toString(), null, "The file has been replaced while being opened");
+    }
+
+    /**
+     * Retrieve the {@link ContentMetadata} of the opened file, as it was when this {@link ContentChannel} was opened.
+     *
+     * @return A {@link ContentMetadata}.
+     */
+    public ContentMetadata metadata() {
+
+        return this.metadata;
+    }
+
+    /**
+     * Stream the whole file to the provided {@link WritableByteChannel}.
+     *
+     * @param target
+     *         The {@link WritableByteChannel} receiving the content.
+     *
+     * @return The amount of bytes transferred.
+     *
+     * @throws IOException
+     *         If the transfer fails.
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+
+        return this.transferTo(0, this.metadata.length(), target);
+    }
+
+    /**
+     * Stream a byte range of the file to the provided {@link WritableByteChannel}. The transfer stops early if the target does
+     * not accept any more bytes, which can happen with non-blocking channels.
+     *
+     * @param offset
+     *         The offset of the first byte to transfer.
+     * @param length
+     *         The amount of bytes to transfer.
+     * @param target
+     *         The {@link WritableByteChannel} receiving the content.
+     *
+     * @return The amount of bytes transferred.
+     *
+     * @throws IOException
+     *         If the transfer fails.
+     * @throws IndexOutOfBoundsException
+     *         If the range is not within the file.
+     */
+    public long transferTo(long offset, long length, WritableByteChannel target) throws IOException {
+
+        if (offset < 0 || length < 0 || offset + length > this.metadata.length()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range [%s, %s) is not within the file (Length: %s)",
+                    offset,
+                    offset + length,
+                    this.metadata.length()
+            ));
+        }
+
+        long transferred = 0;
+        while (transferred < length) {
+            long count = this.channel.transferTo(offset + transferred, length - transferred, target);
+            if (count <= 0) break;
+            transferred += count;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.channel.close();
+    }
+
+}
@@ -0,0 +1,40 @@
+package fr.anisekai.sanctum.streaming;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Metadata of a file opened through a {@link ContentChannel}, allowing to validate conditional and range requests.
+ *
+ * @param length
+ *         The size of the file, in bytes.
+ * @param lastModified
+ *         The last modification {@link FileTime} of the file.
+ * @param etag
+ *         An opaque tag changing each time the file is replaced or modified.
+ */
+public record ContentMetadata(long length, FileTime lastModified, String etag) {
+
+    /**
+     * Create a {@link ContentMetadata} from the provided {@link BasicFileAttributes}.
+     *
+     * @param attributes
+     *         The {@link BasicFileAttributes} of the file.
+     *
+     * @return A {@link ContentMetadata}.
+     */
+    public static ContentMetadata of(BasicFileAttributes attributes) {
+
+        long   modified = attributes.lastModifiedTime().toMillis();
+        Object key      = attributes.fileKey();
+        String etag     = String.format(
+                "\"%x-%x-%x\"",
+                attributes.size(),
+                modified,
+                key == null ? 0 : key.hashCode()
+        );
+
+        return new ContentMetadata(attributes.size(), attributes.lastModifiedTime(), etag);
+    }
+
+}
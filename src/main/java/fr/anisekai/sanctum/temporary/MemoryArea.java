@@ -0,0 +1,144 @@
+package fr.anisekai.sanctum.temporary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory-backed area holding temporary files, rooted on a directory of a memory filesystem such as {@code /dev/shm} or any other
+ * tmpfs mount. Files placed there never reach the disk, so scratch writes do not compete with commits for the library disk.
+ * <p>
+ * The memory used is bounded by a global budget shared by every session, and by a budget per session. A file is only placed in
+ * this area when its size is known at allocation time and fits in both budgets, otherwise it spills to the disk. Files are charged
+ * their size hint when placed: a file growing past it is measured on the next allocation of its session and charged its actual
+ * size, and no file is placed in this area while it is over budget.
+ */
+public final class MemoryArea {
+
+    private final Path       root;
+    private final long       budget;
+    private final long       sessionBudget;
+    private final AtomicLong used = new AtomicLong();
+
+    /**
+     * Create a new {@link MemoryArea} instance.
+     *
+     * @param root
+     *         The directory, on a memory filesystem, into which temporary files are placed.
+     * @param budget
+     *         The maximum amount of bytes held by this {@link MemoryArea} across every session.
+     * @param sessionBudget
+     *         The maximum amount of bytes held by this {@link MemoryArea} for a single session.
+     */
+    public MemoryArea(Path root, long budget, long sessionBudget) {
+
+        if (budget <= 0 || sessionBudget <= 0) {
+            throw new IllegalArgumentException("The memory budgets must be positive.");
+        }
+
+        this.root          = root.toAbsolutePath().normalize();
+        this.budget        = budget;
+        this.sessionBudget = sessionBudget;
+    }
+
+    /**
+     * Retrieve the directory into which temporary files of this {@link MemoryArea} are placed.
+     *
+     * @return A {@link Path}.
+     */
+    public Path root() {
+
+        return this.root;
+    }
+
+    /**
+     * Retrieve the maximum amount of bytes held by this {@link MemoryArea} across every session.
+     *
+     * @return The global budget, in bytes.
+     */
+    public long budget() {
+
+        return this.budget;
+    }
+
+    /**
+     * Retrieve the maximum amount of bytes held by this {@link MemoryArea} for a single session.
+     *
+     * @return The session budget, in bytes.
+     */
+    public long sessionBudget() {
+
+        return this.sessionBudget;
+    }
+
+    /**
+     * Retrieve the amount of bytes currently charged to this {@link MemoryArea}, which may exceed the budget when files grew past
+     * their size hint.
+     *
+     * @return The used amount, in bytes.
+     */
+    public long used() {
+
+        return this.used.get();
+    }
+
+    /**
+     * Create the directory holding the temporary files of a session.
+     *
+     * @param session
+     *         The {@link UUID} of the session.
+     *
+     * @return The {@link Path} of the directory.
+     *
+     * @throws IOException
+     *         If the directory could not be created.
+     */
+    Path directory(UUID session) throws IOException {
+
+        return Files.createDirectories(this.root.resolve(session.toString()));
+    }
+
+    /**
+     * Reserve the provided amount of bytes within the global budget.
+     *
+     * @param size
+     *         The amount of bytes to reserve.
+     *
+     * @return True if the amount has been reserved, false if it does not fit in the remaining budget.
+     */
+    boolean reserve(long size) {
+
+        long current;
+        do {
+            current = this.used.get();
+            if (current + size > this.budget) return false;
+        } while (!this.used.compareAndSet(current, current + size));
+        return true;
+    }
+
+    /**
+     * Charge the provided amount of bytes, used by files beyond their reservation, even if it exceeds the global budget. Nothing
+     * can be reserved until enough bytes have been given back.
+     *
+     * @param size
+     *         The amount of bytes to charge.
+     */
+    void charge(long size) {
+
+        this.used.addAndGet(size);
+    }
+
+    /**
+     * Give back an amount of bytes previously obtained with {@link #reserve(long)} or {@link #charge(long)}.
+     *
+     * @param size
+     *         The amount of bytes to give back.
+     */
+    void free(long size) {
+
+        this.used.addAndGet(-size);
+    }
+
+}
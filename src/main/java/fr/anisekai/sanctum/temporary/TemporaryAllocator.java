@@ -0,0 +1,307 @@
+package fr.anisekai.sanctum.temporary;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.exceptions.ResolveOutOfBoundException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Allocates the temporary files of a single isolation session. Names are taken from a monotonic counter instead of being
+ * generated, and are never handed out twice: a caller still holding the {@link Path} of a released file must not end up writing
+ * into a file issued to someone else.
+ * <p>
+ * Every issued file is tracked, so that it can be released as soon as it is not needed anymore instead of waiting for the whole
+ * session to be discarded.
+ * <p>
+ * When a {@link MemoryArea} is provided, files whose size is known at allocation time are placed in memory as long as they fit in
+ * its budgets, and spill to the disk otherwise. Files placed in memory are measured before each placement, so that those which
+ * grew past their size hint are charged their actual size.
+ */
+public final class TemporaryAllocator {
+
+    private final    Supplier<Path>        directorySupplier;
+    private final    MemoryArea            area;
+    private final    UUID                  session;
+    private final    AtomicLong            counter  = new AtomicLong();
+    private final    AtomicLong            reserved = new AtomicLong();
+    private final    Map<Path, Allocation> issued   = new ConcurrentHashMap<>();
+    private volatile Path                  directory;
+    private volatile Path                  memory;
+
+    /**
+     * Create a new {@link TemporaryAllocator} instance placing every file on the disk.
+     *
+     * @param directorySupplier
+     *         The {@link Supplier} of the directory into which files are allocated. It is only called once, on the first
+     *         allocation.
+     */
+    public TemporaryAllocator(Supplier<Path> directorySupplier) {
+
+        this(directorySupplier, null, null);
+    }
+
+    /**
+     * Create a new {@link TemporaryAllocator} instance placing files in the provided {@link MemoryArea} when they fit.
+     *
+     * @param directorySupplier
+     *         The {@link Supplier} of the directory into which files spilling to the disk are allocated. It is only called once,
+     *         on the first allocation on the disk.
+     * @param area
+     *         The {@link MemoryArea} into which files are allocated when they fit, or {@code null} to place every file on the
+     *         disk.
+     * @param session
+     *         The {@link UUID} of the session owning this {@link TemporaryAllocator}, naming its directory within the
+     *         {@link MemoryArea}.
+     */
+    public TemporaryAllocator(Supplier<Path> directorySupplier, @Nullable MemoryArea area, @Nullable UUID session) {
+
+        if (area != null && session == null) {
+            throw new IllegalArgumentException("A session is required to allocate files in memory.");
+        }
+
+        this.directorySupplier = directorySupplier;
+        this.area              = area;
+        this.session           = session;
+    }
+
+    private Path directory() {
+
+        Path directory = this.directory;
+        if (directory == null) {
+            synchronized (this) {
+                if (this.directory == null) {
+                    this.directory = this.directorySupplier.get();
+                }
+                directory = this.directory;
+            }
+        }
+        return directory;
+    }
+
+    private synchronized Path memory() throws IOException {
+
+        if (this.memory == null) {
+            this.memory = this.area.directory(this.session);
+        }
+        return this.memory;
+    }
+
+    /**
+     * Reserve the provided size in the {@link MemoryArea}, within the budget of this session.
+     *
+     * @param size
+     *         The size to reserve, in bytes.
+     *
+     * @return True if the file can be placed in memory.
+     */
+    private boolean reserve(long size) {
+
+        if (this.area == null || size <= 0) return false;
+
+        this.measure();
+
+        long current;
+        do {
+            current = this.reserved.get();
+            if (current + size > this.area.sessionBudget()) return false;
+        } while (!this.reserved.compareAndSet(current, current + size));
+
+        if (this.area.reserve(size)) return true;
+
+        this.reserved.addAndGet(-size);
+        return false;
+    }
+
+    /**
+     * Measure the files of this session held in the {@link MemoryArea}, and charge those which grew past their reservation with
+     * their actual size, so that the budgets account for them.
+     */
+    private void measure() {
+
+        for (Map.Entry<Path, Allocation> entry : this.issued.entrySet()) {
+            Allocation allocation = entry.getValue();
+            if (allocation.reserved() == 0) continue;
+
+            long size;
+            try {
+                size = Files.size(entry.getKey());
+            } catch (IOException e) {
+                // Released or deleted in the meantime, there is nothing left to charge.
+                continue;
+            }
+
+            if (size <= allocation.reserved()) continue;
+
+            // A concurrent release frees whatever is recorded, so the growth is only charged once recorded.
+            if (this.issued.replace(entry.getKey(), allocation, new Allocation(allocation.id(), size))) {
+                this.reserved.addAndGet(size - allocation.reserved());
+                this.area.charge(size - allocation.reserved());
+            }
+        }
+    }
+
+    private void free(long size) {
+
+        if (size == 0) return;
+        this.reserved.addAndGet(-size);
+        this.area.free(size);
+    }
+
+    /**
+     * Allocate a new temporary file. The file is not created unless a size hint is provided, in which case it is created with
+     * that size so that it can be written without being extended. Such a file must then be opened without truncating it.
+     * <p>
+     * Only files allocated with a size hint are placed in the {@link MemoryArea}, as the memory they will use is otherwise unknown.
+     * A file placed in memory should not grow beyond its size hint: its growth is only charged to the budgets on the next
+     * allocation of this session.
+     *
+     * @param extension
+     *         The file extension of the temporary file.
+     * @param sizeHint
+     *         The expected size of the file, or {@code 0} to leave the file uncreated.
+     *
+     * @return The {@link Path} of the temporary file.
+     *
+     * @throws IOException
+     *         If the file could not be preallocated.
+     */
+    public Path allocate(String extension, long sizeHint) throws IOException {
+
+        long id       = this.counter.getAndIncrement();
+        long reserved = this.reserve(sizeHint) ? sizeHint : 0;
+
+        try {
+            Path directory = reserved > 0 ? this.memory() : this.directory();
+            Path path      = directory.resolve(Long.toString(id, 36) + '.' + extension);
+
+            if (!directory.equals(path.getParent())) {
+                throw new ResolveOutOfBoundException(String.format("Invalid temporary file extension '%s'", extension));
+            }
+
+            if (sizeHint > 0) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.allocate(1), sizeHint - 1);
+                }
+            }
+
+            this.issued.put(path, new Allocation(id, reserved));
+            return path;
+        } catch (IOException | RuntimeException e) {
+            this.free(reserved);
+            throw e;
+        }
+    }
+
+    /**
+     * Release a temporary file issued by this {@link TemporaryAllocator}, deleting it.
+     *
+     * @param path
+     *         The {@link Path} of the temporary file.
+     *
+     * @throws IOException
+     *         If the file could not be deleted.
+     */
+    public void release(Path path) throws IOException {
+
+        Allocation allocation = this.issued.remove(path);
+
+        if (allocation == null) {
+            throw new IllegalArgumentException(String.format("'%s' was not issued by this allocator", path));
+        }
+
+        try {
+            Files.deleteIfExists(path);
+        } finally {
+            this.free(allocation.reserved());
+        }
+    }
+
+    /**
+     * Release every temporary file issued by this {@link TemporaryAllocator}.
+     *
+     * @throws IOException
+     *         If a file could not be deleted.
+     */
+    public void releaseAll() throws IOException {
+
+        for (Path path : List.copyOf(this.issued.keySet())) {
+            this.release(path);
+        }
+    }
+
+    /**
+     * Retrieve every temporary file currently issued by this {@link TemporaryAllocator}.
+     *
+     * @return A {@link List} of {@link Path}.
+     */
+    public List<Path> issued() {
+
+        return List.copyOf(this.issued.keySet());
+    }
+
+    /**
+     * Check if the provided temporary file has been placed in the {@link MemoryArea}.
+     *
+     * @param path
+     *         The {@link Path} of the temporary file.
+     *
+     * @return True if the file is held in memory.
+     */
+    public boolean isInMemory(Path path) {
+
+        Allocation allocation = this.issued.get(path);
+        return allocation != null && allocation.reserved() > 0;
+    }
+
+    /**
+     * Retrieve the amount of bytes this {@link TemporaryAllocator} currently holds in the {@link MemoryArea}, as charged on the
+     * last allocation.
+     *
+     * @return The reserved amount, in bytes.
+     */
+    public long reserved() {
+
+        return this.reserved.get();
+    }
+
+    /**
+     * Release every temporary file and remove the directory of this session from the {@link MemoryArea}, giving its budget back.
+     * Files on the disk are left to the removal of the isolation directory.
+     *
+     * @throws IOException
+     *         If the memory directory could not be removed.
+     */
+    public void close() throws IOException {
+
+        for (Path path : List.copyOf(this.issued.keySet())) {
+            Allocation allocation = this.issued.remove(path);
+            if (allocation != null) this.free(allocation.reserved());
+        }
+
+        Path memory = this.memory;
+        if (memory != null) SanctumUtils.delete(memory);
+    }
+
+    /**
+     * An issued temporary file.
+     *
+     * @param id
+     *         The identifier naming the file.
+     * @param reserved
+     *         The amount of bytes charged to the {@link MemoryArea}, {@code 0} if the file is on the disk.
+     */
+    private record Allocation(long id, long reserved) {}
+
+}
@@ -0,0 +1,342 @@
+package fr.anisekai.sanctum.tiers;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.chunks.ParallelCopy;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Background task moving the entities of a tiered {@link FileStore} between a hot root and a cold root. Entities read from the
+ * cold root are promoted back to the hot root, and the least recently accessed entities are demoted to the cold root once the hot
+ * root holds more than the configured amount of entities. This task is meant to be scheduled periodically, for example with a
+ * {@link ScheduledExecutorService}.
+ * <p>
+ * An entity is only moved while it is reserved through {@link Reservations}, which never succeeds while an isolation context holds
+ * a claim on it. Moves are done by copying the entity under a hidden name in the target root, renaming it, then deleting the
+ * source, so that readers can always find the entity in one of the two roots.
+ */
+public final class TierMigrator implements Runnable {
+
+    /**
+     * Allows the {@link TierMigrator} to prevent any claim on an entity while it is being moved.
+     */
+    public interface Reservations {
+
+        /**
+         * Reserve the entity with the provided scoped name.
+         *
+         * @param name
+         *         The scoped name of the entity.
+         *
+         * @return True if the entity has been reserved, false if it is currently claimed.
+         */
+        boolean reserve(String name);
+
+        /**
+         * Release a reservation obtained through {@link #reserve(String)}.
+         *
+         * @param name
+         *         The scoped name of the entity.
+         */
+        void release(String name);
+
+    }
+
+    private final FileStore         store;
+    private final Path              hot;
+    private final Path              cold;
+    private final int               maxHotEntities;
+    private final MetadataCache     cache;
+    private final ParallelCopy      copier;
+    private final Reservations      reservations;
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+    private final Set<String>       coldHits   = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create a new {@link TierMigrator} instance.
+     *
+     * @param store
+     *         The tiered {@link FileStore}.
+     * @param hot
+     *         The {@link Path} of the store directory within the hot root.
+     * @param cold
+     *         The {@link Path} of the store directory within the cold root.
+     * @param maxHotEntities
+     *         The amount of entities the hot root can hold before demoting the least recently accessed ones.
+     * @param cache
+     *         The {@link MetadataCache} to invalidate when an entity is moved.
+     * @param copier
+     *         The {@link ParallelCopy} used to copy large files between roots.
+     * @param reservations
+     *         The {@link Reservations} to use before moving an entity.
+     */
+    public TierMigrator(FileStore store, Path hot, Path cold, int maxHotEntities, MetadataCache cache, ParallelCopy copier, Reservations reservations) {
+
+        if (!store.type().isScoped()) {
+            throw new IllegalArgumentException("Only scoped stores can be tiered.");
+        }
+
+        if (maxHotEntities < 0) {
+            throw new IllegalArgumentException("The amount of hot entities cannot be negative.");
+        }
+
+        this.store          = store;
+        this.hot            = hot;
+        this.cold           = cold;
+        this.maxHotEntities = maxHotEntities;
+        this.cache          = cache;
+        this.copier         = copier;
+        this.reservations   = reservations;
+    }
+
+    /**
+     * Retrieve the tiered {@link FileStore}.
+     *
+     * @return A {@link FileStore}.
+     */
+    public FileStore store() {
+
+        return this.store;
+    }
+
+    /**
+     * Retrieve the {@link Path} of the store directory within the hot root.
+     *
+     * @return A {@link Path}.
+     */
+    public Path hot() {
+
+        return this.hot;
+    }
+
+    /**
+     * Retrieve the {@link Path} of the store directory within the cold root.
+     *
+     * @return A {@link Path}.
+     */
+    public Path cold() {
+
+        return this.cold;
+    }
+
+    /**
+     * Record an access to the entity with the provided scoped name.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     * @param fromCold
+     *         True if the entity was found within the cold root, in which case it will be promoted on the next run.
+     */
+    public void touch(String name, boolean fromCold) {
+
+        this.lastAccess.put(name, System.currentTimeMillis());
+        if (fromCold) this.coldHits.add(name);
+    }
+
+    /**
+     * Retrieve the name of the entry representing the entity with the provided scoped name within a store directory.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     *
+     * @return The entry name.
+     */
+    public String entry(String name) {
+
+        if (this.store.type() == StoreType.FILE_SCOPED) {
+            return String.format("%s.%s", name, this.store.extension());
+        }
+        return name;
+    }
+
+    /**
+     * Check if the entity with the provided scoped name currently lives within the cold root.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     *
+     * @return True if the entity is only present in the cold root.
+     */
+    public boolean isCold(String name) {
+
+        String entry = this.entry(name);
+        return !Files.exists(this.hot.resolve(entry)) && Files.exists(this.cold.resolve(entry));
+    }
+
+    /**
+     * Move the entity with the provided scoped name to the hot or cold root. The caller must ensure that nobody else is
+     * modifying the entity, either by holding its claim or a reservation.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     * @param toHot
+     *         True to move the entity to the hot root, false to move it to the cold root.
+     *
+     * @return True if the entity has been moved, false if it was not present in the source root.
+     *
+     * @throws IOException
+     *         If the entity could not be moved.
+     */
+    public boolean relocate(String name, boolean toHot) throws IOException {
+
+        String entry  = this.entry(name);
+        Path   source = (toHot ? this.cold : this.hot).resolve(entry);
+        Path   target = (toHot ? this.hot : this.cold).resolve(entry);
+
+        if (!Files.exists(source)) return false;
+
+        Path staging = target.resolveSibling(String.format(".%s.migrating", entry));
+
+        try {
+            SanctumUtils.delete(staging);
+            SanctumUtils.copy(this.copier, source, staging, StandardCopyOption.COPY_ATTRIBUTES);
+            // A leftover of an interrupted migration cannot be renamed over, the source is still the reference copy.
+            if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) SanctumUtils.delete(target);
+            SanctumUtils.move(staging, target);
+            SanctumUtils.delete(source);
+        } finally {
+            SanctumUtils.delete(staging);
+            this.cache.invalidate(source);
+            this.cache.invalidate(target);
+        }
+
+        if (toHot) this.lastAccess.put(name, System.currentTimeMillis());
+        else this.lastAccess.remove(name);
+
+        return true;
+    }
+
+    private boolean migrate(String name, boolean toHot) throws IOException {
+
+        if (!this.reservations.reserve(name)) return false;
+
+        try {
+            return this.relocate(name, toHot);
+        } finally {
+            this.reservations.release(name);
+        }
+    }
+
+    private long accessTime(String entry, Path path) {
+
+        Long access = this.lastAccess.get(this.name(entry));
+        if (access != null) return access;
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private String name(String entry) {
+
+        if (this.store.type() == StoreType.FILE_SCOPED) {
+            return entry.substring(0, entry.length() - this.store.extension().length() - 1);
+        }
+        return entry;
+    }
+
+    private List<Path> entries(Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory)) return List.of();
+
+        // Only file scoped stores enforce an extension.
+        String suffix = this.store.type() == StoreType.FILE_SCOPED ? "." + this.store.extension() : "";
+
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> !path.getFileName().toString().startsWith("."))
+                         .filter(path -> this.store.type() != StoreType.FILE_SCOPED ||
+                                 (Files.isRegularFile(path) && path.getFileName().toString().endsWith(suffix)))
+                         .filter(path -> this.store.type() != StoreType.DIRECTORY_SCOPED || Files.isDirectory(path))
+                         .toList();
+        }
+    }
+
+    /**
+     * Promote every entity read from the cold root since the last call.
+     *
+     * @return The amount of promoted entities.
+     *
+     * @throws IOException
+     *         If an entity could not be moved.
+     */
+    public int promote() throws IOException {
+
+        int promoted = 0;
+
+        for (String name : List.copyOf(this.coldHits)) {
+            if (Thread.currentThread().isInterrupted()) break;
+            // Claimed entities stay in the hit set and will be retried on the next call.
+            if (!this.reservations.reserve(name)) continue;
+            try {
+                this.coldHits.remove(name);
+                if (this.relocate(name, true)) promoted++;
+            } finally {
+                this.reservations.release(name);
+            }
+        }
+
+        return promoted;
+    }
+
+    /**
+     * Demote the least recently accessed entities of the hot root until it holds at most the configured amount of entities.
+     * Claimed entities are skipped.
+     *
+     * @return The amount of demoted entities.
+     *
+     * @throws IOException
+     *         If an entity could not be moved.
+     */
+    public int demote() throws IOException {
+
+        List<Path> entries = new ArrayList<>(this.entries(this.hot));
+        int        excess  = entries.size() - this.maxHotEntities;
+
+        if (excess <= 0) return 0;
+
+        Map<Path, Long> times = new HashMap<>();
+        for (Path entry : entries) {
+            times.put(entry, this.accessTime(entry.getFileName().toString(), entry));
+        }
+        entries.sort(Comparator.comparingLong(times::get));
+
+        int demoted = 0;
+
+        for (Path entry : entries) {
+            if (demoted >= excess || Thread.currentThread().isInterrupted()) break;
+            if (this.migrate(this.name(entry.getFileName().toString()), false)) demoted++;
+        }
+
+        return demoted;
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            this.promote();
+            this.demote();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package fr.anisekai.sanctum.tiers;
+
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.exceptions.ResolveOutOfBoundException;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Implementation of {@link StorageResolver} spanning the hot and cold roots of a tiered store. Entities are resolved within the
+ * hot root when present, then within the cold root, and default to the hot root when they exist in neither. Every entity
+ * resolution is reported to the {@link TierMigrator} so that it can track accesses.
+ *
+ * @param hot
+ *         The {@link StorageResolver} of the hot root.
+ * @param cold
+ *         The {@link StorageResolver} of the cold root.
+ * @param migrator
+ *         The {@link TierMigrator} moving entities between both roots.
+ */
+public record TieredResolver(StorageResolver hot, StorageResolver cold, TierMigrator migrator) implements StorageResolver {
+
+    private Path select(ScopedEntity entity, Path hotPath, Path coldPath) {
+
+        boolean fromCold = !Files.exists(hotPath) && Files.exists(coldPath);
+        this.migrator().touch(entity.getScopedName(), fromCold);
+        return fromCold ? coldPath : hotPath;
+    }
+
+    @Override
+    public StorageCodec codec() {
+
+        return this.hot().codec();
+    }
+
+    @Override
+    public Path directory() {
+
+        return this.hot().directory();
+    }
+
+    @Override
+    public List<Path> directories() {
+
+        return List.of(this.hot().directory(), this.cold().directory());
+    }
+
+    @Override
+    public @Nullable String name(Path entry) {
+
+        return this.hot().name(entry);
+    }
+
+    @Override
+    public Path directory(String name) {
+
+        return this.hot().directory(name);
+    }
+
+    @Override
+    public Path file(String filename) {
+
+        return this.hot().file(filename);
+    }
+
+    @Override
+    public Path directory(ScopedEntity entity) {
+
+        return this.select(entity, this.hot().directory(entity), this.cold().directory(entity));
+    }
+
+    @Override
+    public Path file(ScopedEntity entity) {
+
+        return this.select(entity, this.hot().file(entity), this.cold().file(entity));
+    }
+
+    @Override
+    public Path file(ScopedEntity entity, String filename) {
+
+        if (this.migrator().store().type() != StoreType.DIRECTORY_SCOPED) {
+            throw new StorageException("Tried to resolve a directory scoped file on a file scoped store.");
+        }
+
+        // Walking into the entity would create its directory in both tiers, shadowing a cold entity with an empty hot one: the
+        // tier is chosen from the entity directory itself, and the file is resolved within it without touching the disk.
+        Path directory = this.directory(entity);
+        Path file      = directory.resolve(filename).normalize();
+
+        if (!file.startsWith(directory)) {
+            throw new ResolveOutOfBoundException(String.format(
+                    "Cannot resolve backward (Resolved '%s' from '%s')",
+                    file,
+                    directory
+            ));
+        }
+
+        return file;
+    }
+
+}
@@ -0,0 +1,61 @@
+package fr.anisekai.sanctum.usage;
+
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Background task saving a {@link UsageLedger} to its snapshot file when it changed since the last save. This task is meant to be
+ * scheduled periodically, for example with a {@link ScheduledExecutorService}.
+ */
+public final class UsageCheckpointer implements Runnable {
+
+    private final UsageLedger ledger;
+    private final Path        file;
+    private       long        saved = -1;
+
+    /**
+     * Create a new {@link UsageCheckpointer} instance.
+     *
+     * @param ledger
+     *         The {@link UsageLedger} to save.
+     * @param file
+     *         The {@link Path} of the snapshot file.
+     */
+    public UsageCheckpointer(UsageLedger ledger, Path file) {
+
+        this.ledger = ledger;
+        this.file   = file;
+    }
+
+    /**
+     * Save the {@link UsageLedger} if it changed since the last save.
+     *
+     * @return True if a snapshot has been written.
+     *
+     * @throws IOException
+     *         If the snapshot could not be written.
+     */
+    public synchronized boolean checkpoint() throws IOException {
+
+        long revision = this.ledger.revision();
+        if (revision == this.saved) return false;
+
+        this.ledger.save(this.file);
+        this.saved = revision;
+        return true;
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            this.checkpoint();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+}
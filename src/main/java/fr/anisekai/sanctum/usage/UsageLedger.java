@@ -0,0 +1,298 @@
+package fr.anisekai.sanctum.usage;
+
+import fr.anisekai.sanctum.metrics.TransferSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Disk usage of the entities of a library, kept up to date as entities are committed instead of being computed by walking the
+ * library. The total of each store is maintained alongside its entities, so reading it never iterates over them.
+ * <p>
+ * The ledger can be saved to a snapshot file and loaded back, so that it survives restarts. A snapshot does not account for
+ * changes made while the library was not running, in which case the ledger should be rebuilt by scanning the library. Entities
+ * updated while a scan is running keep their updated usage, as it is more recent than the scanned one.
+ */
+public final class UsageLedger {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, Map<String, TransferSize>> entities = new ConcurrentHashMap<>();
+    private final Map<String, TransferSize>              totals   = new ConcurrentHashMap<>();
+    private final AtomicLong                             revision = new AtomicLong();
+    private final ReadWriteLock                          lock     = new ReentrantReadWriteLock();
+    private final Set<String>                            touched  = ConcurrentHashMap.newKeySet();
+    private volatile boolean                             scanning = false;
+
+    /**
+     * Record the current usage of an entity, replacing the previous one. Updates of a given entity must not run concurrently.
+     *
+     * @param store
+     *         The name of the store of the entity.
+     * @param entity
+     *         The name of the entity within the store.
+     * @param usage
+     *         The {@link TransferSize} of the entity content, {@link TransferSize#NONE} if the entity does not exist anymore.
+     */
+    public void update(String store, String entity, TransferSize usage) {
+
+        // Updates only exclude the replacement of a whole store, not each other.
+        this.lock.readLock().lock();
+        try {
+            Map<String, TransferSize> content = this.entities.computeIfAbsent(store, key -> new ConcurrentHashMap<>());
+
+            TransferSize previous = usage.files() == 0 && usage.bytes() == 0 ?
+                    content.remove(entity) :
+                    content.put(entity, usage);
+
+            TransferSize delta = previous == null ? usage : usage.minus(previous);
+            this.totals.merge(store, delta, TransferSize::plus);
+            this.revision.incrementAndGet();
+
+            if (this.scanning) this.touched.add(key(store, entity));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the usage of the provided stores from a scan of their content. Entities updated with
+     * {@link #update(String, String, TransferSize)} while a store is being scanned keep their updated usage.
+     *
+     * @param stores
+     *         The names of the stores to rebuild.
+     * @param scanner
+     *         The {@link Function} scanning a store and returning the {@link TransferSize} of each of its entities.
+     */
+    public synchronized void rebuild(Collection<String> stores, Function<String, Map<String, TransferSize>> scanner) {
+
+        this.touched.clear();
+        this.scanning = true;
+
+        try {
+            for (String store : stores) {
+                Map<String, TransferSize> scanned = new HashMap<>(scanner.apply(store));
+
+                this.lock.writeLock().lock();
+                try {
+                    Map<String, TransferSize> current = this.entities.getOrDefault(store, Map.of());
+
+                    for (String key : this.touched) {
+                        if (!key.startsWith(store + '/')) continue;
+                        String       entity = key.substring(store.length() + 1);
+                        TransferSize usage  = current.get(entity);
+
+                        if (usage == null) scanned.remove(entity);
+                        else scanned.put(entity, usage);
+                    }
+
+                    this.replace(store, scanned);
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            this.scanning = false;
+            this.touched.clear();
+        }
+    }
+
+    private static String key(String store, String entity) {
+
+        return store + '/' + entity;
+    }
+
+    /**
+     * Replace the whole content of a store, typically after scanning it.
+     *
+     * @param store
+     *         The name of the store.
+     * @param usages
+     *         The {@link TransferSize} of each entity of the store.
+     */
+    public void replace(String store, Map<String, TransferSize> usages) {
+
+        Map<String, TransferSize> content = new ConcurrentHashMap<>(usages);
+        TransferSize              total   = usages.values().stream().reduce(TransferSize.NONE, TransferSize::plus);
+
+        this.lock.writeLock().lock();
+        try {
+            this.entities.put(store, content);
+            this.totals.put(store, total);
+            this.revision.incrementAndGet();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieve the usage of a store.
+     *
+     * @param store
+     *         The name of the store.
+     *
+     * @return The {@link TransferSize} of every entity of the store.
+     */
+    public TransferSize store(String store) {
+
+        return this.totals.getOrDefault(store, TransferSize.NONE);
+    }
+
+    /**
+     * Retrieve the usage of an entity.
+     *
+     * @param store
+     *         The name of the store of the entity.
+     * @param entity
+     *         The name of the entity within the store.
+     *
+     * @return The {@link TransferSize} of the entity content.
+     */
+    public TransferSize entity(String store, String entity) {
+
+        Map<String, TransferSize> content = this.entities.get(store);
+        if (content == null) return TransferSize.NONE;
+        return content.getOrDefault(entity, TransferSize.NONE);
+    }
+
+    /**
+     * Check if the usage of an entity is known, either because it was committed since this {@link UsageLedger} was created or
+     * because it was loaded or scanned.
+     *
+     * @param store
+     *         The name of the store of the entity.
+     * @param entity
+     *         The name of the entity within the store.
+     *
+     * @return True if the usage of the entity is known.
+     */
+    public boolean contains(String store, String entity) {
+
+        Map<String, TransferSize> content = this.entities.get(store);
+        return content != null && content.containsKey(entity);
+    }
+
+    /**
+     * Retrieve the usage of every entity of a store.
+     *
+     * @param store
+     *         The name of the store.
+     *
+     * @return A {@link Map} associating each entity name to its {@link TransferSize}.
+     */
+    public Map<String, TransferSize> entities(String store) {
+
+        Map<String, TransferSize> content = this.entities.get(store);
+        return content == null ? Map.of() : Map.copyOf(content);
+    }
+
+    /**
+     * Retrieve the usage of every store.
+     *
+     * @return A {@link Map} associating each store name to its {@link TransferSize}.
+     */
+    public Map<String, TransferSize> stores() {
+
+        return Map.copyOf(this.totals);
+    }
+
+    /**
+     * Retrieve a number increasing each time this {@link UsageLedger} is modified, allowing to skip saving an unchanged ledger.
+     *
+     * @return The revision of this {@link UsageLedger}.
+     */
+    public long revision() {
+
+        return this.revision.get();
+    }
+
+    /**
+     * Write a snapshot of this {@link UsageLedger} to the provided file, replacing it atomically.
+     *
+     * @param file
+     *         The {@link Path} of the snapshot.
+     *
+     * @throws IOException
+     *         If the snapshot could not be written.
+     */
+    public void save(Path file) throws IOException {
+
+        Path staging = file.resolveSibling(String.format(".%s.tmp", file.getFileName()));
+
+        // Updates may run while saving, but a store must not be replaced halfway through being written.
+        this.lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+            out.writeInt(FORMAT_VERSION);
+            for (Map.Entry<String, Map<String, TransferSize>> store : this.entities.entrySet()) {
+                for (Map.Entry<String, TransferSize> entity : store.getValue().entrySet()) {
+                    out.writeBoolean(true);
+                    out.writeUTF(store.getKey());
+                    out.writeUTF(entity.getKey());
+                    out.writeLong(entity.getValue().files());
+                    out.writeLong(entity.getValue().bytes());
+                }
+            }
+            out.writeBoolean(false);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        Files.move(staging, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Replace the content of this {@link UsageLedger} with the snapshot stored in the provided file.
+     *
+     * @param file
+     *         The {@link Path} of the snapshot.
+     *
+     * @throws IOException
+     *         If the snapshot could not be read.
+     */
+    public void load(Path file) throws IOException {
+
+        Map<String, Map<String, TransferSize>> snapshot = new ConcurrentHashMap<>();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException(String.format("Unsupported usage snapshot version %s", version));
+            }
+
+            while (in.readBoolean()) {
+                String       store  = in.readUTF();
+                String       entity = in.readUTF();
+                TransferSize usage  = new TransferSize(in.readLong(), in.readLong());
+                snapshot.computeIfAbsent(store, key -> new ConcurrentHashMap<>()).put(entity, usage);
+            }
+        } catch (EOFException e) {
+            throw new IOException(String.format("The usage snapshot '%s' is truncated", file), e);
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            this.entities.clear();
+            this.totals.clear();
+            snapshot.forEach(this::replace);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+}
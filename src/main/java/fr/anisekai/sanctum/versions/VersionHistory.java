@@ -0,0 +1,124 @@
+package fr.anisekai.sanctum.versions;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.exceptions.StorageException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Previous versions of a single entity of a versioned store. Each version is a hard-linked snapshot of the committed content,
+ * stored in a directory named after its version number, so that files left unchanged between versions do not use any space.
+ * <p>
+ * Hard links are only safe because the library never writes into a committed file: commits always replace files, leaving the
+ * bodies linked by older versions untouched.
+ *
+ * @param directory
+ *         The {@link Path} of the directory holding the versions of the entity.
+ */
+public record VersionHistory(Path directory) {
+
+    /**
+     * Retrieve the number of every version available, from the oldest to the newest.
+     *
+     * @return A {@link List} of version numbers.
+     *
+     * @throws IOException
+     *         If the versions could not be listed.
+     */
+    public List<Long> versions() throws IOException {
+
+        if (!Files.isDirectory(this.directory())) return List.of();
+
+        try (Stream<Path> stream = Files.list(this.directory())) {
+            return stream.map(path -> path.getFileName().toString())
+                         .filter(name -> !name.startsWith(".") && name.chars().allMatch(Character::isDigit))
+                         .map(Long::parseLong)
+                         .sorted()
+                         .toList();
+        }
+    }
+
+    /**
+     * Retrieve the {@link Path} of the content of a version.
+     *
+     * @param version
+     *         The version number.
+     *
+     * @return The {@link Path} of the version, which may be a file or a directory depending on the store.
+     */
+    public Path resolve(long version) {
+
+        if (version <= 0) {
+            throw new StorageException(String.format("Invalid version number %s", version));
+        }
+
+        return this.directory().resolve(String.valueOf(version));
+    }
+
+    /**
+     * Create a new version by hard-linking the provided content.
+     *
+     * @param content
+     *         The {@link Path} of the currently committed content.
+     *
+     * @return The number of the created version.
+     *
+     * @throws IOException
+     *         If the version could not be created.
+     */
+    public long snapshot(Path content) throws IOException {
+
+        Files.createDirectories(this.directory());
+
+        List<Long> versions = this.versions();
+        long       version  = versions.isEmpty() ? 1 : versions.getLast() + 1;
+        Path       staging  = this.directory().resolve(String.format(".%s.snapshot", version));
+
+        try {
+            SanctumUtils.delete(staging);
+            SanctumUtils.link(content, staging);
+            SanctumUtils.move(staging, this.resolve(version));
+        } finally {
+            SanctumUtils.delete(staging);
+        }
+
+        return version;
+    }
+
+    /**
+     * Delete a version.
+     *
+     * @param version
+     *         The version number.
+     *
+     * @throws IOException
+     *         If the version could not be deleted.
+     */
+    public void delete(long version) throws IOException {
+
+        SanctumUtils.delete(this.resolve(version));
+    }
+
+    /**
+     * Delete the oldest versions until at most the provided amount of versions remains.
+     *
+     * @param retention
+     *         The amount of versions to keep.
+     *
+     * @throws IOException
+     *         If a version could not be deleted.
+     */
+    public void prune(int retention) throws IOException {
+
+        List<Long> versions = this.versions();
+
+        for (int i = 0; i < versions.size() - retention; i++) {
+            this.delete(versions.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+package fr.anisekai.sanctum.views;
+
+import fr.anisekai.sanctum.SanctumUtils;
+import fr.anisekai.sanctum.enums.StoreType;
+import fr.anisekai.sanctum.exceptions.StorageException;
+import fr.anisekai.sanctum.interfaces.FileStore;
+import fr.anisekai.sanctum.interfaces.ReadView;
+import fr.anisekai.sanctum.interfaces.ScopedEntity;
+import fr.anisekai.sanctum.interfaces.StorageCodec;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.listing.DirectoryListing;
+import fr.anisekai.sanctum.listing.ListedEntry;
+import fr.anisekai.sanctum.listing.ListingPage;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link StorageResolver} resolving the content of a {@link FileStore} as it was when a {@link ReadView} was
+ * opened. Entities are pinned lazily, by hard-linking them into the snapshot of the view the first time they are resolved through
+ * it, or right before a commit replaces them, whichever comes first. Opening a view therefore does not depend on the size of the
+ * store.
+ * <p>
+ * An entity created after the view was opened is pinned as missing by its commit, and entities that are not pinned yet are
+ * unchanged since the view was opened. Listings therefore walk the live store, pinning each listed entity so that only paths
+ * within the snapshot are handed out, then the pinned entities deleted from the live store since the view was opened.
+ */
+public final class ViewResolver implements StorageResolver {
+
+    private final FileStore       store;
+    private final StorageResolver live;
+    private final StorageResolver snapshot;
+    private final Map<Path, Path> snapshots = new HashMap<>();
+    private final Map<Path, Path> origins   = new HashMap<>();
+    private final Set<String>     pinned    = new HashSet<>();
+
+    /**
+     * Create a new {@link ViewResolver} instance.
+     *
+     * @param store
+     *         The scoped {@link FileStore} resolved by this {@link ViewResolver}.
+     * @param live
+     *         The {@link StorageResolver} of the committed content of the store.
+     * @param snapshot
+     *         The {@link StorageResolver} of the snapshot of the view, located on the same roots as the committed content.
+     */
+    public ViewResolver(FileStore store, StorageResolver live, StorageResolver snapshot) {
+
+        List<Path> liveDirectories     = live.directories();
+        List<Path> snapshotDirectories = snapshot.directories();
+
+        if (liveDirectories.size() != snapshotDirectories.size()) {
+            throw new IllegalArgumentException("The snapshot must span the same roots as the committed content.");
+        }
+
+        this.store    = store;
+        this.live     = live;
+        this.snapshot = snapshot;
+
+        for (int i = 0; i < liveDirectories.size(); i++) {
+            this.snapshots.put(liveDirectories.get(i), snapshotDirectories.get(i));
+            this.origins.put(snapshotDirectories.get(i), liveDirectories.get(i));
+        }
+    }
+
+    private Path entity(StorageResolver resolver, ScopedEntity entity) {
+
+        if (this.store.type() == StoreType.FILE_SCOPED) {
+            return resolver.file(entity);
+        }
+        return resolver.directory(entity);
+    }
+
+    /**
+     * Pin the content of an entity into the snapshot, unless it has already been pinned. An entity that does not exist is pinned
+     * as missing.
+     *
+     * @param name
+     *         The scoped name of the entity.
+     * @param source
+     *         The {@link Path} of the committed entity.
+     * @param target
+     *         The {@link Path} of the entity within the snapshot.
+     *
+     * @throws IOException
+     *         If the entity could not be linked.
+     */
+    private synchronized void pin(String name, Path source, Path target) throws IOException {
+
+        if (this.pinned.contains(name)) return;
+
+        if (Files.exists(source, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createDirectories(target.getParent());
+                SanctumUtils.link(source, target);
+            } catch (IOException | RuntimeException e) {
+                SanctumUtils.delete(target);
+                throw e;
+            }
+        }
+
+        this.pinned.add(name);
+    }
+
+    /**
+     * Pin the current content of the provided {@link ScopedEntity} before it is replaced. Must be called by every commit of the
+     * entity for as long as the view is opened.
+     *
+     * @param entity
+     *         The {@link ScopedEntity} about to be committed.
+     *
+     * @throws IOException
+     *         If the entity could not be pinned.
+     */
+    public void preserve(ScopedEntity entity) throws IOException {
+
+        this.pin(entity.getScopedName(), this.entity(this.live, entity), this.entity(this.snapshot, entity));
+    }
+
+    private void resolve(ScopedEntity entity) {
+
+        try {
+            this.preserve(entity);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    public Path directory() {
+
+        return this.snapshot.directory();
+    }
+
+    @Override
+    public Path directory(String name) {
+
+        return this.snapshot.directory(name);
+    }
+
+    @Override
+    public Path file(String filename) {
+
+        return this.snapshot.file(filename);
+    }
+
+    @Override
+    public Path directory(ScopedEntity entity) {
+
+        this.resolve(entity);
+        return this.snapshot.directory(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity) {
+
+        this.resolve(entity);
+        return this.snapshot.file(entity);
+    }
+
+    @Override
+    public Path file(ScopedEntity entity, String filename) {
+
+        this.resolve(entity);
+        return this.snapshot.file(entity, filename);
+    }
+
+    @Override
+    public List<Path> directories() {
+
+        List<Path> directories = new ArrayList<>(this.live.directories());
+        directories.addAll(this.snapshot.directories());
+        return directories;
+    }
+
+    @Override
+    public @Nullable String name(Path entry) {
+
+        Path origin = this.origins.get(entry.getParent());
+        if (origin == null) return this.live.name(entry);
+
+        // Pinned entities still present in the live store are listed from it.
+        if (Files.exists(origin.resolve(entry.getFileName().toString()), LinkOption.NOFOLLOW_LINKS)) return null;
+        return this.snapshot.name(entry);
+    }
+
+    @Override
+    public Stream<ListedEntry> list(boolean prefetch) {
+
+        return DirectoryListing.stream(this.directories(), this::name, false).<ListedEntry>mapMulti((entry, consumer) -> {
+            ListedEntry pinned = this.pin(entry, prefetch);
+            if (pinned != null) consumer.accept(pinned);
+        });
+    }
+
+    @Override
+    public ListingPage page(@Nullable String token, int size, boolean prefetch) {
+
+        ListingPage       page    = DirectoryListing.page(this.directories(), this::name, token, size, false);
+        List<ListedEntry> entries = new ArrayList<>(page.entries().size());
+
+        for (ListedEntry entry : page.entries()) {
+            ListedEntry pinned = this.pin(entry, prefetch);
+            if (pinned != null) entries.add(pinned);
+        }
+
+        return new ListingPage(List.copyOf(entries), page.next());
+    }
+
+    /**
+     * Pin a listed entry found in the live store, so that the listing only hands out paths within the snapshot.
+     *
+     * @param entry
+     *         The {@link ListedEntry} to pin.
+     * @param prefetch
+     *         True to read the {@link BasicFileAttributes} of the pinned entry.
+     *
+     * @return The pinned {@link ListedEntry}, or {@code null} if the entity was created after the view was opened, in which case
+     *         it has been pinned as missing by its commit.
+     */
+    private @Nullable ListedEntry pin(ListedEntry entry, boolean prefetch) {
+
+        Path path   = entry.path();
+        Path target = this.snapshots.get(path.getParent());
+
+        if (target == null && !prefetch) return entry;
+
+        try {
+            if (target != null) {
+                path = target.resolve(path.getFileName().toString());
+                this.pin(entry.name(), entry.path(), path);
+            }
+
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new ListedEntry(entry.name(), path, prefetch ? attributes : null);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    public StorageCodec codec() {
+
+        return this.snapshot.codec();
+    }
+
+}
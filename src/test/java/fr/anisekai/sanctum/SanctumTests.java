@@ -1,31 +1,90 @@
 package fr.anisekai.sanctum;
 
 import com.github.f4b6a3.uuid.UuidCreator;
+import fr.anisekai.sanctum.chunks.ChunkedFile;
+import fr.anisekai.sanctum.chunks.ParallelCopy;
 import fr.anisekai.sanctum.entities.ScopedEntityA;
 import fr.anisekai.sanctum.entities.ScopedEntityB;
+import fr.anisekai.sanctum.enums.LibraryOperation;
+import fr.anisekai.sanctum.enums.PathKind;
 import fr.anisekai.sanctum.enums.StorePolicy;
+import fr.anisekai.sanctum.events.CommitPhaseEvent;
+import fr.anisekai.sanctum.events.DiscardEvent;
 import fr.anisekai.sanctum.exceptions.LibraryException;
 import fr.anisekai.sanctum.exceptions.ResolveOutOfBoundException;
 import fr.anisekai.sanctum.exceptions.StorageException;
 import fr.anisekai.sanctum.exceptions.StoreRegistrationException;
+import fr.anisekai.sanctum.exceptions.context.ContextCommitException;
 import fr.anisekai.sanctum.exceptions.context.ContextUnavailableException;
 import fr.anisekai.sanctum.exceptions.scope.ScopeDefinitionException;
 import fr.anisekai.sanctum.exceptions.scope.ScopeGrantException;
+import fr.anisekai.sanctum.feed.CommitEvent;
+import fr.anisekai.sanctum.feed.CommitFeed;
+import fr.anisekai.sanctum.feed.CommittedScope;
+import fr.anisekai.sanctum.generations.Generation;
+import fr.anisekai.sanctum.generations.GenerationReaper;
+import fr.anisekai.sanctum.index.EntityIndex;
+import fr.anisekai.sanctum.index.IndexedEntity;
 import fr.anisekai.sanctum.interfaces.FileStore;
 import fr.anisekai.sanctum.interfaces.Library;
+import fr.anisekai.sanctum.interfaces.PlacementStrategy;
+import fr.anisekai.sanctum.interfaces.ReadView;
 import fr.anisekai.sanctum.interfaces.ScopedEntity;
 import fr.anisekai.sanctum.interfaces.isolation.IsolationSession;
+import fr.anisekai.sanctum.interfaces.resolvers.MetadataCache;
+import fr.anisekai.sanctum.interfaces.resolvers.StorageResolver;
+import fr.anisekai.sanctum.listing.ListedEntry;
+import fr.anisekai.sanctum.listing.ListingPage;
+import fr.anisekai.sanctum.mapping.MappedView;
+import fr.anisekai.sanctum.mapping.MappingRegistry;
+import fr.anisekai.sanctum.metrics.InProcessMetrics;
+import fr.anisekai.sanctum.metrics.LatencyHistogram;
+import fr.anisekai.sanctum.metrics.TransferSize;
+import fr.anisekai.sanctum.packs.PackCompactor;
+import fr.anisekai.sanctum.packs.PackStatistics;
+import fr.anisekai.sanctum.packs.PackStore;
+import fr.anisekai.sanctum.replication.Replicator;
+import fr.anisekai.sanctum.resolvers.BoundedMetadataCache;
+import fr.anisekai.sanctum.stores.CompressedFileStorage;
+import fr.anisekai.sanctum.streaming.ContentChannel;
+import fr.anisekai.sanctum.temporary.MemoryArea;
+import fr.anisekai.sanctum.tiers.TierMigrator;
+import fr.anisekai.sanctum.usage.UsageCheckpointer;
+import fr.anisekai.sanctum.stores.DeduplicatedDirectoryStorage;
+import fr.anisekai.sanctum.stores.PackedFileStorage;
 import fr.anisekai.sanctum.stores.RawStorage;
 import fr.anisekai.sanctum.stores.ScopedDirectoryStorage;
 import fr.anisekai.sanctum.stores.ScopedFileStorage;
+import fr.anisekai.sanctum.stores.VersionedDirectoryStorage;
+import fr.anisekai.sanctum.stores.VersionedFileStorage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
 
 import java.io.*;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @DisplayName("Library Storage")
 @Tags({@Tag("unit-test"), @Tag("library-storage")})
@@ -96,12 +155,28 @@ public class SanctumTests {
 
             Assertions.assertDoesNotThrow(() -> manager.registerStore(store, StorePolicy.PRIVATE));
 
-            StoreRegistrationException ex = Assertions.assertThrows(
+            StoreRegistrationException ex;
+
+            ex = Assertions.assertThrows(
                     StoreRegistrationException.class,
                     () -> manager.registerStore(store, StorePolicy.PRIVATE)
             );
 
             Assertions.assertTrue(ex.getMessage().contains("already exists"), ex.getMessage());
+
+            ex = Assertions.assertThrows(
+                    StoreRegistrationException.class,
+                    () -> manager.registerStore(new ScopedDirectoryStorage(store.name(), ScopedEntityA.class), StorePolicy.FULL_SWAP)
+            );
+
+            Assertions.assertTrue(ex.getMessage().contains("another type"), ex.getMessage());
+
+            ex = Assertions.assertThrows(
+                    StoreRegistrationException.class,
+                    () -> manager.registerStore(new RawStorage(".sanctum-blobs"), StorePolicy.PRIVATE)
+            );
+
+            Assertions.assertTrue(ex.getMessage().contains("reserved"), ex.getMessage());
         }
     }
 
@@ -463,6 +538,543 @@ public class SanctumTests {
         }
     }
 
+    @Test
+    @DisplayName("Isolation Writing | Released temporary files")
+    public void testIsolationWritingToReleasedTemporaryFile() throws Exception {
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            IsolationSession context = manager.createIsolation(Collections.emptySet());
+
+            try (context) {
+                Path first  = context.requestTemporaryFile("bin", 4096);
+                Path second = context.requestTemporaryFile("bin");
+
+                Assertions.assertNotEquals(first, second);
+                Assertions.assertEquals(4096, Files.size(first));
+                Assertions.assertFalse(Files.exists(second));
+
+                context.releaseTemporaryFile(first);
+                Assertions.assertFalse(Files.exists(first));
+
+                Assertions.assertThrows(IllegalArgumentException.class, () -> context.releaseTemporaryFile(first.resolveSibling("unknown")));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Isolation Writing | Temporary files spilling from memory")
+    public void testIsolationWritingToMemoryTemporaryFile() throws Exception {
+
+        Path memory = TEST_DATA_PATH.resolve("memory");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            MemoryArea area = manager.enableMemoryTemporary(memory, 8192, 4096);
+
+            try (IsolationSession context = manager.createIsolation(Collections.emptySet())) {
+                Path small   = context.requestTemporaryFile("bin", 4096);
+                Path large   = context.requestTemporaryFile("bin", 4096);
+                Path unknown = context.requestTemporaryFile("bin");
+
+                Assertions.assertTrue(small.startsWith(area.root()));
+                Assertions.assertFalse(large.startsWith(area.root()));
+                Assertions.assertFalse(unknown.startsWith(area.root()));
+                Assertions.assertEquals(4096, area.used());
+
+                context.releaseTemporaryFile(small);
+                Assertions.assertEquals(0, area.used());
+                Assertions.assertTrue(context.requestTemporaryFile("bin", 1024).startsWith(area.root()));
+
+                Path grown = context.requestTemporaryFile("bin", 1024);
+                Assertions.assertTrue(grown.startsWith(area.root()));
+                Files.write(grown, new byte[6000]);
+
+                // The growth is charged on the next allocation, which spills as the session is now over its budget.
+                Assertions.assertFalse(context.requestTemporaryFile("bin", 1024).startsWith(area.root()));
+                Assertions.assertEquals(7024, area.used());
+
+                context.releaseTemporaryFile(grown);
+                Assertions.assertEquals(1024, area.used());
+            }
+
+            Assertions.assertEquals(0, area.used());
+            Assertions.assertFalse(Files.exists(memory) && Files.list(memory).findAny().isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("Metrics | Operations are measured")
+    public void testMetrics() throws Exception {
+
+        FileStore   store = randomFileStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            InProcessMetrics metrics = new InProcessMetrics();
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            manager.enableMetrics(metrics);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Assertions.assertEquals(Map.of("scopes", 1L, "sessions", 1L), metrics.gauges());
+                Files.writeString(context.resolve(scope), "unit-test");
+                context.commit();
+            }
+
+            Assertions.assertEquals(Map.of("scopes", 0L, "sessions", 0L), metrics.gauges());
+            Assertions.assertEquals(1, metrics.histogram(LibraryOperation.CREATE_ISOLATION, null, null).count());
+            Assertions.assertEquals(1, metrics.histogram(LibraryOperation.COMMIT, null, null).count());
+            Assertions.assertEquals(1, metrics.histogram(LibraryOperation.DISCARD, null, null).count());
+
+            LatencyHistogram commit = metrics.histogram(LibraryOperation.COMMIT_SCOPE, store.name(), StorePolicy.FULL_SWAP);
+            Assertions.assertNotNull(commit);
+            Assertions.assertEquals(1, commit.count());
+            Assertions.assertTrue(commit.percentile(0.99) <= commit.max());
+            Assertions.assertEquals(new TransferSize(1, 9), metrics.copied());
+        }
+    }
+
+    @Test
+    @DisplayName("Metrics | Latency histogram percentiles")
+    public void testLatencyHistogram() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        Assertions.assertEquals(1000, histogram.count());
+        Assertions.assertEquals(1_000_000, histogram.max());
+        Assertions.assertEquals(500_500, histogram.mean());
+
+        long median = histogram.percentile(0.5);
+        Assertions.assertTrue(median >= 500_000 && median <= 625_000, String.valueOf(median));
+        Assertions.assertEquals(1_000_000, histogram.percentile(1));
+    }
+
+    @Test
+    @DisplayName("Flight Recorder | Commit phases are recorded")
+    public void testFlightRecorderEvents() throws Exception {
+
+        FileStore   store     = randomFileStore(ScopedEntityA.class);
+        AccessScope scope     = new AccessScope(store, new ScopedEntityA("1"));
+        Path        recording = TEST_DATA_PATH.resolve("recording.jfr");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH); Recording recorder = new Recording()) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            recorder.enable(CommitPhaseEvent.class);
+            recorder.enable(DiscardEvent.class);
+            recorder.start();
+
+            for (int i = 0; i < 2; i++) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope), "unit-test-" + i);
+                    context.commit();
+                }
+            }
+
+            recorder.stop();
+            recorder.dump(recording);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recording);
+        List<String>        phases = events.stream()
+                                           .filter(event -> event.getEventType().getName().equals("fr.anisekai.sanctum.CommitPhase"))
+                                           .map(event -> event.getString("phase"))
+                                           .toList();
+
+        Assertions.assertEquals(List.of("DELETE", "COPY", "BACKUP", "DELETE", "COPY", "CLEANUP"), phases);
+        Assertions.assertEquals(2, events.stream().filter(event -> event.getEventType().getName().equals("fr.anisekai.sanctum.Discard")).count());
+    }
+
+    @Test
+    @DisplayName("Usage | Commits are accounted")
+    public void testUsage() throws Exception {
+
+        FileStore   store  = randomFileStore(ScopedEntityA.class);
+        AccessScope scopeA = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope scopeB = new AccessScope(store, new ScopedEntityA("2"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            UsageCheckpointer checkpointer = manager.enableUsagePersistence();
+
+            try (IsolationSession context = manager.createIsolation(Set.of(scopeA, scopeB))) {
+                Files.writeString(context.resolve(scopeA), "unit-test");
+                Files.writeString(context.resolve(scopeB), "unit");
+                context.commit();
+            }
+
+            Assertions.assertEquals(new TransferSize(1, 9), manager.getUsage(scopeA));
+            Assertions.assertEquals(new TransferSize(2, 13), manager.getUsage(store));
+
+            try (IsolationSession context = manager.createIsolation(scopeA)) {
+                Files.writeString(context.resolve(scopeA), "unit-test-2");
+                context.commit();
+            }
+
+            Assertions.assertEquals(new TransferSize(2, 15), manager.getUsage(store));
+            Assertions.assertTrue(checkpointer.checkpoint());
+            Assertions.assertFalse(checkpointer.checkpoint());
+
+            manager.getUsage().replace(store.name(), Map.of());
+            manager.rebuildUsage();
+            Assertions.assertEquals(new TransferSize(2, 15), manager.getUsage(store));
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            manager.enableUsagePersistence();
+
+            Assertions.assertEquals(new TransferSize(1, 11), manager.getUsage(scopeA));
+            Assertions.assertEquals(new TransferSize(2, 15), manager.getUsage(store));
+        }
+    }
+
+    @Test
+    @DisplayName("Usage | Derived from the committed content")
+    public void testUsageDerived() throws Exception {
+
+        FileStore        merged     = randomDirStore(ScopedEntityA.class);
+        FileStore        compressed = new CompressedFileStorage(randomUUID(), ScopedEntityA.class, "json");
+        FileStore        shared     = new DeduplicatedDirectoryStorage(randomUUID(), ScopedEntityA.class);
+        FileStore        generated  = randomDirStore(ScopedEntityA.class);
+        AccessScope      mergedA    = new AccessScope(merged, new ScopedEntityA("1"));
+        AccessScope      compressA  = new AccessScope(compressed, new ScopedEntityA("1"));
+        AccessScope      sharedA    = new AccessScope(shared, new ScopedEntityA("1"));
+        AccessScope      generatedA = new AccessScope(generated, new ScopedEntityA("1"));
+        Set<AccessScope> all        = Set.of(mergedA, compressA, sharedA, generatedA);
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(merged, StorePolicy.OVERWRITE);
+            manager.registerStore(compressed, StorePolicy.FULL_SWAP);
+            manager.registerStore(shared, StorePolicy.FULL_SWAP);
+            manager.registerStore(generated, StorePolicy.GENERATIONAL);
+
+            for (int i = 1; i <= 2; i++) {
+                try (IsolationSession context = manager.createIsolation(all)) {
+                    Files.writeString(context.resolve(mergedA, "replaced.txt"), "unit-test-".repeat(i));
+                    Files.writeString(context.resolve(mergedA, i + ".txt"), "unit-test");
+                    Files.writeString(context.resolve(compressA), "{\"unit\": \"test\"}".repeat(256 * i));
+                    Files.writeString(context.resolve(sharedA, "font.ttf"), "unit-test-font".repeat(i));
+                    Files.writeString(context.resolve(generatedA, "content.txt"), "unit-test-".repeat(i));
+                    context.commit();
+                }
+            }
+
+            // The overwrite kept the file of the first commit and replaced the shared one.
+            Assertions.assertEquals(new TransferSize(3, 38), manager.getUsage(mergedA));
+            Assertions.assertEquals(new TransferSize(1, Files.size(manager.resolve(compressA))), manager.getUsage(compressA));
+
+            // Every store must be accounted as a scan of its content would measure it.
+            List<FileStore>    stores  = List.of(merged, compressed, shared, generated);
+            List<TransferSize> derived = stores.stream().map(manager::getUsage).toList();
+            manager.rebuildUsage();
+            Assertions.assertEquals(derived, stores.stream().map(manager::getUsage).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Entity Index | Enumeration and recovery")
+    public void testEntityIndex() throws Exception {
+
+        FileStore store = randomFileStore(ScopedEntityA.class);
+        Path      file  = TEST_LIBRARY_PATH.resolve(".sanctum-index").resolve(store.name());
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            AccessScope existing = new AccessScope(store, new ScopedEntityA("a-1"));
+            try (IsolationSession context = manager.createIsolation(existing)) {
+                Files.writeString(context.resolve(existing), "unit-test");
+                context.commit();
+            }
+
+            EntityIndex index = manager.enableIndex(store);
+            Assertions.assertEquals(new TransferSize(1, 9), index.get("a-1").orElseThrow().size());
+
+            for (String name : List.of("a-2", "b-1", "b-2")) {
+                AccessScope scope = new AccessScope(store, new ScopedEntityA(name));
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope), name);
+                    context.commit();
+                }
+            }
+
+            AccessScope removed = new AccessScope(store, new ScopedEntityA("a-2"));
+            try (IsolationSession context = manager.createIsolation(removed)) {
+                context.commit();
+            }
+
+            Assertions.assertEquals(List.of("a-1", "b-1", "b-2"), index.entities().map(IndexedEntity::name).toList());
+            Assertions.assertEquals(List.of("b-1", "b-2"), index.prefix("b").map(IndexedEntity::name).toList());
+            Assertions.assertEquals(List.of("a-1", "b-1"), index.range(null, "b-2").map(IndexedEntity::name).toList());
+        }
+
+        // A record torn by a crash is dropped when the index is opened.
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            EntityIndex index = manager.enableIndex(store);
+
+            Assertions.assertEquals(3, index.size());
+            Assertions.assertEquals(new TransferSize(1, 3), index.get("b-1").orElseThrow().size());
+
+            index.compact();
+            Assertions.assertEquals(List.of("a-1", "b-1", "b-2"), index.entities().map(IndexedEntity::name).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Entity Index | Maintained and reconciled after reopening")
+    public void testEntityIndexReopening() throws Exception {
+
+        FileStore store = randomFileStore(ScopedEntityA.class);
+
+        // The library is never closed, as if the process crashed.
+        Sanctum crashed = new Sanctum(TEST_LIBRARY_PATH);
+        crashed.registerStore(store, StorePolicy.FULL_SWAP);
+        crashed.enableIndex(store);
+
+        AccessScope first = new AccessScope(store, new ScopedEntityA("1"));
+        try (IsolationSession context = crashed.createIsolation(first)) {
+            Files.writeString(context.resolve(first), "first");
+            context.commit();
+        }
+
+        Path external = crashed.resolve(new AccessScope(store, new ScopedEntityA("2")));
+        Files.writeString(external, "external");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            EntityIndex index = manager.getIndex(store);
+            Assertions.assertFalse(index.isStale());
+            Assertions.assertEquals(List.of("1", "2"), index.entities().map(IndexedEntity::name).toList());
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            AccessScope third = new AccessScope(store, new ScopedEntityA("3"));
+            try (IsolationSession context = manager.createIsolation(third)) {
+                Files.writeString(context.resolve(third), "third");
+                context.commit();
+            }
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            EntityIndex index = manager.getIndex(store);
+            Assertions.assertEquals(List.of("1", "2", "3"), index.entities().map(IndexedEntity::name).toList());
+            Assertions.assertEquals(new TransferSize(1, 5), index.get("3").orElseThrow().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Commit Feed | Events are published and logged")
+    public void testCommitFeed() throws Exception {
+
+        FileStore         store    = randomFileStore(ScopedEntityA.class);
+        AccessScope       scope    = new AccessScope(store, new ScopedEntityA("1"));
+        List<CommitEvent> received = new ArrayList<>();
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            CommitFeed feed = manager.enableCommitFeed(Runnable::run, 16);
+
+            feed.subscribe(new Flow.Subscriber<>() {
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(CommitEvent item) {
+
+                    received.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+
+                }
+
+                @Override
+                public void onComplete() {
+
+                }
+            });
+
+            for (String content : List.of("unit-test", "unit")) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope), content);
+                    context.commit();
+                }
+            }
+        }
+
+        Assertions.assertEquals(List.of(1L, 2L), received.stream().map(CommitEvent::offset).toList());
+        Assertions.assertEquals(
+                new CommittedScope(store.name(), "1", StorePolicy.FULL_SWAP, new TransferSize(1, 4), new TransferSize(0, -5)),
+                received.getLast().scopes().getFirst()
+        );
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            CommitFeed feed = manager.enableCommitFeed(Runnable::run, 16);
+
+            Assertions.assertEquals(received, feed.log().read(1, 10));
+            Assertions.assertEquals(3, feed.log().next());
+            Assertions.assertEquals(1, feed.log().discard(2));
+            Assertions.assertEquals(List.of(received.getLast()), feed.log().read(0, 10));
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope), "u");
+                context.commit();
+            }
+
+            // The usage of this library does not know the entity yet, so it is measured before being committed.
+            CommitEvent event = feed.log().read(3, 1).getFirst();
+            Assertions.assertEquals(new TransferSize(0, -3), event.scopes().getFirst().delta());
+            Assertions.assertEquals(0, feed.failures());
+        }
+    }
+
+    @Test
+    @DisplayName("Commit Feed | Applied scopes of a failed commit are published")
+    public void testCommitFeedPartialCommit() throws Exception {
+
+        FileStore         files    = new ScopedFileStorage("published-files", ScopedEntityA.class, "txt");
+        FileStore         broken   = new ScopedDirectoryStorage("published-broken", ScopedEntityA.class);
+        AccessScope       failing  = new AccessScope(broken, new ScopedEntityA("1"));
+        Set<AccessScope>  scopes   = new HashSet<>(Set.of(failing));
+        List<CommitEvent> received = new ArrayList<>();
+
+        for (int i = 1; i <= 9; i++) scopes.add(new AccessScope(files, new ScopedEntityA(String.valueOf(i))));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(files, StorePolicy.FULL_SWAP);
+            manager.registerStore(broken, StorePolicy.OVERWRITE);
+            CommitFeed feed = manager.enableCommitFeed(Runnable::run, 16, false);
+
+            feed.subscribe(new Flow.Subscriber<>() {
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(CommitEvent item) {
+
+                    received.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+
+                }
+
+                @Override
+                public void onComplete() {
+
+                }
+            });
+
+            try (IsolationSession context = manager.createIsolation(scopes)) {
+                for (AccessScope scope : scopes) {
+                    if (scope.equals(failing)) Files.createSymbolicLink(context.resolve(scope, "broken.txt"), Path.of("missing"));
+                    else Files.writeString(context.resolve(scope), "unit-test");
+                }
+                Assertions.assertThrows(ContextCommitException.class, context::commit);
+            }
+
+            Set<String> applied = scopes.stream()
+                                        .filter(scope -> !scope.equals(failing))
+                                        .filter(scope -> Files.exists(manager.resolve(scope)))
+                                        .map(scope -> scope.claim().getScopedName())
+                                        .collect(Collectors.toSet());
+
+            // The feed is not durable, so nothing is written to the library.
+            Assertions.assertNull(feed.log());
+            // Scopes are committed in no particular order: every scope committed before the failing one must be published.
+            Assertions.assertEquals(applied.isEmpty() ? 0 : 1, received.size());
+            Assertions.assertEquals(
+                    applied,
+                    received.stream()
+                            .flatMap(event -> event.scopes().stream())
+                            .map(CommittedScope::entity)
+                            .collect(Collectors.toSet())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Library Resolution | Paginated listing")
+    public void testPaginatedListing() throws Exception {
+
+        FileStore        store  = randomFileStore(ScopedEntityA.class);
+        Set<AccessScope> scopes = new HashSet<>();
+
+        for (int i = 1; i <= 5; i++) {
+            scopes.add(new AccessScope(store, new ScopedEntityA("e-" + i)));
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(scopes)) {
+                for (AccessScope scope : scopes) {
+                    Files.writeString(context.resolve(scope), scope.claim().getScopedName());
+                }
+                context.commit();
+            }
+
+            StorageResolver resolver = manager.getResolver(store);
+            Files.writeString(resolver.directory().resolve(".e-0.txt"), "hidden");
+            Files.writeString(resolver.directory().resolve("readme.md"), "unrelated");
+
+            try (Stream<ListedEntry> entries = resolver.list(false)) {
+                Assertions.assertEquals(5, entries.count());
+            }
+
+            List<String> names = new ArrayList<>();
+            String       token = null;
+            int          pages = 0;
+
+            do {
+                ListingPage page = resolver.page(token, 2, true);
+                for (ListedEntry entry : page.entries()) {
+                    Assertions.assertEquals(3, entry.attributes().size());
+                    names.add(entry.name());
+                }
+                token = page.next();
+                pages++;
+            } while (token != null);
+
+            Assertions.assertEquals(3, pages);
+            Assertions.assertEquals(List.of("e-1", "e-2", "e-3", "e-4", "e-5"), names);
+
+            // Once indexed, pages are read from the index: an entity written behind the library is not listed.
+            manager.enableIndex(store);
+            Files.writeString(resolver.directory().resolve("e-0.txt"), "unindexed");
+
+            StorageResolver indexed = manager.getResolver(store);
+            ListingPage     first   = indexed.page(null, 3, true);
+            ListingPage     last    = indexed.page(first.next(), 3, true);
+
+            Assertions.assertEquals(List.of("e-1", "e-2", "e-3"), first.entries().stream().map(ListedEntry::name).toList());
+            Assertions.assertEquals(List.of("e-4", "e-5"), last.entries().stream().map(ListedEntry::name).toList());
+            Assertions.assertEquals(resolver.directory().resolve("e-4.txt"), last.entries().getFirst().path());
+            Assertions.assertEquals(3, last.entries().getFirst().attributes().size());
+            Assertions.assertNull(last.next());
+        }
+    }
+
     @Test
     @DisplayName("Isolation Resolution | EntityFileStore")
     public void testIsolationResolutionOnEntityFileStore() throws Exception {
@@ -786,4 +1398,937 @@ public class SanctumTests {
         }
     }
 
+    @Test
+    @DisplayName("Metadata Cache | Invalidated on commit")
+    public void testMetadataCacheInvalidatedOnCommit() throws Exception {
+
+        ScopedEntity         entity = new ScopedEntityA("1");
+        FileStore            store  = randomDirStore(ScopedEntityA.class);
+        AccessScope          scope  = new AccessScope(store, entity);
+        BoundedMetadataCache cache  = new BoundedMetadataCache(128, Duration.ofMinutes(5));
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH, cache)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            // Please don't do the following in production code (it defeats isolation, very bad), only allowed during tests :)
+            Path staticPath = manager.resolve(scope, "static.txt");
+            Files.writeString(staticPath, "unit-test-static", StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Assertions.assertTrue(cache.size() > 0);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "replaced.txt"), "unit-test-end");
+                context.commit();
+            }
+
+            Path replacedPath = Assertions.assertDoesNotThrow(() -> manager.resolve(scope, "replaced.txt"));
+            Assertions.assertFalse(Files.exists(staticPath), staticPath.toString());
+            Assertions.assertEquals("unit-test-end", Files.readString(replacedPath));
+        }
+    }
+
+    @Test
+    @DisplayName("Metadata Cache | Invalidated by directory")
+    public void testMetadataCacheInvalidatedByDirectory() throws Exception {
+
+        BoundedMetadataCache cache = new BoundedMetadataCache(3, Duration.ofMinutes(5));
+        Path                 root  = TEST_DATA_PATH.resolve("cache");
+        Path                 a     = root.resolve("a").resolve("nested").resolve("1.txt");
+        Path                 b     = root.resolve("b").resolve("2.txt");
+
+        Files.createDirectories(a.getParent());
+        Files.createDirectories(b.getParent());
+        Files.writeString(a, "unit-test");
+        Files.writeString(b, "unit-test");
+
+        Assertions.assertEquals(PathKind.FILE, cache.kind(a));
+        Assertions.assertEquals(PathKind.FILE, cache.kind(b));
+        Assertions.assertEquals(PathKind.DIRECTORY, cache.kind(root.resolve("a")));
+        Assertions.assertEquals(3, cache.size());
+
+        // Only the entries located beneath the invalidated directory are dropped.
+        cache.invalidate(root.resolve("a"));
+        Assertions.assertEquals(1, cache.size());
+
+        Files.delete(b);
+        Assertions.assertEquals(PathKind.FILE, cache.kind(b));
+        cache.invalidate(root);
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(PathKind.MISSING, cache.kind(b));
+
+        // Evicted entries must not be dropped again by a later invalidation.
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(root.resolve(i + ".txt"), "unit-test");
+            cache.kind(root.resolve(i + ".txt"));
+        }
+        Assertions.assertEquals(3, cache.size());
+        cache.invalidate(root);
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Utils | Move onto a non-empty directory")
+    public void testMoveOntoNonEmptyDirectory() throws Exception {
+
+        Path source      = TEST_DATA_PATH.resolve("move").resolve("source");
+        Path destination = TEST_DATA_PATH.resolve("move").resolve("destination");
+
+        Files.createDirectories(source);
+        Files.createDirectories(destination);
+        Files.writeString(source.resolve("new.txt"), "unit-test-new");
+        Files.writeString(destination.resolve("old.txt"), "unit-test-old");
+
+        // The destination must not be deleted to make room for the source.
+        Assertions.assertThrows(FileSystemException.class, () -> SanctumUtils.move(source, destination));
+        Assertions.assertEquals("unit-test-old", Files.readString(destination.resolve("old.txt")));
+        Assertions.assertEquals("unit-test-new", Files.readString(source.resolve("new.txt")));
+
+        SanctumUtils.delete(destination);
+        SanctumUtils.move(source, destination);
+        Assertions.assertFalse(Files.exists(source), source.toString());
+        Assertions.assertEquals("unit-test-new", Files.readString(destination.resolve("new.txt")));
+    }
+
+    @Test
+    @DisplayName("Library Creation | On Zip FileSystem")
+    public void testLibraryOnZipFileSystem() throws Exception {
+
+        Path         archive = TEST_DATA_PATH.resolve("library.zip");
+        FileStore    store   = randomFileStore(ScopedEntityA.class);
+        ScopedEntity entity  = new ScopedEntityA("1");
+        AccessScope  scope   = new AccessScope(store, entity);
+
+        try (FileSystem fs = FileSystems.newFileSystem(archive, Map.of("create", "true"))) {
+            try (Library manager = new Sanctum(fs.getPath("/library"))) {
+                manager.registerStore(store, StorePolicy.OVERWRITE);
+
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope), "unit-test");
+                    context.commit();
+                }
+
+                Assertions.assertEquals("unit-test", Files.readString(manager.resolve(scope)));
+            }
+        }
+
+        try (FileSystem fs = FileSystems.newFileSystem(archive, Map.of("accessMode", "readOnly"))) {
+            Assertions.assertTrue(fs.isReadOnly());
+
+            try (Library manager = new Sanctum(fs.getPath("/library"))) {
+                FileStore missing = randomFileStore(ScopedEntityA.class);
+                manager.registerStore(store, StorePolicy.OVERWRITE);
+                manager.registerStore(missing, StorePolicy.OVERWRITE);
+
+                Assertions.assertEquals("unit-test", Files.readString(manager.resolve(scope)));
+                Assertions.assertFalse(Files.exists(manager.resolve(new AccessScope(missing, entity))));
+                Assertions.assertThrows(StorageException.class, () -> manager.createIsolation(scope));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deduplicated Store | Shared content")
+    public void testDeduplicatedStoreSharedContent() throws Exception {
+
+        FileStore   store  = new DeduplicatedDirectoryStorage(randomUUID(), ScopedEntityA.class);
+        AccessScope scopeA = new AccessScope(store, new ScopedEntityA("A"));
+        AccessScope scopeB = new AccessScope(store, new ScopedEntityA("B"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(scopeA, scopeB)) {
+                Files.writeString(context.resolve(scopeA, "font.ttf"), "unit-test-font");
+                Files.writeString(context.resolve(scopeB, "font.ttf"), "unit-test-font");
+                context.commit();
+            }
+
+            Path fontA = manager.resolve(scopeA, "font.ttf");
+            Path fontB = manager.resolve(scopeB, "font.ttf");
+
+            Assertions.assertEquals("unit-test-font", Files.readString(fontA));
+            Assertions.assertTrue(Files.isSameFile(fontA, fontB), "Files should share the same body");
+            Assertions.assertEquals(0, manager.collectBlobs());
+
+            try (IsolationSession context = manager.createIsolation(scopeA, scopeB)) {
+                Files.writeString(context.resolve(scopeA, "font.ttf"), "unit-test-other");
+                Files.writeString(context.resolve(scopeB, "font.ttf"), "unit-test-other");
+                context.commit();
+            }
+
+            Assertions.assertEquals("unit-test-font".length(), manager.collectBlobs());
+            Assertions.assertEquals("unit-test-other", Files.readString(fontB));
+        }
+    }
+
+    @Test
+    @DisplayName("Compressed Store | Read through resolver")
+    public void testCompressedStoreReadThroughResolver() throws Exception {
+
+        FileStore   store   = new CompressedFileStorage(randomUUID(), ScopedEntityA.class, "json");
+        AccessScope scope   = new AccessScope(store, new ScopedEntityA("1"));
+        String      content = "{\"unit\": \"test\"}".repeat(256);
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope), content);
+                context.commit();
+            }
+
+            Path output = manager.resolve(scope);
+            Assertions.assertTrue(Files.size(output) < content.length(), "Content should be compressed");
+
+            try (InputStream is = manager.getResolver(store).newInputStream(scope.claim())) {
+                Assertions.assertEquals(content, new String(is.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Packed Store | Commit and read")
+    public void testPackedStoreCommitAndRead() throws Exception {
+
+        FileStore   store  = new PackedFileStorage(randomUUID(), ScopedEntityA.class, "json");
+        AccessScope scopeA = new AccessScope(store, new ScopedEntityA("A"));
+        AccessScope scopeB = new AccessScope(store, new ScopedEntityA("B"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(scopeA, scopeB)) {
+                Files.writeString(context.resolve(scopeA), "unit-test-a");
+                Files.writeString(context.resolve(scopeB), "unit-test-b");
+                context.commit();
+            }
+
+            try (IsolationSession context = manager.createIsolation(scopeA)) {
+                context.commit();
+            }
+
+            PackStore pack = manager.getPack(store);
+            Assertions.assertTrue(pack.read("A").isEmpty());
+
+            // Enough records to force the index to grow.
+            Path record = TEST_DATA_PATH.resolve("record.txt");
+            for (int i = 0; i < 2048; i++) {
+                Files.writeString(record, "record-" + i);
+                pack.append("record-" + i, record);
+            }
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            PackStore pack = manager.getPack(store);
+
+            ByteBuffer content = pack.read("B").orElseThrow();
+            Assertions.assertEquals("unit-test-b", StandardCharsets.UTF_8.decode(content).toString());
+            Assertions.assertEquals("record-1337", StandardCharsets.UTF_8.decode(pack.read("record-1337").orElseThrow()).toString());
+            Assertions.assertFalse(pack.contains("A"));
+        }
+    }
+
+    @Test
+    @DisplayName("Packed Store | Compaction")
+    public void testPackedStoreCompaction() throws Exception {
+
+        Path record = TEST_DATA_PATH.resolve("record.txt");
+
+        try (PackStore pack = PackStore.open(TEST_DATA_PATH.resolve("pack"), 1024)) {
+            for (int version = 0; version < 2; version++) {
+                for (int i = 0; i < 32; i++) {
+                    Files.writeString(record, "record-" + i + "-version-" + version);
+                    pack.append("record-" + i, record);
+                }
+            }
+            pack.remove("record-0");
+
+            PackStatistics before = pack.statistics();
+            Assertions.assertTrue(before.deadBytes() > 0, before.toString());
+
+            new PackCompactor(pack, 0.9, 0).run();
+
+            PackStatistics after = pack.statistics();
+            Assertions.assertTrue(after.deadBytes() < before.deadBytes(), after.toString());
+            Assertions.assertEquals(before.liveBytes(), after.liveBytes());
+
+            Assertions.assertFalse(pack.contains("record-0"));
+            for (int i = 1; i < 32; i++) {
+                ByteBuffer content = pack.read("record-" + i).orElseThrow();
+                Assertions.assertEquals("record-" + i + "-version-1", StandardCharsets.UTF_8.decode(content).toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Library Resolution | Shared memory mapping")
+    public void testLibraryResolutionSharedMapping() throws Exception {
+
+        FileStore   store = randomFileStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope), "unit-test");
+                context.commit();
+            }
+
+            int mapped = MappingRegistry.global().size();
+
+            try (MappedView first = manager.getResolver(store).map(scope.claim());
+                 MappedView second = manager.getResolver(store).map(scope.claim())) {
+
+                Assertions.assertEquals(mapped + 1, MappingRegistry.global().size());
+                Assertions.assertEquals(first.segment().address(), second.segment().address());
+
+                byte[] content = first.segment().toArray(ValueLayout.JAVA_BYTE);
+                Assertions.assertEquals("unit-test", new String(content, StandardCharsets.UTF_8));
+            }
+
+            Assertions.assertEquals(mapped, MappingRegistry.global().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Library Resolution | Range streaming")
+    public void testLibraryResolutionRangeStreaming() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "media.txt"), "unit-test-range");
+                context.commit();
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            try (ContentChannel channel = manager.open(scope, "media.txt")) {
+                Assertions.assertEquals("unit-test-range".length(), channel.metadata().length());
+                Assertions.assertNotNull(channel.metadata().etag());
+                Assertions.assertEquals(5, channel.transferTo(5, 5, Channels.newChannel(output)));
+                Assertions.assertThrows(IndexOutOfBoundsException.class, () -> channel.transferTo(10, 10, Channels.newChannel(output)));
+            }
+
+            Assertions.assertEquals("test-", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Tiered Store | Demotion and promotion")
+    public void testTieredStoreMigration() throws Exception {
+
+        FileStore   store  = randomFileStore(ScopedEntityA.class);
+        AccessScope first  = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope second = new AccessScope(store, new ScopedEntityA("2"));
+        Path        cold   = TEST_DATA_PATH.resolve("cold");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+            TierMigrator migrator = manager.registerTier(store, cold, 1);
+
+            try (IsolationSession context = manager.createIsolation(first, second)) {
+                Files.writeString(context.resolve(first), "unit-test-first");
+                Files.writeString(context.resolve(second), "unit-test-second");
+                context.commit();
+            }
+
+            manager.resolve(second);
+            migrator.run();
+
+            Assertions.assertTrue(migrator.isCold("1"));
+            Assertions.assertFalse(migrator.isCold("2"));
+            Assertions.assertEquals("unit-test-first", Files.readString(manager.resolve(first)));
+
+            try (IsolationSession context = manager.createIsolation(first)) {
+                migrator.run();
+                Assertions.assertTrue(migrator.isCold("1"), "A claimed entity must not be moved");
+            }
+
+            migrator.run();
+
+            Assertions.assertFalse(migrator.isCold("1"));
+            Assertions.assertTrue(migrator.isCold("2"));
+            Assertions.assertEquals("unit-test-second", Files.readString(manager.resolve(second)));
+        }
+    }
+
+    @Test
+    @DisplayName("Tiered Store | Files of a cold directory entity")
+    public void testTieredStoreDirectoryEntity() throws Exception {
+
+        FileStore   store  = randomDirStore(ScopedEntityA.class);
+        AccessScope first  = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope second = new AccessScope(store, new ScopedEntityA("2"));
+        Path        cold   = TEST_DATA_PATH.resolve("cold");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+            TierMigrator migrator = manager.registerTier(store, cold, 1);
+
+            try (IsolationSession context = manager.createIsolation(first, second)) {
+                Files.writeString(context.resolve(first, "data.txt"), "unit-test-first");
+                Files.writeString(context.resolve(second, "data.txt"), "unit-test-second");
+                context.commit();
+            }
+
+            manager.resolve(second);
+            migrator.run();
+            Assertions.assertTrue(migrator.isCold("1"));
+
+            StorageResolver resolver = manager.getResolver(store);
+
+            Assertions.assertEquals("unit-test-first", Files.readString(resolver.file(first.claim(), "data.txt")));
+            Assertions.assertFalse(Files.exists(migrator.hot().resolve("1")), "The hot tier must not be written by a resolution");
+            Assertions.assertTrue(migrator.isCold("1"));
+
+            // The cold hit promotes the first entity, then the second one is read from the cold tier and promoted back.
+            migrator.run();
+            Assertions.assertTrue(migrator.isCold("2"));
+            Assertions.assertEquals("unit-test-second", Files.readString(resolver.file(second.claim(), "data.txt")));
+            migrator.run();
+
+            Assertions.assertTrue(migrator.isCold("1"));
+            Assertions.assertEquals("unit-test-first", Files.readString(resolver.file(first.claim(), "data.txt")));
+            Assertions.assertEquals("unit-test-second", Files.readString(resolver.file(second.claim(), "data.txt")));
+        }
+    }
+
+    @Test
+    @DisplayName("Tiered Store | Full swap of a cold entity")
+    public void testTieredStoreFullSwap() throws Exception {
+
+        FileStore   store  = randomFileStore(ScopedEntityA.class);
+        AccessScope first  = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope second = new AccessScope(store, new ScopedEntityA("2"));
+        Path        cold   = TEST_DATA_PATH.resolve("cold");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            TierMigrator migrator = manager.registerTier(store, cold, 1);
+
+            try (IsolationSession context = manager.createIsolation(first, second)) {
+                Files.writeString(context.resolve(first), "unit-test-first");
+                Files.writeString(context.resolve(second), "unit-test-second");
+                context.commit();
+            }
+
+            manager.resolve(second);
+            migrator.run();
+            Assertions.assertTrue(migrator.isCold("1"));
+
+            try (IsolationSession context = manager.createIsolation(first)) {
+                Files.writeString(context.resolve(first), "unit-test-swapped");
+                context.commit();
+            }
+
+            Assertions.assertFalse(migrator.isCold("1"));
+            Assertions.assertFalse(Files.exists(migrator.cold().resolve(migrator.entry("1"))));
+            Assertions.assertEquals("unit-test-swapped", Files.readString(manager.resolve(first)));
+        }
+    }
+
+    @Test
+    @DisplayName("Library Creation | On several roots")
+    public void testLibraryCreationOnSeveralRoots() throws Exception {
+
+        FileStore  store = randomFileStore(ScopedEntityA.class);
+        List<Path> roots = List.of(TEST_DATA_PATH.resolve("disk-0"), TEST_DATA_PATH.resolve("disk-1"));
+
+        try (Library manager = new Sanctum(roots, PlacementStrategy.perEntity(), MetadataCache.disabled())) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            for (int i = 0; i < 16; i++) {
+                AccessScope scope = new AccessScope(store, new ScopedEntityA(String.valueOf(i)));
+                Path        root  = roots.get(PlacementStrategy.perEntity().place(store, String.valueOf(i), 2)).toAbsolutePath();
+
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Path isolationPath = context.resolve(scope);
+                    Assertions.assertTrue(isolationPath.startsWith(root), isolationPath.toString());
+                    Files.writeString(isolationPath, "unit-test-" + i);
+                    context.commit();
+                }
+
+                Path libraryPath = manager.resolve(scope);
+                Assertions.assertTrue(libraryPath.startsWith(root), libraryPath.toString());
+                Assertions.assertEquals("unit-test-" + i, Files.readString(libraryPath));
+            }
+
+            for (Path root : roots) {
+                try (var files = Files.list(root.resolve(store.name()))) {
+                    Assertions.assertTrue(files.findAny().isPresent(), "Every root should hold entities");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Versioned Store | Retention and restoration")
+    public void testVersionedStoreRetention() throws Exception {
+
+        FileStore   store = new VersionedFileStorage(randomUUID(), ScopedEntityA.class, "txt", 2);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            for (int i = 1; i <= 4; i++) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope), "unit-test-" + i);
+                    context.commit();
+                }
+            }
+
+            Assertions.assertEquals(List.of(2L, 3L), manager.getVersions(scope));
+            Assertions.assertEquals("unit-test-2", Files.readString(manager.resolveVersion(scope, 2)));
+            Assertions.assertThrows(StorageException.class, () -> manager.resolveVersion(scope, 1));
+
+            manager.restoreVersion(scope, 2);
+
+            Assertions.assertEquals("unit-test-2", Files.readString(manager.resolve(scope)));
+            Assertions.assertEquals(List.of(3L, 4L), manager.getVersions(scope));
+            Assertions.assertEquals("unit-test-4", Files.readString(manager.resolveVersion(scope, 4)));
+
+            try (IsolationSession ignored = manager.createIsolation(scope)) {
+                Assertions.assertThrows(ScopeGrantException.class, () -> manager.restoreVersion(scope, 3));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Versioned Store | Unchanged files are shared")
+    public void testVersionedStoreSharedFiles() throws Exception {
+
+        FileStore   store = new VersionedDirectoryStorage(randomUUID(), ScopedEntityA.class, 1);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "static.txt"), "unit-test-static");
+                Files.writeString(context.resolve(scope, "dynamic.txt"), "unit-test-1");
+                context.commit();
+            }
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "dynamic.txt"), "unit-test-2");
+                context.commit();
+            }
+
+            Path version = manager.resolveVersion(scope, 1);
+
+            Assertions.assertTrue(Files.isSameFile(version.resolve("static.txt"), manager.resolve(scope, "static.txt")));
+            Assertions.assertEquals("unit-test-1", Files.readString(version.resolve("dynamic.txt")));
+            Assertions.assertEquals("unit-test-2", Files.readString(manager.resolve(scope, "dynamic.txt")));
+        }
+    }
+
+    @Test
+    @DisplayName("Versioned Store | Rollback from the version")
+    public void testVersionedStoreRollback() throws Exception {
+
+        FileStore   store = new VersionedDirectoryStorage(randomUUID(), ScopedEntityA.class, 1);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "static.txt"), "unit-test-static");
+                context.commit();
+            }
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "dynamic.txt"), "unit-test-dynamic");
+                // A dangling link cannot be copied, failing the commit after the entity has been partially overwritten.
+                Files.createSymbolicLink(context.resolve(scope, "broken.txt"), Path.of("missing"));
+                Assertions.assertThrows(ContextCommitException.class, context::commit);
+            }
+
+            Path entity = manager.resolve(scope);
+
+            Assertions.assertEquals(List.of(), manager.getVersions(scope));
+            Assertions.assertEquals("unit-test-static", Files.readString(entity.resolve("static.txt")));
+            Assertions.assertFalse(Files.exists(entity.resolve("dynamic.txt")));
+            Assertions.assertFalse(Files.exists(entity.resolveSibling("." + entity.getFileName())));
+        }
+    }
+
+    @Test
+    @DisplayName("Commit | Failed scope rolled back and reported")
+    public void testCommitRollbackReported() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "static.txt"), "unit-test-static");
+                context.commit();
+            }
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "dynamic.txt"), "unit-test-dynamic");
+                Files.createSymbolicLink(context.resolve(scope, "broken.txt"), Path.of("missing"));
+                Assertions.assertThrows(ContextCommitException.class, context::commit);
+            }
+
+            Path entity = manager.resolve(scope);
+
+            Assertions.assertEquals("unit-test-static", Files.readString(entity.resolve("static.txt")));
+            Assertions.assertFalse(Files.exists(entity.resolve("dynamic.txt")));
+            Assertions.assertFalse(Files.exists(entity.resolveSibling("." + entity.getFileName())));
+            Assertions.assertEquals(new TransferSize(1, "unit-test-static".length()), manager.getUsage(scope));
+        }
+    }
+
+    @Test
+    @DisplayName("Read View | Pinned content")
+    public void testReadViewPinnedContent() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "first.txt"), "unit-test-1");
+                context.commit();
+            }
+
+            Path pinned;
+
+            try (ReadView view = manager.openView(store)) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope, "second.txt"), "unit-test-2");
+                    context.commit();
+                }
+
+                pinned = view.resolve(scope);
+
+                Assertions.assertEquals("unit-test-1", Files.readString(view.resolve(scope, "first.txt")));
+                Assertions.assertFalse(Files.exists(view.resolve(scope, "second.txt")));
+                Assertions.assertFalse(Files.exists(manager.resolve(scope, "first.txt")));
+                Assertions.assertEquals("unit-test-2", Files.readString(manager.resolve(scope, "second.txt")));
+                Assertions.assertThrows(StorageException.class, () -> view.getResolver(randomRaw()));
+            }
+
+            Assertions.assertFalse(Files.exists(pinned), pinned.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Read View | Lazy pinning and listing")
+    public void testReadViewLazyPinning() throws Exception {
+
+        FileStore   store   = randomFileStore(ScopedEntityA.class);
+        AccessScope kept    = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope changed = new AccessScope(store, new ScopedEntityA("2"));
+        AccessScope deleted = new AccessScope(store, new ScopedEntityA("3"));
+        AccessScope created = new AccessScope(store, new ScopedEntityA("4"));
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+
+            try (IsolationSession context = manager.createIsolation(kept, changed, deleted)) {
+                Files.writeString(context.resolve(kept), "unit-test-1");
+                Files.writeString(context.resolve(changed), "unit-test-2");
+                Files.writeString(context.resolve(deleted), "unit-test-3");
+                context.commit();
+            }
+
+            try (ReadView view = manager.openView(store)) {
+                StorageResolver resolver = view.getResolver(store);
+
+                // Nothing is pinned until it is resolved or committed.
+                try (Stream<Path> snapshot = Files.list(resolver.directory())) {
+                    Assertions.assertEquals(0, snapshot.count());
+                }
+
+                try (IsolationSession context = manager.createIsolation(changed, deleted, created)) {
+                    Files.writeString(context.resolve(changed), "unit-test-changed");
+                    Files.writeString(context.resolve(created), "unit-test-4");
+                    context.commit();
+                }
+
+                Set<String> names;
+                try (Stream<ListedEntry> entries = resolver.list(false)) {
+                    names = entries.peek(entry -> Assertions.assertTrue(entry.path().startsWith(resolver.directory())))
+                                   .map(ListedEntry::name)
+                                   .collect(Collectors.toSet());
+                }
+
+                Assertions.assertEquals(Set.of("1", "2", "3"), names);
+                Assertions.assertEquals(List.of("1", "2", "3"), resolver.page(null, 10, true).entries().stream().map(ListedEntry::name).toList());
+                Assertions.assertEquals("unit-test-1", Files.readString(view.resolve(kept)));
+                Assertions.assertEquals("unit-test-2", Files.readString(view.resolve(changed)));
+                Assertions.assertEquals("unit-test-3", Files.readString(view.resolve(deleted)));
+                Assertions.assertFalse(Files.exists(view.resolve(created)));
+                Assertions.assertEquals("unit-test-changed", Files.readString(manager.resolve(changed)));
+                Assertions.assertFalse(Files.exists(manager.resolve(deleted)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Store Policy | Generational")
+    public void testStorePolicyGenerational() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.GENERATIONAL);
+            GenerationReaper reaper = new GenerationReaper(manager.getGenerations());
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "first.txt"), "unit-test-1");
+                context.commit();
+            }
+
+            Assertions.assertTrue(Files.isSymbolicLink(manager.resolve(scope)));
+
+            // Listings report the generation the entity links to.
+            try (Stream<ListedEntry> entries = manager.getResolver(store).list(true)) {
+                Assertions.assertTrue(entries.findFirst().orElseThrow().attributes().isDirectory());
+            }
+
+            try (Generation generation = manager.acquireGeneration(scope)) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope, "second.txt"), "unit-test-2");
+                    context.commit();
+                }
+
+                Assertions.assertFalse(Files.exists(manager.resolve(scope, "first.txt")));
+                Assertions.assertEquals("unit-test-2", Files.readString(manager.resolve(scope, "second.txt")));
+
+                reaper.run();
+                Assertions.assertEquals(1, manager.getGenerations().retired());
+                Assertions.assertEquals("unit-test-1", Files.readString(generation.path().resolve("first.txt")));
+            }
+
+            reaper.run();
+            Assertions.assertEquals(0, manager.getGenerations().retired());
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                context.commit();
+            }
+
+            Assertions.assertFalse(Files.exists(manager.resolve(scope)));
+        }
+    }
+
+    @Test
+    @DisplayName("Store Policy | Generational publish failure")
+    public void testStorePolicyGenerationalPublishFailure() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.GENERATIONAL);
+
+            // A directory in place of the link staged by the publication prevents it from being replaced.
+            Path link = manager.resolve(scope).resolveSibling(".1.link");
+            Files.createDirectories(link);
+            Files.writeString(link.resolve("blocker.txt"), "unit-test-blocker");
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                Files.writeString(context.resolve(scope, "content.txt"), "unit-test");
+                Assertions.assertThrows(ContextCommitException.class, context::commit);
+
+                // The isolated content has been moved back, so that the commit can be retried.
+                Assertions.assertEquals("unit-test", Files.readString(context.resolve(scope, "content.txt")));
+
+                SanctumUtils.delete(link);
+                context.commit();
+            }
+
+            Assertions.assertTrue(Files.isSymbolicLink(manager.resolve(scope)));
+            Assertions.assertEquals("unit-test", Files.readString(manager.resolve(scope, "content.txt")));
+        }
+    }
+
+    @Test
+    @DisplayName("Store Policy | Generational recovery after reopening")
+    public void testStorePolicyGenerationalRecovery() throws Exception {
+
+        FileStore   store = randomDirStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+        Path        generations;
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.GENERATIONAL);
+
+            for (int i = 0; i < 3; i++) {
+                try (IsolationSession context = manager.createIsolation(scope)) {
+                    Files.writeString(context.resolve(scope, "content.txt"), "unit-test-" + i);
+                    context.commit();
+                }
+            }
+
+            generations = manager.getGenerations().current(manager.resolve(scope)).getParent();
+            Assertions.assertEquals(2, manager.getGenerations().retired());
+        }
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.GENERATIONAL);
+            Assertions.assertEquals(2, manager.getGenerations().retired());
+
+            new GenerationReaper(manager.getGenerations()).run();
+
+            Assertions.assertEquals(0, manager.getGenerations().retired());
+            Assertions.assertEquals("unit-test-2", Files.readString(manager.resolve(scope, "content.txt")));
+            try (Stream<Path> remaining = Files.list(generations)) {
+                Assertions.assertEquals(1, remaining.count());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Replication | Committed scopes are mirrored")
+    public void testReplicationMirror() throws Exception {
+
+        FileStore   store  = randomFileStore(ScopedEntityA.class);
+        AccessScope first  = new AccessScope(store, new ScopedEntityA("1"));
+        AccessScope second = new AccessScope(store, new ScopedEntityA("2"));
+        Path        mirror = TEST_DATA_PATH.resolve("mirror");
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            Replicator replicator = manager.enableReplication(List.of(mirror), 16);
+
+            for (int i = 0; i < 3; i++) {
+                try (IsolationSession context = manager.createIsolation(first)) {
+                    Files.writeString(context.resolve(first), "unit-test-" + i);
+                    context.commit();
+                }
+            }
+
+            try (IsolationSession context = manager.createIsolation(second)) {
+                Files.writeString(context.resolve(second), "unit-test-second");
+                context.commit();
+            }
+
+            Assertions.assertEquals(4, replicator.pending());
+            Assertions.assertEquals(4, replicator.replicate());
+            Assertions.assertEquals(0, replicator.pending());
+            Assertions.assertEquals(2, replicator.replicated());
+            Assertions.assertEquals(Duration.ZERO, replicator.lag());
+
+            Path mirrored = mirror.resolve(store.name()).resolve("1.txt");
+            Assertions.assertEquals("unit-test-2", Files.readString(mirrored));
+
+            try (IsolationSession context = manager.createIsolation(first)) {
+                context.commit();
+            }
+        }
+
+        // Pending entries survive a restart.
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.FULL_SWAP);
+            Replicator replicator = manager.enableReplication(List.of(mirror), 16);
+
+            Assertions.assertEquals(1, replicator.pending());
+            replicator.run();
+            Assertions.assertFalse(Files.exists(mirror.resolve(store.name()).resolve("1.txt")));
+            Assertions.assertTrue(Files.exists(mirror.resolve(store.name()).resolve("2.txt")));
+        }
+    }
+
+    @Test
+    @DisplayName("Replication | Applied scopes of a failed commit are mirrored")
+    public void testReplicationPartialCommit() throws Exception {
+
+        FileStore         files   = new ScopedFileStorage("replicated-files", ScopedEntityA.class, "txt");
+        FileStore         broken  = new ScopedDirectoryStorage("replicated-broken", ScopedEntityA.class);
+        AccessScope       failing = new AccessScope(broken, new ScopedEntityA("1"));
+        Set<AccessScope>  scopes  = new HashSet<>(Set.of(failing));
+        List<AccessScope> applied = new ArrayList<>();
+        Path              mirror  = TEST_DATA_PATH.resolve("mirror");
+
+        for (int i = 1; i <= 9; i++) scopes.add(new AccessScope(files, new ScopedEntityA(String.valueOf(i))));
+
+        try (Sanctum manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(files, StorePolicy.FULL_SWAP);
+            manager.registerStore(broken, StorePolicy.OVERWRITE);
+            Replicator replicator = manager.enableReplication(List.of(mirror), 16);
+
+            try (IsolationSession context = manager.createIsolation(scopes)) {
+                for (AccessScope scope : scopes) {
+                    if (scope.equals(failing)) Files.createSymbolicLink(context.resolve(scope, "broken.txt"), Path.of("missing"));
+                    else Files.writeString(context.resolve(scope), "unit-test-" + scope.claim().getScopedName());
+                }
+                Assertions.assertThrows(ContextCommitException.class, context::commit);
+            }
+
+            for (AccessScope scope : scopes) {
+                if (!scope.equals(failing) && Files.exists(manager.resolve(scope))) applied.add(scope);
+            }
+
+            // Scopes are committed in no particular order: every scope committed before the failing one must be replicated.
+            Assertions.assertEquals(applied.size(), replicator.pending());
+            replicator.run();
+
+            for (AccessScope scope : applied) {
+                Path mirrored = mirror.resolve(files.name()).resolve(scope.claim().getScopedName() + ".txt");
+                Assertions.assertEquals("unit-test-" + scope.claim().getScopedName(), Files.readString(mirrored));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Isolation Writing | Chunked file")
+    public void testIsolationWritingChunkedFile() throws Exception {
+
+        FileStore   store = randomFileStore(ScopedEntityA.class);
+        AccessScope scope = new AccessScope(store, new ScopedEntityA("1"));
+        byte[]      data  = new byte[1024 * 1024];
+        new Random(42).nextBytes(data);
+
+        try (Library manager = new Sanctum(TEST_LIBRARY_PATH)) {
+            manager.registerStore(store, StorePolicy.OVERWRITE);
+
+            try (IsolationSession context = manager.createIsolation(scope)) {
+                try (ChunkedFile file = context.createChunkedFile(scope, data.length)) {
+                    List<Thread> writers = file.split(100_000).stream().map(chunk -> Thread.ofPlatform().start(() -> {
+                        try (WritableByteChannel channel = file.open(chunk)) {
+                            channel.write(ByteBuffer.wrap(data, (int) chunk.offset(), (int) chunk.length()));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })).toList();
+
+                    for (Thread writer : writers) writer.join();
+                    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> file.write(data.length - 1, ByteBuffer.allocate(2)));
+                }
+
+                context.commit();
+            }
+
+            Path committed = manager.resolve(scope);
+            Assertions.assertArrayEquals(data, Files.readAllBytes(committed));
+
+            Path copy      = TEST_DATA_PATH.resolve("copy.bin");
+            Path truncated = TEST_DATA_PATH.resolve("truncated.bin");
+            try (ParallelCopy parallel = new ParallelCopy(2)) {
+                parallel.copy(committed, copy, Files.size(committed));
+
+                // Every range past the end of the source fails, and the destination is only deleted once they all stopped.
+                Assertions.assertThrows(IOException.class, () -> parallel.copy(committed, truncated, ParallelCopy.CHUNK_SIZE * 3));
+                Assertions.assertFalse(Files.exists(truncated), truncated.toString());
+            }
+            Assertions.assertArrayEquals(data, Files.readAllBytes(copy));
+        }
+    }
+
 }